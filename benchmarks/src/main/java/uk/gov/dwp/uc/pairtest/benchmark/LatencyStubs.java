@@ -0,0 +1,30 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gateway stand-ins with a fixed, configurable latency. A latency of zero
+ * returns immediately so only orchestration overhead is measured.
+ */
+final class LatencyStubs {
+
+    private LatencyStubs() {
+    }
+
+    static TicketPaymentService payment(long latencyMicros) {
+        return (accountId, totalAmountToPay) -> pause(latencyMicros);
+    }
+
+    static SeatReservationService seats(long latencyMicros) {
+        return (accountId, totalSeatsToAllocate) -> pause(latencyMicros);
+    }
+
+    private static void pause(long latencyMicros) {
+        if (latencyMicros > 0) {
+            LockSupport.parkNanos(latencyMicros * 1_000L);
+        }
+    }
+}
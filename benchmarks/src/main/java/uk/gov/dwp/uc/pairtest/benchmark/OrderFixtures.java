@@ -0,0 +1,82 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.SplittableRandom;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * Deterministic order generator shared by all benchmarks.
+ */
+final class OrderFixtures {
+
+    static final int MAX_TICKETS = 25;
+
+    private OrderFixtures() {
+    }
+
+    enum Mix {
+        ADULT_ONLY(ADULT),
+        FAMILY(ADULT, CHILD, INFANT),
+        CHILD_HEAVY(ADULT, CHILD, CHILD, CHILD, INFANT);
+
+        private final TicketTypeRequest.Type[] types;
+
+        Mix(TicketTypeRequest.Type... types) {
+            this.types = types;
+        }
+    }
+
+    static Order[] generate(int count, int lineItems, Mix mix, double invalidRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Order[] orders = new Order[count];
+        for (int i = 0; i < count; i++) {
+            long accountId = 1 + random.nextInt(1_000_000);
+            TicketTypeRequest[] requests = validOrder(random, lineItems, mix);
+            if (random.nextDouble() < invalidRatio) {
+                orders[i] = invalidate(random, accountId, requests);
+            } else {
+                orders[i] = new Order(accountId, requests);
+            }
+        }
+        return orders;
+    }
+
+    private static TicketTypeRequest[] validOrder(SplittableRandom random, int lineItems, Mix mix) {
+        TicketTypeRequest[] requests = new TicketTypeRequest[lineItems];
+        int budget = MAX_TICKETS - 1;
+        requests[0] = new TicketTypeRequest(ADULT, 1);
+        for (int i = 1; i < lineItems; i++) {
+            int tickets = budget == 0 ? 0 : random.nextInt(Math.min(budget, 4) + 1);
+            budget -= tickets;
+            requests[i] = new TicketTypeRequest(mix.types[random.nextInt(mix.types.length)], tickets);
+        }
+        return requests;
+    }
+
+    private static Order invalidate(SplittableRandom random, long accountId, TicketTypeRequest[] requests) {
+        TicketTypeRequest[] copy = requests.clone();
+        return switch (random.nextInt(4)) {
+            case 0 -> new Order(0L, copy);
+            case 1 -> {
+                copy[0] = new TicketTypeRequest(CHILD, 1);
+                for (int i = 1; i < copy.length; i++) {
+                    copy[i] = new TicketTypeRequest(CHILD, copy[i].noOfTickets());
+                }
+                yield new Order(accountId, copy);
+            }
+            case 2 -> {
+                copy[copy.length - 1] = new TicketTypeRequest(ADULT, MAX_TICKETS + 1);
+                yield new Order(accountId, copy);
+            }
+            default -> {
+                copy[copy.length - 1] = new TicketTypeRequest(CHILD, -1);
+                yield new Order(accountId, copy);
+            }
+        };
+    }
+
+    record Order(Long accountId, TicketTypeRequest[] requests) {
+    }
+}
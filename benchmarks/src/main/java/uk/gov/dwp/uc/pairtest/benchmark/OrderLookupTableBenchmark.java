@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.OrderLookupTable;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order processing with the precomputed {@link OrderLookupTable} against the arithmetic path.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderLookupTableBenchmark {
+
+    @Param({"arithmetic", "lookup"})
+    public String engine;
+
+    private final TicketRequestValidator validator = new TicketRequestValidator(OrderFixtures.MAX_TICKETS);
+    private final PriceCalculator calculator = new PriceCalculator();
+    private TicketOrderProcessor processor;
+
+    @Setup
+    public void setUp() {
+        OrderLookupTable table = "lookup".equals(engine) ? OrderLookupTable.build(validator, calculator) : null;
+        processor = new TicketOrderProcessor(validator, calculator, table);
+    }
+
+    @Benchmark
+    public Object process(OrderState state) {
+        OrderFixtures.Order order = state.next();
+        try {
+            return processor.process(order.accountId(), order.requests());
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.service.OrderLookupTable;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of {@link OrderLookupTable}: single-shot build time in a fresh JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class OrderLookupTableBuildBenchmark {
+
+    private final TicketRequestValidator validator = new TicketRequestValidator(OrderFixtures.MAX_TICKETS);
+    private final PriceCalculator calculator = new PriceCalculator();
+
+    @Benchmark
+    public OrderLookupTable build() {
+        return OrderLookupTable.build(validator, calculator);
+    }
+}
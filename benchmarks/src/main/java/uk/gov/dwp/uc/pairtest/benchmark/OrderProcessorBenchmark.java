@@ -0,0 +1,40 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderProcessorBenchmark {
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(
+            new TicketRequestValidator(OrderFixtures.MAX_TICKETS), new PriceCalculator());
+
+    @Benchmark
+    public Object process(OrderState state) {
+        OrderFixtures.Order order = state.next();
+        try {
+            return processor.process(order.accountId(), order.requests());
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pre-generated orders cycled through by each benchmark thread, so order
+ * construction does not show up in the measured allocation rate.
+ */
+@State(Scope.Thread)
+public class OrderState {
+
+    private static final int ORDER_COUNT = 1024;
+
+    @Param({"1", "3", "10"})
+    public int lineItems;
+
+    @Param({"ADULT_ONLY", "FAMILY", "CHILD_HEAVY"})
+    public String mix;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double invalidRatio;
+
+    private OrderFixtures.Order[] orders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orders = OrderFixtures.generate(ORDER_COUNT, lineItems, OrderFixtures.Mix.valueOf(mix), invalidRatio, 42L);
+    }
+
+    OrderFixtures.Order next() {
+        OrderFixtures.Order order = orders[next];
+        next = (next + 1) & (ORDER_COUNT - 1);
+        return order;
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.PrimitiveTicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * A family order (2 adults, 1 child, 1 infant) bought through the varargs API, building the
+ * request records as a caller would, and through the primitive entry point.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitivePurchaseBenchmark {
+
+    private final PrimitiveTicketServiceImpl purchaser = new PrimitiveTicketServiceImpl(
+            LatencyStubs.payment(0), LatencyStubs.seats(0),
+            new TicketOrderProcessor(new TicketRequestValidator(OrderFixtures.MAX_TICKETS, true), new PriceCalculator()));
+    private final TicketServiceImpl service = new TicketServiceImpl(purchaser);
+
+    public long accountId = 1_000L;
+    public int adults = 2;
+    public int children = 1;
+    public int infants = 1;
+
+    @Benchmark
+    public void requests() {
+        service.purchaseTickets(accountId, new TicketTypeRequest(ADULT, adults),
+                new TicketTypeRequest(CHILD, children), new TicketTypeRequest(INFANT, infants));
+    }
+
+    @Benchmark
+    public void primitive() {
+        purchaser.purchaseTickets(accountId, adults, children, infants);
+    }
+}
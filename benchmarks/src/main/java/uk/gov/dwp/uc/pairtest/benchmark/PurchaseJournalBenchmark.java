@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.journal.JournalRecord;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends to a {@link PurchaseJournal} in a temporary directory from eight threads, either leaving
+ * the flush to the background group commit or waiting for each record to reach disk. Each record
+ * finishes its own purchase, so the journal checkpoints away its settled segments as it goes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PurchaseJournalBenchmark {
+
+    private Path dir;
+    private PurchaseJournal journal;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("purchases");
+        journal = new PurchaseJournal(dir.resolve("purchases.journal"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private JournalRecord record() {
+        return new JournalRecord(journal.nextPurchaseId(), 42L, 2, 1, 1, 65, 3, PurchaseState.COMPLETED);
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(record());
+    }
+
+    @Benchmark
+    public long appendDurable() {
+        return journal.appendDurable(record());
+    }
+}
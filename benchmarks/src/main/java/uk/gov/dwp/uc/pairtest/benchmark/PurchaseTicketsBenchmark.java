@@ -0,0 +1,71 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.PrimitiveTicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.LockFreePurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code purchaseTickets}. Run with {@code gatewayLatencyMicros=0}
+ * to isolate orchestration overhead from gateway cost, and compare {@code metrics}
+ * values to measure the cost of instrumentation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseTicketsBenchmark {
+
+    @Param({"0", "50"})
+    public long gatewayLatencyMicros;
+
+    @Param({"off", "counters", "sampled", "on"})
+    public String metrics;
+
+    private TicketService ticketService;
+
+    @Setup
+    public void setUp() {
+        TicketOrderProcessor processor = new TicketOrderProcessor(
+                new TicketRequestValidator(OrderFixtures.MAX_TICKETS), new PriceCalculator());
+        PurchaseMetrics purchaseMetrics = switch (metrics) {
+            case "counters" -> new LockFreePurchaseMetrics(Integer.MAX_VALUE);
+            case "sampled" -> new LockFreePurchaseMetrics(64);
+            case "on" -> new LockFreePurchaseMetrics();
+            default -> PurchaseMetrics.noop();
+        };
+        ticketService = new TicketServiceImpl(new PrimitiveTicketServiceImpl(
+                LatencyStubs.payment(gatewayLatencyMicros), LatencyStubs.seats(gatewayLatencyMicros), processor, purchaseMetrics));
+    }
+
+    @Benchmark
+    public boolean purchaseTickets(OrderState state) {
+        OrderFixtures.Order order = state.next();
+        try {
+            ticketService.purchaseTickets(order.accountId(), order.requests());
+            return true;
+        } catch (InvalidPurchaseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.ring.RingPurchaseProcessor;
+import uk.gov.dwp.uc.pairtest.ring.WaitStrategy;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Family orders published into a {@link RingPurchaseProcessor} from one thread. Publishing
+ * blocks while the ring is full, so the steady-state rate is the rate of the whole pipeline.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class RingPurchaseBenchmark {
+
+    @Param({"YIELD", "PARK"})
+    public WaitStrategy waitStrategy;
+
+    @Param({"1024"})
+    public int bufferSize;
+
+    private RingPurchaseProcessor ring;
+
+    @Setup
+    public void setUp() {
+        TicketOrderProcessor processor = new TicketOrderProcessor(
+                new TicketRequestValidator(OrderFixtures.MAX_TICKETS), new PriceCalculator());
+        ring = new RingPurchaseProcessor(LatencyStubs.payment(0), LatencyStubs.seats(0), processor,
+                slot -> {
+                }, bufferSize, waitStrategy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ring.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Tags {
+        long next;
+    }
+
+    @Benchmark
+    public void publish(Tags tags) {
+        long tag = tags.next++;
+        ring.publish(tag, 1 + (tag & 1023), 2, 1, 1);
+    }
+}
@@ -0,0 +1,79 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+import uk.gov.dwp.uc.pairtest.service.validator.rules.LinearConstraint;
+import uk.gov.dwp.uc.pairtest.service.validator.rules.RuleBasedTicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.rules.RuleSet;
+import uk.gov.dwp.uc.pairtest.service.validator.rules.ValidationRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hard-coded {@link TicketRequestValidator} against a {@link RuleBasedTicketRequestValidator}
+ * running the same rules, and one running three more, on orders already tallied into counts.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleEngineBenchmark {
+
+    private static final int ORDER_COUNT = 1024;
+
+    @Param({"current", "rules", "extended-rules"})
+    public String engine;
+
+    @Param({"0.0", "0.5"})
+    public double invalidRatio;
+
+    private TicketRequestValidator validator;
+    private int[] counts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RuleSet defaults = RuleSet.defaults(OrderFixtures.MAX_TICKETS);
+        validator = switch (engine) {
+            case "current" -> new TicketRequestValidator(OrderFixtures.MAX_TICKETS);
+            case "rules" -> new RuleBasedTicketRequestValidator(defaults);
+            default -> {
+                List<ValidationRule> rules = new ArrayList<>(defaults.rules());
+                rules.add(new ValidationRule("infant-laps", ValidationFailure.TOO_MANY_INFANTS, new LinearConstraint(-1, 0, 1, 0)));
+                rules.add(new ValidationRule("children-per-adult", ValidationFailure.TOO_MANY_TICKETS, new LinearConstraint(-8, 1, 0, 0)));
+                rules.add(new ValidationRule("max-infants", ValidationFailure.TOO_MANY_INFANTS, new LinearConstraint(0, 0, 1, 10)));
+                yield new RuleBasedTicketRequestValidator(new RuleSet(rules));
+            }
+        };
+        OrderFixtures.Order[] orders = OrderFixtures.generate(ORDER_COUNT, 3, OrderFixtures.Mix.FAMILY, invalidRatio, 42L);
+        counts = new int[ORDER_COUNT * 3];
+        for (int o = 0; o < ORDER_COUNT; o++) {
+            for (TicketTypeRequest request : orders[o].requests()) {
+                counts[o * 3 + request.type().ordinal()] += request.noOfTickets();
+            }
+        }
+    }
+
+    @Benchmark
+    public ValidationFailure check() {
+        int o = next * 3;
+        next = (next + 1) & (ORDER_COUNT - 1);
+        return validator.check(1L, counts[o], counts[o + 1], counts[o + 2]);
+    }
+}
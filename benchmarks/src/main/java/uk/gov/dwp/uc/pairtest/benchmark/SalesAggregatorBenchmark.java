@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.sales.SalesAggregator;
+import uk.gov.dwp.uc.pairtest.sales.SalesSnapshot;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completed purchases recorded from four threads over {@code accounts} distinct accounts, with a
+ * one-second bucket window, alongside the cost of taking a snapshot.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SalesAggregatorBenchmark {
+
+    private static final TicketCalculationResult FAMILY = new TicketCalculationResult(65, 3);
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    private SalesAggregator aggregator;
+
+    @Setup
+    public void setUp() {
+        aggregator = new SalesAggregator(Duration.ofSeconds(1), 60);
+    }
+
+    @Benchmark
+    public void record() {
+        aggregator.record(ThreadLocalRandom.current().nextInt(accounts), 2, 1, 1, FAMILY);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public SalesSnapshot snapshot() {
+        return aggregator.snapshot();
+    }
+}
@@ -0,0 +1,67 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.seatmap.SeatBlock;
+import uk.gov.dwp.uc.pairtest.seatmap.SeatMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended hold-and-release of a block of adjacent seats in a 500-seat auditorium
+ * (20 rows of 25), with part of the room already taken by scattered single seats.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SeatMapBenchmark {
+
+    @Param({"2", "10", "25"})
+    public int groupSize;
+
+    @Param({"0.0", "0.5"})
+    public double occupancy;
+
+    private SeatMap seatMap;
+
+    @Setup
+    public void setUp() {
+        seatMap = new SeatMap(20, 25);
+        List<SeatBlock> seats = new ArrayList<>();
+        for (SeatBlock seat = seatMap.hold(1); seat != null; seat = seatMap.hold(1)) {
+            seats.add(seat);
+        }
+        SplittableRandom random = new SplittableRandom(42L);
+        for (SeatBlock seat : seats) {
+            if (random.nextDouble() >= occupancy) {
+                seatMap.release(seat);
+            }
+        }
+    }
+
+    @Benchmark
+    public SeatBlock holdAndRelease() {
+        SeatBlock block = seatMap.hold(groupSize);
+        if (block != null) {
+            seatMap.release(block);
+        }
+        return block;
+    }
+}
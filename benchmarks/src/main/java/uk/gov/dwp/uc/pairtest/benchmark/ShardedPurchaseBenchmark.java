@@ -0,0 +1,73 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.shard.ShardPurchaseHandler;
+import uk.gov.dwp.uc.pairtest.shard.ShardedTicketService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Valid family orders from 16 threads routed over {@code shards} in-process shards, each running
+ * validation on its writer thread and the gateway calls, with {@code gatewayLatencyMicros} latency, off it.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ShardedPurchaseBenchmark {
+
+    private static final int ORDER_COUNT = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"0", "50"})
+    public long gatewayLatencyMicros;
+
+    private ShardedTicketService ticketService;
+    private OrderFixtures.Order[] orders;
+
+    @Setup
+    public void setUp() {
+        TicketOrderProcessor processor = new TicketOrderProcessor(
+                new TicketRequestValidator(OrderFixtures.MAX_TICKETS), new PriceCalculator());
+        ticketService = new ShardedTicketService(shards, id -> ShardPurchaseHandler.of(
+                processor, LatencyStubs.payment(gatewayLatencyMicros), LatencyStubs.seats(gatewayLatencyMicros)));
+        orders = OrderFixtures.generate(ORDER_COUNT, 3, OrderFixtures.Mix.FAMILY, 0.0, 42L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ticketService.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void purchaseTickets(Cursor cursor) {
+        OrderFixtures.Order order = orders[cursor.next];
+        cursor.next = (cursor.next + 1) & (ORDER_COUNT - 1);
+        ticketService.purchaseTickets(order.accountId(), order.requests());
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationResult;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+    private final TicketRequestValidator validator = new TicketRequestValidator(OrderFixtures.MAX_TICKETS);
+
+    @Benchmark
+    public ValidationResult isValid(OrderState state) {
+        OrderFixtures.Order order = state.next();
+        return validator.isValid(order.accountId(), order.requests());
+    }
+
+    @Benchmark
+    public ValidationFailure check(OrderState state) {
+        OrderFixtures.Order order = state.next();
+        return validator.check(order.accountId(), order.requests());
+    }
+}
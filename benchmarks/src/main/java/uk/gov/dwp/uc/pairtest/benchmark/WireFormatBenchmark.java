@@ -0,0 +1,82 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.wire.OrderDecoder;
+import uk.gov.dwp.uc.pairtest.wire.OrderEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same three-line family orders processed from {@code TicketTypeRequest} arrays and from
+ * their binary encoding in a direct buffer, read in place by an {@link OrderDecoder}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+
+    private static final int ORDER_COUNT = 1024;
+
+    @Param({"0.0", "0.5"})
+    public double invalidRatio;
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(
+            new TicketRequestValidator(OrderFixtures.MAX_TICKETS, true), new PriceCalculator());
+    private final OrderDecoder decoder = new OrderDecoder();
+    private OrderFixtures.Order[] orders;
+    private ByteBuffer encoded;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        orders = OrderFixtures.generate(ORDER_COUNT, 3, OrderFixtures.Mix.FAMILY, invalidRatio, 42L);
+        encoded = ByteBuffer.allocateDirect(ORDER_COUNT * OrderEncoder.ENCODED_LENGTH);
+        for (OrderFixtures.Order order : orders) {
+            OrderEncoder.encode(encoded, order.accountId() == null ? 0L : order.accountId(), order.requests());
+        }
+    }
+
+    @Benchmark
+    public Object requests() {
+        OrderFixtures.Order order = orders[advance()];
+        try {
+            return processor.process(order.accountId(), order.requests());
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wire() {
+        decoder.wrap(encoded, advance() * OrderEncoder.ENCODED_LENGTH);
+        try {
+            return decoder.process(processor);
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+
+    private int advance() {
+        int index = next;
+        next = (next + 1) & (ORDER_COUNT - 1);
+        return index;
+    }
+}
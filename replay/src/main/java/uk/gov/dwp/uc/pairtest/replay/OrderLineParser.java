@@ -0,0 +1,96 @@
+package uk.gov.dwp.uc.pairtest.replay;
+
+/**
+ * Byte-at-a-time parser for {@code accountId,adults,children,infants} lines, so text input is
+ * replayed without creating a {@code String} per line. Blank lines and lines starting with
+ * {@code #} are skipped, and spaces, tabs and carriage returns are ignored.
+ */
+final class OrderLineParser {
+
+    static final int FIELDS = 4;
+
+    private final long[] fields = new long[FIELDS];
+    private int field;
+    private long value;
+    private boolean digits;
+    private boolean negative;
+    private boolean content;
+    private boolean comment;
+    private boolean bad;
+
+    void accept(byte b) {
+        if (comment || b == ' ' || b == '\t' || b == '\r') {
+            return;
+        }
+        if (!content && b == '#') {
+            comment = true;
+            return;
+        }
+        content = true;
+        if (b >= '0' && b <= '9') {
+            if (value > (Long.MAX_VALUE - 9) / 10) {
+                bad = true;
+            }
+            value = value * 10 + (b - '0');
+            digits = true;
+        } else if (b == '-' && !digits && !negative) {
+            negative = true;
+        } else if (b == ',' && field < FIELDS - 1) {
+            endField();
+        } else {
+            bad = true;
+        }
+    }
+
+    /**
+     * @return {@code true} if the line was blank or a comment
+     */
+    boolean isSkipped() {
+        return comment || !content;
+    }
+
+    /**
+     * Completes the line; the parsed fields stay readable until {@link #reset()}.
+     *
+     * @return {@code true} if the line held four integer fields with counts in {@code int} range
+     */
+    boolean complete() {
+        endField();
+        if (bad || field != FIELDS) {
+            return false;
+        }
+        for (int i = 1; i < FIELDS; i++) {
+            if (fields[i] < Integer.MIN_VALUE || fields[i] > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long field(int index) {
+        return fields[index];
+    }
+
+    void reset() {
+        field = 0;
+        value = 0;
+        digits = false;
+        negative = false;
+        content = false;
+        comment = false;
+        bad = false;
+    }
+
+    private void endField() {
+        if (!digits) {
+            bad = true;
+        }
+        if (field < FIELDS) {
+            fields[field] = negative ? -value : value;
+        }
+        field++;
+        value = 0;
+        digits = false;
+        negative = false;
+    }
+}
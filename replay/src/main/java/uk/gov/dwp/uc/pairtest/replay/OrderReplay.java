@@ -0,0 +1,217 @@
+package uk.gov.dwp.uc.pairtest.replay;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.wire.OrderDecoder;
+import uk.gov.dwp.uc.pairtest.wire.OrderEncoder;
+import uk.gov.dwp.uc.pairtest.wire.OrderFileReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays a file of recorded orders through a {@link TicketOrderProcessor} and the given gateways.
+ * <p>
+ * The file is split into byte ranges that are processed as fork/join tasks. Each task reads its
+ * range with positional reads into its own small buffer, so the file is never loaded into
+ * memory. Each task also fills its own {@link ReplayStats}, merged as the tasks are joined.
+ * Two formats are accepted:
+ * <ul>
+ *     <li>binary files written by {@link uk.gov.dwp.uc.pairtest.wire.OrderFileWriter}, recognised by their header;</li>
+ *     <li>text files with one {@code accountId,adults,children,infants} order per line. A line belongs to
+ *     the range its first byte falls in.</li>
+ * </ul>
+ */
+public class OrderReplay {
+
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+
+    private static final int BUFFER_BYTES = 64 << 10;
+
+    private final TicketOrderProcessor processor;
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final ForkJoinPool pool;
+    private final long chunkBytes;
+
+    public OrderReplay(TicketOrderProcessor processor, TicketPaymentService paymentService,
+                       SeatReservationService seatService, ForkJoinPool pool) {
+        this(processor, paymentService, seatService, pool, DEFAULT_CHUNK_BYTES);
+    }
+
+    OrderReplay(TicketOrderProcessor processor, TicketPaymentService paymentService,
+                SeatReservationService seatService, ForkJoinPool pool, long chunkBytes) {
+        this.processor = processor;
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.pool = pool;
+        this.chunkBytes = Math.max(chunkBytes, 2L * OrderEncoder.ENCODED_LENGTH);
+    }
+
+    public ReplayStats replay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, 0);
+            boolean binary = !header.hasRemaining() && header.getInt(0) == OrderFileReader.MAGIC;
+            long start = binary ? Integer.BYTES : 0;
+            if (binary && (channel.size() - start) % OrderEncoder.ENCODED_LENGTH != 0) {
+                throw new IOException("Order file is truncated");
+            }
+            try {
+                return pool.invoke(new ReplayTask(channel, binary, start, channel.size()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private void replayOrder(ReplayStats stats, long accountId, int adultTickets, int childTickets, int infantTickets) {
+        TicketCalculationResult result;
+        try {
+            result = processor.process(accountId, adultTickets, childTickets, infantTickets);
+        } catch (InvalidPurchaseException e) {
+            stats.rejected(e.getFailure());
+            return;
+        }
+        paymentService.makePayment(accountId, result.totalAmount());
+        seatService.reserveSeat(accountId, result.totalSeats());
+        stats.accepted(result.totalAmount(), result.totalSeats());
+    }
+
+    private final class ReplayTask extends RecursiveTask<ReplayStats> {
+
+        private final FileChannel channel;
+        private final boolean binary;
+        private final long start;
+        private final long end;
+
+        ReplayTask(FileChannel channel, boolean binary, long start, long end) {
+            this.channel = channel;
+            this.binary = binary;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ReplayStats compute() {
+            long length = end - start;
+            if (length > chunkBytes) {
+                long half = length / 2;
+                if (binary) {
+                    half -= half % OrderEncoder.ENCODED_LENGTH;
+                }
+                ReplayTask left = new ReplayTask(channel, binary, start, start + half);
+                ReplayTask right = new ReplayTask(channel, binary, start + half, end);
+                left.fork();
+                ReplayStats stats = right.compute();
+                return stats.merge(left.join());
+            }
+            try {
+                return binary ? replayRecords() : replayLines();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private ReplayStats replayRecords() throws IOException {
+            ReplayStats stats = new ReplayStats();
+            OrderDecoder order = new OrderDecoder();
+            int records = BUFFER_BYTES / OrderEncoder.ENCODED_LENGTH;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(records * OrderEncoder.ENCODED_LENGTH);
+            for (long position = start; position < end; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                readFully(buffer, position);
+                for (int offset = 0; offset < buffer.limit(); offset += OrderEncoder.ENCODED_LENGTH) {
+                    order.wrap(buffer, offset);
+                    replayOrder(stats, order.accountId(), order.adultTickets(), order.childTickets(), order.infantTickets());
+                }
+                position += buffer.limit();
+            }
+            return stats;
+        }
+
+        private ReplayStats replayLines() throws IOException {
+            ReplayStats stats = new ReplayStats();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            OrderLineParser parser = new OrderLineParser();
+            long position = firstLineStart(buffer);
+            if (position >= end) {
+                return stats;
+            }
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    completeLine(parser, stats);
+                    return stats;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    if (b != '\n') {
+                        parser.accept(b);
+                    } else {
+                        completeLine(parser, stats);
+                        if (position + i + 1 >= end) {
+                            return stats;
+                        }
+                    }
+                }
+                position += read;
+            }
+        }
+
+        /**
+         * The first line starting at or after {@code start}; a line running into the range from
+         * before it belongs to the previous range.
+         */
+        private long firstLineStart(ByteBuffer buffer) throws IOException {
+            if (start == 0) {
+                return 0;
+            }
+            long position = start - 1;
+            while (position < end) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    return end;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return end;
+        }
+
+        private void completeLine(OrderLineParser parser, ReplayStats stats) {
+            if (!parser.isSkipped()) {
+                if (parser.complete()) {
+                    replayOrder(stats, parser.field(0), (int) parser.field(1), (int) parser.field(2), (int) parser.field(3));
+                } else {
+                    stats.malformed();
+                }
+            }
+            parser.reset();
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Order file ended early");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package uk.gov.dwp.uc.pairtest.replay;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+import uk.gov.dwp.uc.pairtest.service.pricing.PricingPolicy;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Replays recorded orders against the current rules and prices, or candidate ones, and prints
+ * throughput, revenue and rejection reasons:
+ * <pre>
+ *   java -jar replay/target/replay.jar orders.csv [--prices prices.properties] [--max-tickets 25] [--parallelism 8]
+ * </pre>
+ */
+public final class ReplayCli {
+
+    private static final String USAGE =
+            "Usage: replay <orders file> [--prices <prices.properties>] [--max-tickets <n>] [--parallelism <n>]";
+
+    private ReplayCli() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args, System.out));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Cannot replay orders: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static int run(String[] args, PrintStream out) throws IOException {
+        Path file = null;
+        Path prices = null;
+        int maxTickets = 25;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--prices" -> prices = Path.of(value(args, ++i));
+                case "--max-tickets" -> maxTickets = Integer.parseInt(value(args, ++i));
+                case "--parallelism" -> parallelism = Integer.parseInt(value(args, ++i));
+                default -> {
+                    if (file != null || args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unexpected argument " + args[i]);
+                    }
+                    file = Path.of(args[i]);
+                }
+            }
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("No orders file given");
+        }
+
+        PriceList priceList = prices == null ? PriceList.defaults() : PriceList.load(prices);
+        TicketOrderProcessor processor = new TicketOrderProcessor(
+                new TicketRequestValidator(maxTickets, true), new PriceCalculator(PricingPolicy.fixed(priceList)));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            OrderReplay replay = new OrderReplay(processor, new TicketPaymentServiceImpl(), new SeatReservationServiceImpl(), pool);
+            long start = System.nanoTime();
+            ReplayStats stats = replay.replay(file);
+            print(out, stats, System.nanoTime() - start, priceList, parallelism);
+        } finally {
+            pool.shutdown();
+        }
+        return 0;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static void print(PrintStream out, ReplayStats stats, long elapsedNanos, PriceList prices, int parallelism) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("Replayed %,d orders in %.2f s on %d threads (%,.0f orders/s)%n",
+                stats.getOrders(), seconds, parallelism, stats.getOrders() / Math.max(seconds, 1e-9));
+        out.printf("Prices:    %s%n", prices);
+        out.printf("Accepted:  %,d%n", stats.getAccepted());
+        out.printf("Revenue:   %,d%n", stats.getRevenue());
+        out.printf("Seats:     %,d%n", stats.getSeats());
+        out.printf("Rejected:  %,d%n", stats.getRejected());
+        for (Map.Entry<ValidationFailure, Long> rejection : stats.getRejections().entrySet()) {
+            out.printf("  %-18s %,12d  (%s)%n", rejection.getKey(), rejection.getValue(), rejection.getKey().message());
+        }
+        if (stats.getUnclassifiedRejections() > 0) {
+            out.printf("  %-18s %,12d%n", "OTHER", stats.getUnclassifiedRejections());
+        }
+        out.printf("Malformed: %,d%n", stats.getMalformed());
+    }
+}
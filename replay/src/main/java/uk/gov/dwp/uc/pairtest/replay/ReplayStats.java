@@ -0,0 +1,97 @@
+package uk.gov.dwp.uc.pairtest.replay;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Totals for part of a replay. Each fork/join leaf fills its own instance without any
+ * synchronisation, and instances are merged as the task tree completes.
+ */
+public final class ReplayStats {
+
+    private static final ValidationFailure[] FAILURES = ValidationFailure.values();
+
+    private long accepted;
+    private long revenue;
+    private long seats;
+    private long malformed;
+    private long unclassified;
+    private final long[] rejections = new long[FAILURES.length];
+
+    void accepted(int totalAmount, int totalSeats) {
+        accepted++;
+        revenue += totalAmount;
+        seats += totalSeats;
+    }
+
+    void rejected(ValidationFailure reason) {
+        if (reason == null) {
+            unclassified++;
+        } else {
+            rejections[reason.ordinal()]++;
+        }
+    }
+
+    void malformed() {
+        malformed++;
+    }
+
+    ReplayStats merge(ReplayStats other) {
+        accepted += other.accepted;
+        revenue += other.revenue;
+        seats += other.seats;
+        malformed += other.malformed;
+        unclassified += other.unclassified;
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] += other.rejections[i];
+        }
+        return this;
+    }
+
+    /**
+     * @return every well-formed order replayed, accepted or not
+     */
+    public long getOrders() {
+        return accepted + getRejected();
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        long rejected = unclassified;
+        for (long count : rejections) {
+            rejected += count;
+        }
+        return rejected;
+    }
+
+    public long getRevenue() {
+        return revenue;
+    }
+
+    public long getSeats() {
+        return seats;
+    }
+
+    public long getMalformed() {
+        return malformed;
+    }
+
+    public long getUnclassifiedRejections() {
+        return unclassified;
+    }
+
+    public Map<ValidationFailure, Long> getRejections() {
+        Map<ValidationFailure, Long> byReason = new EnumMap<>(ValidationFailure.class);
+        for (ValidationFailure failure : FAILURES) {
+            if (rejections[failure.ordinal()] > 0) {
+                byReason.put(failure, rejections[failure.ordinal()]);
+            }
+        }
+        return byReason;
+    }
+}
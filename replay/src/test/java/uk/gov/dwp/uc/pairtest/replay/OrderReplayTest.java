@@ -0,0 +1,133 @@
+package uk.gov.dwp.uc.pairtest.replay;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+import uk.gov.dwp.uc.pairtest.wire.OrderFileWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderReplayTest {
+
+    @TempDir
+    Path dir;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private ReplayStats replay(Path file, long chunkBytes) throws IOException {
+        return new OrderReplay(processor, new TicketPaymentServiceImpl(), new SeatReservationServiceImpl(), pool, chunkBytes).replay(file);
+    }
+
+    @Test
+    void shouldReplayTextOrders() throws IOException {
+        Path file = dir.resolve("orders.csv");
+        Files.writeString(file, """
+                # accountId,adults,children,infants
+                1,2,1,1
+                2, 1, 0, 0\r
+
+                0,1,0,0
+                3,0,2,0
+                4,20,6,0
+                5,1,-1,0
+                6,0,0,0
+                not,an,order
+                7,1,0
+                8,1,0,0,0
+                9,1,0,0""");
+
+        ReplayStats stats = replay(file, OrderReplay.DEFAULT_CHUNK_BYTES);
+
+        assertEquals(8, stats.getOrders());
+        assertEquals(3, stats.getAccepted());
+        assertEquals(65 + 25 + 25, stats.getRevenue());
+        assertEquals(5, stats.getSeats());
+        assertEquals(Map.of(
+                ValidationFailure.INVALID_ACCOUNT, 1L,
+                ValidationFailure.NO_ADULT, 1L,
+                ValidationFailure.TOO_MANY_TICKETS, 1L,
+                ValidationFailure.NEGATIVE_TICKETS, 1L,
+                ValidationFailure.NO_TICKETS, 1L), stats.getRejections());
+        assertEquals(3, stats.getMalformed());
+    }
+
+    @Test
+    void shouldCountEveryLineOnceWhenRangesSplitLines() throws IOException {
+        Path file = dir.resolve("orders.csv");
+        StringBuilder orders = new StringBuilder();
+        long expectedRevenue = 0;
+        for (int i = 1; i <= 5_000; i++) {
+            int adults = 1 + i % 4;
+            int children = i % 3;
+            orders.append(i).append(',').append(adults).append(',').append(children).append(",0\n");
+            expectedRevenue += adults * 25L + children * 15L;
+        }
+        Files.writeString(file, orders);
+
+        for (long chunkBytes : new long[]{1, 7, 64, 1_000}) {
+            ReplayStats stats = replay(file, chunkBytes);
+            assertEquals(5_000, stats.getAccepted(), "chunk " + chunkBytes);
+            assertEquals(expectedRevenue, stats.getRevenue(), "chunk " + chunkBytes);
+            assertEquals(0, stats.getMalformed(), "chunk " + chunkBytes);
+        }
+    }
+
+    @Test
+    void shouldReplayBinaryOrders() throws IOException {
+        Path file = dir.resolve("orders.bin");
+        try (OrderFileWriter writer = new OrderFileWriter(file)) {
+            for (int i = 1; i <= 5_000; i++) {
+                writer.write(i, i % 3, 1, 0);
+            }
+        }
+
+        ReplayStats stats = replay(file, 100);
+
+        assertEquals(5_000, stats.getOrders());
+        assertEquals(3_334, stats.getAccepted());
+        assertEquals(Map.of(ValidationFailure.NO_ADULT, 1_666L), stats.getRejections());
+    }
+
+    @Test
+    void shouldPrintReportWithCandidatePrices() throws IOException {
+        Path file = dir.resolve("orders.csv");
+        Files.writeString(file, "1,2,1,0\n2,0,1,0\n");
+        Path prices = dir.resolve("prices.properties");
+        Files.writeString(prices, "ADULT=30\nCHILD=20\nINFANT=0\n");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        int exitCode = ReplayCli.run(new String[]{file.toString(), "--prices", prices.toString(), "--parallelism", "2"},
+                new PrintStream(output, true));
+
+        String report = output.toString();
+        assertEquals(0, exitCode);
+        assertTrue(report.contains("Replayed 2 orders"), report);
+        assertTrue(report.contains("Revenue:   80"), report);
+        assertTrue(report.contains("NO_ADULT"), report);
+    }
+
+    @Test
+    void shouldRejectUnknownArgument() {
+        assertThrows(IllegalArgumentException.class, () -> ReplayCli.run(new String[]{"orders.csv", "--fast"}, System.out));
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTicketService {
+
+    /**
+     * Purchases tickets without blocking the caller. The returned future fails with
+     * {@link uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException} for invalid orders.
+     */
+    CompletableFuture<PurchaseReceipt> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketTypeRequests);
+
+}
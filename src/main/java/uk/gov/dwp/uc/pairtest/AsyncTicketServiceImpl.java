@@ -0,0 +1,182 @@
+package uk.gov.dwp.uc.pairtest;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the blocking gateway calls on an executor, virtual threads by default, so a caller
+ * never waits on the payment or seat reservation gateway.
+ * <p>
+ * Orders are validated and priced on the calling thread. Valid orders then take one of
+ * {@code maxInFlight} permits until their gateway calls have actually returned; if none is free
+ * the future fails with {@link RejectedExecutionException}. A gateway call cannot be cancelled,
+ * so one that exceeds its timeout fails the future with {@link PurchaseOutcomeUnknownException}
+ * while the purchase carries on: a late payment is still followed by the reservation, and the
+ * permit is only released once both gateways have answered. A gateway that itself reports its
+ * outcome unknown is treated the same way, with the purchase carried on from its late answer.
+ */
+public class AsyncTicketServiceImpl implements AsyncTicketService, AutoCloseable {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+    public static final Duration DEFAULT_GATEWAY_TIMEOUT = Duration.ofSeconds(5);
+
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long paymentTimeoutNanos;
+    private final long reservationTimeoutNanos;
+    private final CompletedPurchaseListener listener;
+
+    public AsyncTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor) {
+        this(paymentService, seatService, processor, Executors.newVirtualThreadPerTaskExecutor(), true,
+                DEFAULT_MAX_IN_FLIGHT, DEFAULT_GATEWAY_TIMEOUT, DEFAULT_GATEWAY_TIMEOUT, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * The executor stays owned by the caller and is not shut down by {@link #close()}.
+     */
+    public AsyncTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                  Executor executor, int maxInFlight, Duration paymentTimeout, Duration reservationTimeout) {
+        this(paymentService, seatService, processor, executor, false, maxInFlight, paymentTimeout, reservationTimeout,
+                CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * @param listener told about every completed purchase on the thread that reserved its seats,
+     *                 including purchases whose caller already gave up on them as outcome-unknown
+     */
+    public AsyncTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                  Executor executor, int maxInFlight, Duration paymentTimeout, Duration reservationTimeout,
+                                  CompletedPurchaseListener listener) {
+        this(paymentService, seatService, processor, executor, false, maxInFlight, paymentTimeout, reservationTimeout, listener);
+    }
+
+    private AsyncTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                   Executor executor, boolean ownsExecutor, int maxInFlight, Duration paymentTimeout, Duration reservationTimeout,
+                                   CompletedPurchaseListener listener) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.processor = processor;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.paymentTimeoutNanos = paymentTimeout.toNanos();
+        this.reservationTimeoutNanos = reservationTimeout.toNanos();
+        this.listener = CompletedPurchaseListener.guarded(listener);
+    }
+
+    @Override
+    public CompletableFuture<PurchaseReceipt> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        TicketCounts counts;
+        TicketCalculationResult result;
+        try {
+            counts = processor.tally(accountId, ticketTypeRequests);
+            result = processor.process(accountId, counts.adultTickets(), counts.childTickets(), counts.infantTickets());
+        } catch (InvalidPurchaseException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many purchases in flight"));
+        }
+
+        long account = accountId;
+        CompletableFuture<Void> payment;
+        try {
+            payment = CompletableFuture.runAsync(() -> paymentService.makePayment(account, result.totalAmount()), executor);
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Void> paid = answered(payment);
+        CompletableFuture<Void> reservation = paid.thenRunAsync(() -> seatService.reserveSeat(account, result.totalSeats()), executor);
+        CompletableFuture<Void> reserved = answered(reservation);
+        CompletableFuture<PurchaseReceipt> outcome = reserved
+                .thenApply(done -> {
+                    listener.onCompleted(account, counts.adultTickets(), counts.childTickets(), counts.infantTickets(), result);
+                    return new PurchaseReceipt(account, result.totalAmount(), result.totalSeats());
+                })
+                .whenComplete((receipt, failure) -> inFlight.release());
+
+        CompletableFuture<PurchaseReceipt> caller = new CompletableFuture<>();
+        outcome.whenComplete((receipt, failure) -> {
+            if (failure == null) {
+                caller.complete(receipt);
+            } else {
+                caller.completeExceptionally(unwrap(failure));
+            }
+        });
+        watch(payment, paymentTimeoutNanos, "Payment", caller, outcome);
+        paid.thenRun(() -> watch(reservation, reservationTimeoutNanos, "Seat reservation", caller, outcome));
+        return caller;
+    }
+
+    public int getInFlightPurchases() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Shuts down the default virtual-thread executor after the purchases in flight have finished.
+     * A caller-supplied executor is left running.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    /**
+     * Fails {@code caller} as outcome-unknown if {@code call} has not returned within the timeout;
+     * the call itself, and {@code outcome}, are left to finish.
+     */
+    private static void watch(CompletableFuture<Void> call, long timeoutNanos, String gateway,
+                              CompletableFuture<PurchaseReceipt> caller, CompletableFuture<PurchaseReceipt> outcome) {
+        call.copy().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).whenComplete((done, failure) -> {
+            if (failure instanceof TimeoutException) {
+                caller.completeExceptionally(new PurchaseOutcomeUnknownException(
+                        gateway + " did not answer within " + Duration.ofNanos(timeoutNanos), failure, outcome.copy()));
+            } else if (unwrap(failure) instanceof PurchaseOutcomeUnknownException unknown) {
+                caller.completeExceptionally(new PurchaseOutcomeUnknownException(unknown.getMessage(), unknown, outcome.copy()));
+            }
+        });
+    }
+
+    /**
+     * A call that failed as outcome-unknown completes once its late answer arrives instead, so the
+     * rest of the purchase still follows a call that went through late.
+     */
+    private static CompletableFuture<Void> answered(CompletableFuture<Void> call) {
+        return call.exceptionallyCompose(failure -> unwrap(failure) instanceof PurchaseOutcomeUnknownException unknown
+                ? unknown.outcome().thenApply(receipt -> null)
+                : CompletableFuture.failedFuture(unwrap(failure)));
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+
+import java.util.List;
+
+public interface BatchTicketService {
+
+    /**
+     * Purchases every order, returning one outcome per order in the same order.
+     * An invalid order is reported as rejected and does not affect the others.
+     */
+    List<PurchaseOutcome> purchaseTicketsBatch(List<TicketOrder> orders);
+
+}
@@ -0,0 +1,170 @@
+package uk.gov.dwp.uc.pairtest;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.gateway.BatchSeatReservationService;
+import uk.gov.dwp.uc.pairtest.gateway.BatchTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.gateway.GatewayBatchResult;
+import uk.gov.dwp.uc.pairtest.gateway.Payment;
+import uk.gov.dwp.uc.pairtest.gateway.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Validates and prices every order up front, then takes all payments in one gateway call
+ * and reserves seats for the paid orders in another. An order whose payment went through but
+ * whose reservation failed is reported as {@link PurchaseOutcome.Status#PAID_NOT_RESERVED} rather
+ * than failed, so the caller knows it has been charged. An order whose payment or reservation
+ * outcome is unknown is reported as {@link PurchaseOutcome.Status#OUTCOME_UNKNOWN}; a late payment
+ * is followed by that order's reservation, and the order is reported completed once it has both.
+ */
+public class BatchTicketServiceImpl implements BatchTicketService {
+
+    private final BatchTicketPaymentService paymentService;
+    private final BatchSeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final CompletedPurchaseListener listener;
+
+    public BatchTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor) {
+        this(paymentService, seatService, processor, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * @param listener told about every completed order once the whole batch has been settled
+     */
+    public BatchTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                  CompletedPurchaseListener listener) {
+        this.paymentService = BatchTicketPaymentService.of(paymentService);
+        this.seatService = BatchSeatReservationService.of(seatService);
+        this.processor = processor;
+        this.listener = CompletedPurchaseListener.guarded(listener);
+    }
+
+    @Override
+    public List<PurchaseOutcome> purchaseTicketsBatch(List<TicketOrder> orders) {
+        PurchaseOutcome[] outcomes = new PurchaseOutcome[orders.size()];
+        List<Integer> pending = new ArrayList<>(orders.size());
+        TicketCounts[] counts = new TicketCounts[orders.size()];
+        TicketCalculationResult[] results = new TicketCalculationResult[orders.size()];
+
+        for (int i = 0; i < orders.size(); i++) {
+            TicketOrder order = orders.get(i);
+            try {
+                counts[i] = processor.tally(order.accountId(), order.ticketTypeRequests());
+                results[i] = processor.process(order.accountId(), counts[i].adultTickets(), counts[i].childTickets(),
+                        counts[i].infantTickets());
+                pending.add(i);
+            } catch (InvalidPurchaseException e) {
+                outcomes[i] = PurchaseOutcome.rejected(order, e);
+            }
+        }
+
+        List<Payment> payments = new ArrayList<>(pending.size());
+        for (int index : pending) {
+            payments.add(new Payment(orders.get(index).accountId(), results[index].totalAmount()));
+        }
+        pending = settle(orders, counts, results, outcomes, pending, callPayments(payments), false);
+
+        List<SeatAllocation> allocations = new ArrayList<>(pending.size());
+        for (int index : pending) {
+            allocations.add(new SeatAllocation(orders.get(index).accountId(), results[index].totalSeats()));
+        }
+        pending = settle(orders, counts, results, outcomes, pending, callReservations(allocations), true);
+
+        for (int index : pending) {
+            outcomes[index] = PurchaseOutcome.completed(orders.get(index), results[index]);
+            completed(orders.get(index), counts[index], results[index]);
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    private GatewayBatchResult callPayments(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return GatewayBatchResult.allSucceeded();
+        }
+        try {
+            return paymentService.makePayments(payments);
+        } catch (RuntimeException e) {
+            return failAll(payments.size(), e);
+        }
+    }
+
+    private GatewayBatchResult callReservations(List<SeatAllocation> allocations) {
+        if (allocations.isEmpty()) {
+            return GatewayBatchResult.allSucceeded();
+        }
+        try {
+            return seatService.reserveSeats(allocations);
+        } catch (RuntimeException e) {
+            return failAll(allocations.size(), e);
+        }
+    }
+
+    private static GatewayBatchResult failAll(int size, RuntimeException failure) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            failures.put(i, failure);
+        }
+        return new GatewayBatchResult(failures);
+    }
+
+    /**
+     * Records failed outcomes for the items the gateway rejected and returns the order indexes still pending.
+     *
+     * @param paid whether the pending orders have already been charged
+     */
+    private List<Integer> settle(List<TicketOrder> orders, TicketCounts[] counts, TicketCalculationResult[] results,
+                                 PurchaseOutcome[] outcomes, List<Integer> pending, GatewayBatchResult batchResult, boolean paid) {
+        List<Integer> remaining = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pending.get(i);
+            RuntimeException failure = batchResult.failure(i);
+            if (failure == null) {
+                remaining.add(index);
+            } else if (failure instanceof PurchaseOutcomeUnknownException unknown) {
+                outcomes[index] = PurchaseOutcome.outcomeUnknown(orders.get(index), results[index],
+                        late(orders.get(index), counts[index], results[index], unknown, paid));
+            } else {
+                outcomes[index] = paid
+                        ? PurchaseOutcome.paidNotReserved(orders.get(index), results[index], failure)
+                        : PurchaseOutcome.failed(orders.get(index), results[index], failure);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Carries one order on from a gateway's late answer: a late payment is followed by the order's
+     * own reservation, and the purchase is reported once its seats are reserved.
+     */
+    private PurchaseOutcomeUnknownException late(TicketOrder order, TicketCounts counts, TicketCalculationResult result,
+                                                 PurchaseOutcomeUnknownException unknown, boolean paid) {
+        CompletableFuture<?> answered = paid ? unknown.outcome() : unknown.outcome().thenRun(() -> reserve(order, result));
+        return new PurchaseOutcomeUnknownException(unknown.getMessage(), unknown, answered.thenApply(done -> {
+            completed(order, counts, result);
+            return new PurchaseReceipt(order.accountId(), result.totalAmount(), result.totalSeats());
+        }));
+    }
+
+    private void reserve(TicketOrder order, TicketCalculationResult result) {
+        RuntimeException failure = seatService.reserveSeats(List.of(new SeatAllocation(order.accountId(), result.totalSeats()))).failure(0);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void completed(TicketOrder order, TicketCounts counts, TicketCalculationResult result) {
+        listener.onCompleted(order.accountId(), counts.adultTickets(), counts.childTickets(), counts.infantTickets(), result);
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+
+@FunctionalInterface
+public interface CompletedPurchaseListener {
+
+    /**
+     * Called once payment has been taken and seats reserved, with the result the purchase was
+     * charged from, by every ticket service that takes one. Rejected or failed purchases are not
+     * reported. The purchase has already completed, so the services call the listener through
+     * {@link #guarded} and anything it throws is dropped.
+     */
+    void onCompleted(long accountId, int adultTickets, int childTickets, int infantTickets, TicketCalculationResult result);
+
+    /**
+     * The same report from a caller that keeps the result's fields rather than the result, such as
+     * the {@link uk.gov.dwp.uc.pairtest.ring.RingPurchaseProcessor}. Builds the result by default;
+     * a listener on that path overrides it so nothing is allocated per purchase.
+     */
+    default void onCompleted(long accountId, int adultTickets, int childTickets, int infantTickets,
+                             int totalAmount, int totalSeats, PriceList prices) {
+        onCompleted(accountId, adultTickets, childTickets, infantTickets, new TicketCalculationResult(totalAmount, totalSeats, prices));
+    }
+
+    static CompletedPurchaseListener noop() {
+        return (accountId, adultTickets, childTickets, infantTickets, result) -> {
+        };
+    }
+
+    /**
+     * Wraps the listener so that a failing report cannot turn a completed purchase into a failed
+     * one, nor stop the thread that completed it.
+     */
+    static CompletedPurchaseListener guarded(CompletedPurchaseListener listener) {
+        return new CompletedPurchaseListener() {
+            @Override
+            public void onCompleted(long accountId, int adultTickets, int childTickets, int infantTickets, TicketCalculationResult result) {
+                try {
+                    listener.onCompleted(accountId, adultTickets, childTickets, infantTickets, result);
+                } catch (RuntimeException e) {
+                    // The purchase stands whatever the listener does with it.
+                }
+            }
+
+            @Override
+            public void onCompleted(long accountId, int adultTickets, int childTickets, int infantTickets,
+                                    int totalAmount, int totalSeats, PriceList prices) {
+                try {
+                    listener.onCompleted(accountId, adultTickets, childTickets, infantTickets, totalAmount, totalSeats, prices);
+                } catch (RuntimeException e) {
+                    // The purchase stands whatever the listener does with it.
+                }
+            }
+        };
+    }
+}
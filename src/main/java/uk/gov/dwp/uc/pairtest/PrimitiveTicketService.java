@@ -0,0 +1,13 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+public interface PrimitiveTicketService {
+
+    /**
+     * Purchases an order given as per-type ticket counts, for high-volume callers that already
+     * hold the counts and want to avoid boxing the account id and building request records.
+     */
+    void purchaseTickets(long accountId, int adultTickets, int childTickets, int infantTickets) throws InvalidPurchaseException;
+
+}
@@ -0,0 +1,268 @@
+package uk.gov.dwp.uc.pairtest;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.gateway.ReleasableSeatReservationService;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * The purchase path itself, working on per-type counts: it validates and prices the order, calls
+ * the gateways sequentially or pipelined, records metrics and reports completed purchases.
+ * {@link TicketServiceImpl} tallies its requests and delegates here, so both entry points buy
+ * along the same path.
+ */
+public class PrimitiveTicketServiceImpl implements PrimitiveTicketService {
+
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final Executor pipelineExecutor;
+    private final PurchaseMetrics metrics;
+    private final boolean timed;
+    private final CompletedPurchaseListener listener;
+
+    public PrimitiveTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                                      TicketOrderProcessor processor) {
+        this(paymentService, seatService, processor, PurchaseMetrics.noop());
+    }
+
+    public PrimitiveTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                      PurchaseMetrics metrics) {
+        this(paymentService, seatService, processor, null, metrics, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * @param listener told about every completed purchase, e.g. a
+     *                 {@link uk.gov.dwp.uc.pairtest.sales.SalesAggregator}
+     */
+    public PrimitiveTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                      PurchaseMetrics metrics, CompletedPurchaseListener listener) {
+        this(paymentService, seatService, processor, null, metrics, listener);
+    }
+
+    /**
+     * Pipelined mode: the seat reservation is issued on {@code pipelineExecutor} while the payment
+     * is taken on the calling thread. If only one of them succeeds it is compensated by a refund
+     * or a seat release before the failure is rethrown. If either leg's outcome is unknown the
+     * compensation waits for that leg to answer, so a payment that lands late is still refunded.
+     */
+    public static PrimitiveTicketServiceImpl pipelined(RefundableTicketPaymentService paymentService,
+                                                       ReleasableSeatReservationService seatService,
+                                                       TicketOrderProcessor processor, Executor pipelineExecutor) {
+        return pipelined(paymentService, seatService, processor, pipelineExecutor, PurchaseMetrics.noop());
+    }
+
+    public static PrimitiveTicketServiceImpl pipelined(RefundableTicketPaymentService paymentService,
+                                                       ReleasableSeatReservationService seatService,
+                                                       TicketOrderProcessor processor, Executor pipelineExecutor, PurchaseMetrics metrics) {
+        return pipelined(paymentService, seatService, processor, pipelineExecutor, metrics, CompletedPurchaseListener.noop());
+    }
+
+    public static PrimitiveTicketServiceImpl pipelined(RefundableTicketPaymentService paymentService,
+                                                       ReleasableSeatReservationService seatService,
+                                                       TicketOrderProcessor processor, Executor pipelineExecutor, PurchaseMetrics metrics,
+                                                       CompletedPurchaseListener listener) {
+        return new PrimitiveTicketServiceImpl(paymentService, seatService, processor, Objects.requireNonNull(pipelineExecutor), metrics,
+                listener);
+    }
+
+    private PrimitiveTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor,
+                                       Executor pipelineExecutor, PurchaseMetrics metrics, CompletedPurchaseListener listener) {
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.processor = processor;
+        this.pipelineExecutor = pipelineExecutor;
+        this.metrics = metrics;
+        this.timed = metrics != PurchaseMetrics.noop();
+        this.listener = CompletedPurchaseListener.guarded(listener);
+    }
+
+    /**
+     * Tallies requests for {@link TicketServiceImpl}, counting a malformed order as rejected.
+     */
+    TicketCounts tally(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        try {
+            return processor.tally(accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            recordRejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void purchaseTickets(long accountId, int adultTickets, int childTickets, int infantTickets) throws InvalidPurchaseException {
+        boolean sampled = timed && metrics.sampleLatency();
+        long start = sampled ? System.nanoTime() : 0L;
+        TicketCalculationResult result = calculate(accountId, adultTickets, childTickets, infantTickets);
+        long calculated = record(sampled, PurchaseStage.CALCULATION, start);
+        LateOutcome late = pipelineExecutor == null
+                ? purchaseSequential(accountId, result, sampled, calculated)
+                : purchasePipelined(accountId, result, sampled, calculated);
+        if (late != null) {
+            throw new PurchaseOutcomeUnknownException(late.unknown().getMessage(), late.unknown(), late.completion().thenApply(done -> {
+                listener.onCompleted(accountId, adultTickets, childTickets, infantTickets, result);
+                return new PurchaseReceipt(accountId, result.totalAmount(), result.totalSeats());
+            }));
+        }
+        listener.onCompleted(accountId, adultTickets, childTickets, infantTickets, result);
+    }
+
+    /**
+     * A gateway call whose outcome is unknown, with the rest of the purchase chained onto it.
+     */
+    private record LateOutcome(PurchaseOutcomeUnknownException unknown, CompletableFuture<Void> completion) {
+    }
+
+    /**
+     * A payment that may still go through is followed by the reservation once it does, so the
+     * gateways are asked in the same order as for a payment that answered in time.
+     *
+     * @return {@code null} once both gateways have answered
+     */
+    private LateOutcome purchaseSequential(long accountId, TicketCalculationResult result, boolean sampled, long start) {
+        try {
+            paymentService.makePayment(accountId, result.totalAmount());
+        } catch (PurchaseOutcomeUnknownException e) {
+            return new LateOutcome(e, e.outcome().thenRun(() -> seatService.reserveSeat(accountId, result.totalSeats())));
+        }
+        long paid = record(sampled, PurchaseStage.PAYMENT, start);
+        try {
+            seatService.reserveSeat(accountId, result.totalSeats());
+        } catch (PurchaseOutcomeUnknownException e) {
+            return new LateOutcome(e, e.outcome().thenRun(() -> {
+            }));
+        }
+        record(sampled, PurchaseStage.RESERVATION, paid);
+        return null;
+    }
+
+    private TicketCalculationResult calculate(long accountId, int adultTickets, int childTickets, int infantTickets) {
+        TicketCalculationResult result;
+        try {
+            result = processor.process(accountId, adultTickets, childTickets, infantTickets);
+        } catch (InvalidPurchaseException e) {
+            recordRejected(e);
+            throw e;
+        }
+        if (timed) {
+            metrics.recordAccepted();
+        }
+        return result;
+    }
+
+    private void recordRejected(InvalidPurchaseException e) {
+        if (timed) {
+            metrics.recordRejected(e.getFailure());
+        }
+    }
+
+    /**
+     * @return {@code null} once both gateways have answered
+     */
+    private LateOutcome purchasePipelined(long accountId, TicketCalculationResult result, boolean sampled, long start) {
+        CompletableFuture<Void> reservation = CompletableFuture.runAsync(() -> {
+            long reservationStart = sampled ? System.nanoTime() : 0L;
+            seatService.reserveSeat(accountId, result.totalSeats());
+            record(sampled, PurchaseStage.RESERVATION, reservationStart);
+        }, pipelineExecutor);
+
+        RuntimeException paymentFailure = null;
+        try {
+            paymentService.makePayment(accountId, result.totalAmount());
+            record(sampled, PurchaseStage.PAYMENT, start);
+        } catch (RuntimeException e) {
+            paymentFailure = e;
+        }
+        RuntimeException reservationFailure = await(reservation);
+
+        PurchaseOutcomeUnknownException unknown = paymentFailure instanceof PurchaseOutcomeUnknownException payment ? payment
+                : reservationFailure instanceof PurchaseOutcomeUnknownException seats ? seats : null;
+        if (unknown != null) {
+            return new LateOutcome(unknown, answer(paymentFailure).thenCombine(answer(reservationFailure), (payment, seats) -> {
+                settle(accountId, result, payment, seats);
+                return null;
+            }));
+        }
+        settle(accountId, result, paymentFailure, reservationFailure);
+        return null;
+    }
+
+    /**
+     * @return a future completing with the leg's eventual failure, or {@code null} once it succeeded
+     */
+    private static CompletableFuture<RuntimeException> answer(RuntimeException failure) {
+        if (failure instanceof PurchaseOutcomeUnknownException unknown) {
+            return unknown.outcome().handle((done, late) -> late == null ? null : unwrap(late));
+        }
+        return CompletableFuture.completedFuture(failure);
+    }
+
+    private void settle(long accountId, TicketCalculationResult result, RuntimeException paymentFailure, RuntimeException reservationFailure) {
+        if (paymentFailure == null && reservationFailure == null) {
+            return;
+        }
+        if (paymentFailure == null) {
+            compensate(reservationFailure,
+                    () -> ((RefundableTicketPaymentService) paymentService).refundPayment(accountId, result.totalAmount()));
+            throw reservationFailure;
+        }
+        if (reservationFailure == null) {
+            compensate(paymentFailure,
+                    () -> ((ReleasableSeatReservationService) seatService).releaseSeat(accountId, result.totalSeats()));
+        } else {
+            paymentFailure.addSuppressed(reservationFailure);
+        }
+        throw paymentFailure;
+    }
+
+    /**
+     * Records the time since {@code start} when the purchase is sampled.
+     *
+     * @return the end timestamp, to be used as the start of the next stage
+     */
+    private long record(boolean sampled, PurchaseStage stage, long start) {
+        if (!sampled) {
+            return 0L;
+        }
+        long end = System.nanoTime();
+        metrics.recordLatency(stage, end - start);
+        return end;
+    }
+
+    private static RuntimeException await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+            return null;
+        } catch (RuntimeException e) {
+            return unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return failure instanceof RuntimeException runtime ? runtime : new CompletionException(failure);
+    }
+
+    private static void compensate(RuntimeException failure, Runnable compensation) {
+        try {
+            compensation.run();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+
+/**
+ * Result of one order within a batch purchase.
+ *
+ * @param result  the priced order, or {@code null} if it was rejected
+ * @param failure the rejection or gateway error, or {@code null} if the purchase completed
+ */
+public record PurchaseOutcome(TicketOrder order, Status status, TicketCalculationResult result, RuntimeException failure) {
+
+    public enum Status {
+        COMPLETED,
+        REJECTED,
+        FAILED,
+        /**
+         * The payment was taken but the seats could not be reserved, so the customer is owed
+         * either the seats or a refund.
+         */
+        PAID_NOT_RESERVED,
+        /**
+         * A gateway did not answer in time but may still go through. The failure is a
+         * {@link PurchaseOutcomeUnknownException} whose outcome completes with the receipt once
+         * the purchase has gone through late, seats included, or fails if it did not.
+         */
+        OUTCOME_UNKNOWN
+    }
+
+    public static PurchaseOutcome completed(TicketOrder order, TicketCalculationResult result) {
+        return new PurchaseOutcome(order, Status.COMPLETED, result, null);
+    }
+
+    public static PurchaseOutcome rejected(TicketOrder order, RuntimeException failure) {
+        return new PurchaseOutcome(order, Status.REJECTED, null, failure);
+    }
+
+    public static PurchaseOutcome failed(TicketOrder order, TicketCalculationResult result, RuntimeException failure) {
+        return new PurchaseOutcome(order, Status.FAILED, result, failure);
+    }
+
+    public static PurchaseOutcome paidNotReserved(TicketOrder order, TicketCalculationResult result, RuntimeException failure) {
+        return new PurchaseOutcome(order, Status.PAID_NOT_RESERVED, result, failure);
+    }
+
+    public static PurchaseOutcome outcomeUnknown(TicketOrder order, TicketCalculationResult result, PurchaseOutcomeUnknownException failure) {
+        return new PurchaseOutcome(order, Status.OUTCOME_UNKNOWN, result, failure);
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+}
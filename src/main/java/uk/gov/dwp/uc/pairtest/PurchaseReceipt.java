@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest;
+
+public record PurchaseReceipt(long accountId, int totalAmount, int totalSeats) {
+}
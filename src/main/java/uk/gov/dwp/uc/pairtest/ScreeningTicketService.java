@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+public interface ScreeningTicketService {
+
+    /**
+     * Purchases tickets for a specific screening. Fails with
+     * {@link uk.gov.dwp.uc.pairtest.exception.SoldOutException} before any payment is taken if
+     * the screening does not have enough seats left.
+     */
+    void purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException;
+
+}
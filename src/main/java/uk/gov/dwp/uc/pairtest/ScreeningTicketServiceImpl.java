@@ -0,0 +1,115 @@
+package uk.gov.dwp.uc.pairtest;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Takes the order's seats from the local {@link SeatInventory} before calling the gateways and
+ * gives them back only once the customer is known not to have paid for them.
+ * <p>
+ * A failed payment returns the seats at once. A payment or reservation whose outcome is unknown
+ * keeps them held until it answers, and the purchase carries on from there. A reservation that
+ * fails after the payment was taken is refunded when the payment gateway is a
+ * {@link RefundableTicketPaymentService}, which returns the seats; otherwise the seats stay held
+ * for the paid order and the reservation failure is rethrown.
+ */
+public class ScreeningTicketServiceImpl implements ScreeningTicketService {
+
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final SeatInventory inventory;
+    private final CompletedPurchaseListener listener;
+
+    public ScreeningTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                                      TicketOrderProcessor processor, SeatInventory inventory) {
+        this(paymentService, seatService, processor, inventory, CompletedPurchaseListener.noop());
+    }
+
+    public ScreeningTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                                      TicketOrderProcessor processor, SeatInventory inventory, CompletedPurchaseListener listener) {
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.processor = processor;
+        this.inventory = inventory;
+        this.listener = CompletedPurchaseListener.guarded(listener);
+    }
+
+    @Override
+    public void purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        TicketCounts counts = processor.tally(accountId, ticketTypeRequests);
+        TicketCalculationResult result = processor.process(accountId, counts.adultTickets(), counts.childTickets(), counts.infantTickets());
+        if (!inventory.tryAcquire(screeningId, result.totalSeats())) {
+            throw new SoldOutException("Not enough seats left for this screening");
+        }
+        try {
+            paymentService.makePayment(accountId, result.totalAmount());
+        } catch (PurchaseOutcomeUnknownException e) {
+            throw new PurchaseOutcomeUnknownException(e.getMessage(), e, e.outcome().handle((done, failure) -> {
+                if (failure != null) {
+                    inventory.release(screeningId, result.totalSeats());
+                    throw unwrap(failure);
+                }
+                reserve(screeningId, accountId, counts, result);
+                return new PurchaseReceipt(accountId, result.totalAmount(), result.totalSeats());
+            }));
+        } catch (RuntimeException e) {
+            inventory.release(screeningId, result.totalSeats());
+            throw e;
+        }
+        reserve(screeningId, accountId, counts, result);
+    }
+
+    private void reserve(long screeningId, long accountId, TicketCounts counts, TicketCalculationResult result) {
+        try {
+            seatService.reserveSeat(accountId, result.totalSeats());
+        } catch (PurchaseOutcomeUnknownException e) {
+            throw new PurchaseOutcomeUnknownException(e.getMessage(), e, e.outcome().handle((done, failure) -> {
+                if (failure != null) {
+                    RuntimeException notReserved = unwrap(failure);
+                    refund(screeningId, accountId, result, notReserved);
+                    throw notReserved;
+                }
+                listener.onCompleted(accountId, counts.adultTickets(), counts.childTickets(), counts.infantTickets(), result);
+                return new PurchaseReceipt(accountId, result.totalAmount(), result.totalSeats());
+            }));
+        } catch (RuntimeException e) {
+            refund(screeningId, accountId, result, e);
+            throw e;
+        }
+        listener.onCompleted(accountId, counts.adultTickets(), counts.childTickets(), counts.infantTickets(), result);
+    }
+
+    /**
+     * Refunds a paid order whose seats could not be reserved and returns its seats, if the payment
+     * gateway can refund. A refund that fails is added to {@code failure} and the seats stay held.
+     */
+    private void refund(long screeningId, long accountId, TicketCalculationResult result, RuntimeException failure) {
+        if (!(paymentService instanceof RefundableTicketPaymentService refundable)) {
+            return;
+        }
+        try {
+            refundable.refundPayment(accountId, result.totalAmount());
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+            return;
+        }
+        inventory.release(screeningId, result.totalSeats());
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+}
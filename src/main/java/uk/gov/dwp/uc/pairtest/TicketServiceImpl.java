@@ -4,28 +4,35 @@ import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
-import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
 import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
 
+/**
+ * Requests are tallied into per-type counts and bought through a {@link PrimitiveTicketServiceImpl},
+ * so this service and the primitive entry point validate, price and call the gateways along the
+ * same path.
+ */
 public class TicketServiceImpl implements TicketService {
     /**
      * Should only have private methods other than the one below.
      */
 
-    private final TicketPaymentService paymentService;
-    private final SeatReservationService seatService;
-    private final TicketOrderProcessor processor;
+    private final PrimitiveTicketServiceImpl purchaser;
 
     public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, TicketOrderProcessor processor) {
-        this.paymentService = paymentService;
-        this.seatService = seatService;
-        this.processor = processor;
+        this(new PrimitiveTicketServiceImpl(paymentService, seatService, processor));
+    }
+
+    /**
+     * Shares {@code purchaser} with callers of the primitive entry point.
+     */
+    public TicketServiceImpl(PrimitiveTicketServiceImpl purchaser) {
+        this.purchaser = purchaser;
     }
 
     @Override
     public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
-        TicketCalculationResult result = processor.process(accountId, ticketTypeRequests);
-        paymentService.makePayment(accountId, result.totalAmount());
-        seatService.reserveSeat(accountId, result.totalSeats());
+        TicketCounts counts = purchaser.tally(accountId, ticketTypeRequests);
+        purchaser.purchaseTickets(accountId.longValue(), counts.adultTickets(), counts.childTickets(), counts.infantTickets());
     }
 }
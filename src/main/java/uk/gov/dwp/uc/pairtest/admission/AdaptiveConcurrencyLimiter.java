@@ -0,0 +1,157 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows the latency of the work it admits, in the style of the gradient
+ * limiters used for TCP congestion control.
+ * <p>
+ * Latencies are summed over each sample window. At the end of a window the average is compared
+ * with a slow moving long-term average. While latency holds steady the limit grows by about its
+ * square root per window, as long as the window actually used more than half of it. When latency
+ * rises, queues are building somewhere downstream, and the limit shrinks in proportion, by at
+ * most half. A window with failed or timed-out calls multiplies the limit by the backoff ratio
+ * instead. Latency-driven changes are smoothed, and the limit always stays within the policy's
+ * bounds.
+ * <p>
+ * Admission is a CAS on the in-flight count and recording a sample is two adder increments. Only
+ * the caller that closes a window takes a lock, to recalculate the limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_TERM_WEIGHT = 0.01;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double TOLERANCE = 1.5;
+
+    private final AdmissionPolicy policy;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private volatile int limit;
+    private volatile int peakInFlight;
+    private volatile long windowStart;
+    private double estimatedLimit;
+    private double longTermLatency;
+
+    public AdaptiveConcurrencyLimiter(AdmissionPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(AdmissionPolicy policy, LongSupplier nanoClock) {
+        this.policy = policy;
+        this.windowNanos = policy.sampleWindow().toNanos();
+        this.nanoClock = nanoClock;
+        this.limit = policy.initialLimit();
+        this.estimatedLimit = policy.initialLimit();
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return {@code true} if the caller may go ahead and must report back with {@link #onSuccess},
+     * {@link #onDropped} or {@link #onIgnored}; {@code false} if it was shed
+     */
+    public boolean tryAcquire() {
+        for (; ; ) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > peakInFlight) {
+                    peakInFlight = current + 1;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the permit and records the latency of a call that completed normally.
+     */
+    public void onSuccess(long latencyNanos) {
+        inFlight.decrementAndGet();
+        latencySum.add(latencyNanos);
+        samples.increment();
+        maybeUpdate(nanoClock.getAsLong());
+    }
+
+    /**
+     * Releases the permit of a call that failed or timed out downstream, a sign of overload.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        drops.increment();
+        maybeUpdate(nanoClock.getAsLong());
+    }
+
+    /**
+     * Releases the permit without recording anything, for calls that say nothing about downstream
+     * latency, such as orders rejected by validation.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    private void maybeUpdate(long now) {
+        if (now - windowStart >= windowNanos) {
+            update(now);
+        }
+    }
+
+    private synchronized void update(long now) {
+        if (now - windowStart < windowNanos) {
+            return;
+        }
+        windowStart = now;
+        long count = samples.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        long dropped = drops.sumThenReset();
+        int peak = peakInFlight;
+        peakInFlight = inFlight.get();
+
+        if (dropped > 0) {
+            setLimit(estimatedLimit * policy.backoffRatio());
+            return;
+        }
+        if (count > 0) {
+            double latency = Math.max(1, (double) sum / count);
+            if (longTermLatency == 0) {
+                longTermLatency = latency;
+            } else {
+                longTermLatency += (latency - longTermLatency) * LONG_TERM_WEIGHT;
+            }
+            if (longTermLatency / latency > 2) {
+                // Latency fell well below the long-term average: let the average catch up quickly.
+                longTermLatency = latency * 2;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1, TOLERANCE * longTermLatency / latency));
+            double headroom = peak * 2 < estimatedLimit ? 0 : Math.sqrt(estimatedLimit);
+            setLimit(estimatedLimit * (1 - SMOOTHING) + (estimatedLimit * gradient + headroom) * SMOOTHING);
+        }
+    }
+
+    private void setLimit(double newLimit) {
+        estimatedLimit = Math.max(policy.minLimit(), Math.min(policy.maxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.ServiceOverloadedException;
+
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TicketService} decorator that sheds purchases beyond an {@link AdaptiveConcurrencyLimiter}'s
+ * limit. A shed purchase fails straight away with {@link ServiceOverloadedException} instead of
+ * queueing behind slow gateways until the client gives up.
+ * <p>
+ * Completed purchases feed their latency back into the limit. Any other runtime failure, such as a
+ * gateway timeout or an open circuit, counts as a drop and lowers the limit. Invalid orders are
+ * rejected quickly and tell us nothing about the gateways, so they are not sampled.
+ */
+public class AdmissionControlledTicketService implements TicketService {
+
+    private final TicketService delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LongSupplier nanoClock;
+
+    public AdmissionControlledTicketService(TicketService delegate) {
+        this(delegate, new AdaptiveConcurrencyLimiter(AdmissionPolicy.DEFAULT));
+    }
+
+    public AdmissionControlledTicketService(TicketService delegate, AdaptiveConcurrencyLimiter limiter) {
+        this(delegate, limiter, System::nanoTime);
+    }
+
+    AdmissionControlledTicketService(TicketService delegate, AdaptiveConcurrencyLimiter limiter, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many purchases in progress, limit " + limiter.getLimit());
+        }
+        long start = nanoClock.getAsLong();
+        try {
+            delegate.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            limiter.onIgnored();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            limiter.onDropped();
+            throw e;
+        }
+        limiter.onSuccess(nanoClock.getAsLong() - start);
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
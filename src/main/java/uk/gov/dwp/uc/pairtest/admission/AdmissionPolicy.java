@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.time.Duration;
+
+/**
+ * Bounds and tuning for an {@link AdaptiveConcurrencyLimiter}.
+ *
+ * @param initialLimit purchases allowed in flight before any latency has been observed
+ * @param minLimit     the limit never drops below this, so the service keeps probing for capacity
+ * @param maxLimit     the limit never grows beyond this
+ * @param sampleWindow how often the limit is recalculated from the latencies seen since
+ * @param backoffRatio factor applied to the limit after a window with failed or timed-out purchases
+ */
+public record AdmissionPolicy(int initialLimit, int minLimit, int maxLimit, Duration sampleWindow, double backoffRatio) {
+
+    public static final AdmissionPolicy DEFAULT = new AdmissionPolicy(20, 4, 1_000, Duration.ofMillis(100), 0.9);
+
+    public AdmissionPolicy {
+        if (minLimit <= 0 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        if (sampleWindow.isNegative() || sampleWindow.isZero()) {
+            throw new IllegalArgumentException("sampleWindow must be positive");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+public record TicketOrder(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+}
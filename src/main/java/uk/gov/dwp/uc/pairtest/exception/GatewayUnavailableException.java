@@ -0,0 +1,13 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown instead of calling a gateway that is timing out, failing or saturated. The order itself
+ * may be valid, so this is deliberately not an {@link InvalidPurchaseException}. A call that was
+ * made but timed out throws {@link PurchaseOutcomeUnknownException} instead.
+ */
+public class GatewayUnavailableException extends RuntimeException {
+
+    public GatewayUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,41 @@
 package uk.gov.dwp.uc.pairtest.exception;
 
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
 public class InvalidPurchaseException extends RuntimeException {
 
+    private final ValidationFailure failure;
+
     public InvalidPurchaseException() {
+        this.failure = null;
     }
 
     public InvalidPurchaseException(String message) {
         super(message);
+        this.failure = null;
+    }
+
+    /**
+     * Rejection by a validation rule; the message is the failure's.
+     */
+    public InvalidPurchaseException(ValidationFailure failure) {
+        super(failure.message());
+        this.failure = failure;
+    }
+
+    /**
+     * @param writableStackTrace {@code false} skips stack trace capture and suppression,
+     *                           for preallocated instances thrown on the hot path
+     */
+    public InvalidPurchaseException(String message, ValidationFailure failure, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+        this.failure = failure;
+    }
+
+    /**
+     * @return the validation rule that rejected the purchase, or {@code null} if it was rejected for another reason
+     */
+    public ValidationFailure getFailure() {
+        return failure;
     }
 }
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thrown when a gateway did not answer in time but may still complete the call. The customer may
+ * already have been charged, so the purchase is neither failed nor retried: it carries on in the
+ * background and {@link #outcome()} completes with its receipt or failure once the gateways answer.
+ * <p>
+ * When thrown for a single gateway call by a
+ * {@link uk.gov.dwp.uc.pairtest.resilience.GatewayGuard} there is no receipt yet, and the outcome
+ * completes with {@code null} once the call goes through.
+ */
+public class PurchaseOutcomeUnknownException extends RuntimeException {
+
+    private final transient CompletableFuture<PurchaseReceipt> outcome;
+
+    public PurchaseOutcomeUnknownException(String message, Throwable cause, CompletableFuture<PurchaseReceipt> outcome) {
+        super(message, cause);
+        this.outcome = outcome;
+    }
+
+    public CompletableFuture<PurchaseReceipt> outcome() {
+        return outcome;
+    }
+}
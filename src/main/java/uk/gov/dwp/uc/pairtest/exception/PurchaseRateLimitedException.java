@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown when an account makes purchase attempts faster than its rate limit allows.
+ */
+public class PurchaseRateLimitedException extends InvalidPurchaseException {
+
+    public PurchaseRateLimitedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown when a purchase is shed because the service is already running as many purchases as it
+ * can handle. The order was never looked at, so this is deliberately not an
+ * {@link InvalidPurchaseException}; the caller may retry later. No stack trace is captured, so
+ * shedding stays cheap under overload.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Thrown when a screening does not have enough seats left for an order.
+ */
+public class SoldOutException extends InvalidPurchaseException {
+
+    public SoldOutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SeatReservationService} that can make several reservations in one remote call.
+ * The default implementation falls back to one {@code reserveSeat} call per item.
+ */
+public interface BatchSeatReservationService extends SeatReservationService {
+
+    default GatewayBatchResult reserveSeats(List<SeatAllocation> allocations) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        for (int i = 0; i < allocations.size(); i++) {
+            SeatAllocation allocation = allocations.get(i);
+            try {
+                reserveSeat(allocation.accountId(), allocation.totalSeatsToAllocate());
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+        return failures.isEmpty() ? GatewayBatchResult.allSucceeded() : new GatewayBatchResult(failures);
+    }
+
+    static BatchSeatReservationService of(SeatReservationService seatService) {
+        if (seatService instanceof BatchSeatReservationService batchService) {
+            return batchService;
+        }
+        return seatService::reserveSeat;
+    }
+}
@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link TicketPaymentService} that can take several payments in one remote call.
+ * The default implementation falls back to one {@code makePayment} call per item.
+ */
+public interface BatchTicketPaymentService extends TicketPaymentService {
+
+    default GatewayBatchResult makePayments(List<Payment> payments) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            try {
+                makePayment(payment.accountId(), payment.totalAmountToPay());
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+        return failures.isEmpty() ? GatewayBatchResult.allSucceeded() : new GatewayBatchResult(failures);
+    }
+
+    static BatchTicketPaymentService of(TicketPaymentService paymentService) {
+        if (paymentService instanceof BatchTicketPaymentService batchService) {
+            return batchService;
+        }
+        return paymentService::makePayment;
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import java.util.Map;
+
+/**
+ * Per-item outcome of a batch gateway call, keyed by the item's index in the submitted list.
+ * Items without an entry succeeded.
+ */
+public record GatewayBatchResult(Map<Integer, RuntimeException> failures) {
+
+    private static final GatewayBatchResult ALL_SUCCEEDED = new GatewayBatchResult(Map.of());
+
+    public GatewayBatchResult {
+        failures = Map.copyOf(failures);
+    }
+
+    public static GatewayBatchResult allSucceeded() {
+        return ALL_SUCCEEDED;
+    }
+
+    public RuntimeException failure(int index) {
+        return failures.get(index);
+    }
+}
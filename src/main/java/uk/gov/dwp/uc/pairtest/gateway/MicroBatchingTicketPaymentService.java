@@ -0,0 +1,224 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TicketPaymentService} that queues payments from concurrent callers and sends them to
+ * the gateway in batches through {@link BatchTicketPaymentService#makePayments}. Each caller
+ * still blocks until its own payment has gone through, and gets its own failure back.
+ * <p>
+ * A single flusher thread takes whatever is queued, up to the current batch limit, and waits
+ * up to the current linger time for more. Both adapt to load: a full batch with more payments
+ * still waiting doubles the limit and the linger, and a batch of one halves them. When quiet a
+ * payment is sent on its own without waiting, and under a spike payments arriving during a
+ * gateway call join the next batch.
+ * <p>
+ * The flusher thread is started by the first payment rather than by the constructor. Anything
+ * thrown by the gateway, errors included, fails that batch's payments and the flusher carries
+ * on with the next batch.
+ */
+public class MicroBatchingTicketPaymentService implements TicketPaymentService, AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final Duration DEFAULT_MAX_LINGER = Duration.ofNanos(500_000);
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    private static final long MIN_LINGER_STEP_NANOS = 10_000;
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private record PendingPayment(Payment payment, CompletableFuture<Void> result) {
+    }
+
+    private final BatchTicketPaymentService delegate;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final BlockingQueue<PendingPayment> queue;
+    private final Thread flusher;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder payments = new LongAdder();
+    private volatile boolean started;
+    private volatile boolean closed;
+    private volatile int batchLimit = 1;
+    private volatile long lingerNanos;
+
+    public MicroBatchingTicketPaymentService(TicketPaymentService delegate) {
+        this(delegate, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_LINGER, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public MicroBatchingTicketPaymentService(TicketPaymentService delegate, int maxBatchSize, Duration maxLinger, int queueCapacity) {
+        if (maxBatchSize <= 0 || queueCapacity <= 0 || maxLinger.isNegative()) {
+            throw new IllegalArgumentException("maxBatchSize and queueCapacity must be positive and maxLinger not negative");
+        }
+        this.delegate = BatchTicketPaymentService.of(delegate);
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flusher = Thread.ofPlatform().daemon().name("payment-batcher").unstarted(this::flushLoop);
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        try {
+            submit(accountId, totalAmountToPay).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a payment without waiting for it, blocking only while the queue is full.
+     */
+    public CompletableFuture<Void> submit(long accountId, int totalAmountToPay) {
+        if (closed) {
+            throw new IllegalStateException("Payment batcher is closed");
+        }
+        if (!started) {
+            start();
+        }
+        PendingPayment pending = new PendingPayment(new Payment(accountId, totalAmountToPay), new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing payment", e);
+        }
+        if (closed && queue.remove(pending)) {
+            throw new IllegalStateException("Payment batcher is closed");
+        }
+        return pending.result();
+    }
+
+    /**
+     * Stops accepting payments and waits for queued ones to be sent.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void start() {
+        if (!started) {
+            flusher.start();
+            started = true;
+        }
+    }
+
+    public int getBatchLimit() {
+        return batchLimit;
+    }
+
+    public Duration getLinger() {
+        return Duration.ofNanos(lingerNanos);
+    }
+
+    public long getBatchesFlushed() {
+        return batches.sum();
+    }
+
+    public long getPaymentsFlushed() {
+        return payments.sum();
+    }
+
+    private void flushLoop() {
+        List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                PendingPayment first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed = true;
+            }
+            if (!batch.isEmpty()) {
+                adapt(batch.size());
+                flush(batch);
+            }
+        }
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void fill(List<PendingPayment> batch) throws InterruptedException {
+        int limit = batchLimit;
+        queue.drainTo(batch, limit - batch.size());
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingPayment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, limit - batch.size());
+        }
+    }
+
+    private void adapt(int size) {
+        if (size >= batchLimit && !queue.isEmpty()) {
+            batchLimit = Math.min(maxBatchSize, batchLimit * 2);
+            lingerNanos = Math.min(maxLingerNanos, Math.max(MIN_LINGER_STEP_NANOS, lingerNanos * 2));
+        } else if (size == 1) {
+            batchLimit = Math.max(1, batchLimit / 2);
+            lingerNanos = lingerNanos / 2 < MIN_LINGER_STEP_NANOS ? 0 : lingerNanos / 2;
+        }
+    }
+
+    private void flush(List<PendingPayment> batch) {
+        List<Payment> items = new ArrayList<>(batch.size());
+        for (PendingPayment pending : batch) {
+            items.add(pending.payment());
+        }
+        batches.increment();
+        payments.add(batch.size());
+        try {
+            GatewayBatchResult result = delegate.makePayments(items);
+            for (int i = 0; i < batch.size(); i++) {
+                RuntimeException failure = result.failure(i);
+                if (failure == null) {
+                    batch.get(i).result().complete(null);
+                } else {
+                    batch.get(i).result().completeExceptionally(failure);
+                }
+            }
+        } catch (Throwable e) {
+            for (PendingPayment pending : batch) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+        batch.clear();
+    }
+}
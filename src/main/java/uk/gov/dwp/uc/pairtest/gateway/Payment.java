@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+public record Payment(long accountId, int totalAmountToPay) {
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * {@link TicketPaymentService} able to reverse a payment that has already been taken.
+ */
+public interface RefundableTicketPaymentService extends TicketPaymentService {
+
+    void refundPayment(long accountId, int totalAmountToRefund);
+
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * {@link SeatReservationService} able to give back seats that have already been reserved.
+ */
+public interface ReleasableSeatReservationService extends SeatReservationService {
+
+    void releaseSeat(long accountId, int totalSeatsToRelease);
+
+}
@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+public record SeatAllocation(long accountId, int totalSeatsToAllocate) {
+}
@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+
+/**
+ * How far the purchase made under one idempotency key got: the order it was for, what it was
+ * charged and whether its seats have been reserved yet. A record that is not reserved means the
+ * payment was taken, so a retry must only reserve.
+ */
+public record IdempotencyRecord(long accountId, TicketCounts counts, TicketCalculationResult result, boolean reserved) {
+
+    public boolean isSameOrder(TicketCounts counts) {
+        return this.counts.equals(counts);
+    }
+
+    public IdempotencyRecord asReserved() {
+        return new IdempotencyRecord(accountId, counts, result, true);
+    }
+
+    public PurchaseReceipt receipt() {
+        return new PurchaseReceipt(accountId, result.totalAmount(), result.totalSeats());
+    }
+}
@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+public record IdempotencyStats(long hits, long misses, long evictions) {
+}
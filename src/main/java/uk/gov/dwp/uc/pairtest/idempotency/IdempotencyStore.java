@@ -0,0 +1,20 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+/**
+ * Remembers how far the purchase made under each idempotency key got.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @return the record stored under the key, or {@code null} if there is none or it has expired
+     */
+    IdempotencyRecord get(String idempotencyKey);
+
+    /**
+     * Stores the record, replacing any earlier record for the key.
+     */
+    void put(String idempotencyKey, IdempotencyRecord record);
+
+    IdempotencyStats stats();
+
+}
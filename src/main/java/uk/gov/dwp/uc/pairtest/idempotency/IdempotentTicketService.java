@@ -0,0 +1,17 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+public interface IdempotentTicketService {
+
+    /**
+     * Purchases tickets at most once per idempotency key. A retry with a key that has already
+     * completed returns the original receipt without calling the gateways again, and a retry of a
+     * purchase that was paid for but not reserved only reserves. A key reused for a different
+     * account or order is rejected.
+     */
+    PurchaseReceipt purchaseTickets(String idempotencyKey, Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException;
+
+}
@@ -0,0 +1,165 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.CompletedPurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers retries from the {@link IdempotencyStore}. A retry that arrives while the original
+ * purchase is still running waits for it instead of paying twice.
+ * <p>
+ * The order is priced once and both gateways are called from the stored result, so a resumed
+ * purchase reserves exactly what was paid for. The payment is recorded in the store as soon as it
+ * is taken. A purchase that failed before paying is not remembered and can be retried with the
+ * same key; one that was paid for but not reserved is resumed by reserving only. While a
+ * gateway's outcome is unknown the key stays in flight until it answers.
+ */
+public class IdempotentTicketServiceImpl implements IdempotentTicketService {
+
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final IdempotencyStore store;
+    private final CompletedPurchaseListener listener;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                                       TicketOrderProcessor processor, IdempotencyStore store) {
+        this(paymentService, seatService, processor, store, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * @param listener told about every purchase once, when its seats are reserved; answering a
+     *                 retry from the store does not report it again
+     */
+    public IdempotentTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                                       TicketOrderProcessor processor, IdempotencyStore store, CompletedPurchaseListener listener) {
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.processor = processor;
+        this.store = store;
+        this.listener = CompletedPurchaseListener.guarded(listener);
+    }
+
+    @Override
+    public PurchaseReceipt purchaseTickets(String idempotencyKey, Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            throw new InvalidPurchaseException("Idempotency key is required");
+        }
+        TicketCounts counts = processor.tally(accountId, ticketTypeRequests);
+
+        CompletableFuture<IdempotencyRecord> purchase = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> existing = inFlight.putIfAbsent(idempotencyKey, purchase);
+        if (existing != null) {
+            return checkOrder(await(existing), accountId, counts).receipt();
+        }
+        IdempotencyRecord record = null;
+        boolean settled = true;
+        try {
+            record = store.get(idempotencyKey);
+            if (record == null) {
+                TicketCalculationResult result = processor.process(accountId, counts.adultTickets(), counts.childTickets(),
+                        counts.infantTickets());
+                record = new IdempotencyRecord(accountId, counts, result, false);
+                pay(idempotencyKey, record);
+            } else {
+                checkOrder(record, accountId, counts);
+            }
+            if (!record.reserved()) {
+                seatService.reserveSeat(accountId, record.result().totalSeats());
+                completed(record);
+                record = reserved(idempotencyKey, record);
+            }
+            purchase.complete(record);
+            return record.receipt();
+        } catch (PurchaseOutcomeUnknownException e) {
+            settled = false;
+            IdempotencyRecord pending = record;
+            e.outcome().whenComplete((done, failure) -> {
+                if (failure == null) {
+                    completed(pending);
+                    purchase.complete(reserved(idempotencyKey, pending));
+                } else {
+                    purchase.completeExceptionally(failure);
+                }
+                inFlight.remove(idempotencyKey, purchase);
+            });
+            throw e;
+        } catch (RuntimeException | Error e) {
+            purchase.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (settled) {
+                inFlight.remove(idempotencyKey, purchase);
+            }
+        }
+    }
+
+    /**
+     * Takes the payment and stores the paid record before the seats are reserved. A payment that
+     * goes through after its outcome was reported unknown is stored and followed by the
+     * reservation once it does, as it would have been had it answered in time.
+     */
+    private void pay(String idempotencyKey, IdempotencyRecord paid) {
+        TicketCalculationResult result = paid.result();
+        try {
+            paymentService.makePayment(paid.accountId(), result.totalAmount());
+        } catch (PurchaseOutcomeUnknownException e) {
+            throw new PurchaseOutcomeUnknownException(e.getMessage(), e.getCause(), e.outcome().thenApply(receipt -> {
+                store.put(idempotencyKey, paid);
+                seatService.reserveSeat(paid.accountId(), result.totalSeats());
+                return receipt;
+            }));
+        }
+        store.put(idempotencyKey, paid);
+    }
+
+    private void completed(IdempotencyRecord record) {
+        TicketCounts counts = record.counts();
+        listener.onCompleted(record.accountId(), counts.adultTickets(), counts.childTickets(), counts.infantTickets(), record.result());
+    }
+
+    /**
+     * Stores the record as reserved; only called on the change from paid to reserved.
+     */
+    private IdempotencyRecord reserved(String idempotencyKey, IdempotencyRecord record) {
+        IdempotencyRecord reserved = record.asReserved();
+        store.put(idempotencyKey, reserved);
+        return reserved;
+    }
+
+    private static IdempotencyRecord checkOrder(IdempotencyRecord record, long accountId, TicketCounts counts) {
+        if (record.accountId() != accountId) {
+            throw new InvalidPurchaseException("Idempotency key belongs to another account");
+        }
+        if (!record.isSameOrder(counts)) {
+            throw new InvalidPurchaseException("Idempotency key was used for a different order");
+        }
+        return record;
+    }
+
+    private static IdempotencyRecord await(CompletableFuture<IdempotencyRecord> purchase) {
+        try {
+            return purchase.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent store bounded by both size and time to live. Every entry has the same TTL, so
+ * insertion order is also expiry order: a FIFO queue drives both expiry and size eviction.
+ * <p>
+ * Replacing a key leaves its old entry in the queue rather than searching the queue for it.
+ * Entries compare by identity, so when the old entry reaches the head it no longer matches the
+ * map and is dropped without evicting its replacement.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    InMemoryIdempotencyStore(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public IdempotencyRecord get(String idempotencyKey) {
+        Entry entry = entries.get(idempotencyKey);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(nanoClock.getAsLong())) {
+            if (entries.remove(idempotencyKey, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.record;
+    }
+
+    @Override
+    public void put(String idempotencyKey, IdempotencyRecord record) {
+        long now = nanoClock.getAsLong();
+        Entry entry = new Entry(idempotencyKey, record, now + ttlNanos);
+        entries.put(idempotencyKey, entry);
+        insertionOrder.add(entry);
+        evict(now);
+    }
+
+    @Override
+    public IdempotencyStats stats() {
+        return new IdempotencyStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        for (Entry oldest = insertionOrder.peek(); oldest != null; oldest = insertionOrder.peek()) {
+            if (entries.get(oldest.key) != oldest) {
+                insertionOrder.remove(oldest);
+                continue;
+            }
+            if (entries.size() <= maxEntries && !oldest.isExpired(now)) {
+                return;
+            }
+            if (insertionOrder.remove(oldest) && entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final IdempotencyRecord record;
+        private final long expiresAtNanos;
+
+        Entry(String key, IdempotencyRecord record, long expiresAtNanos) {
+            this.key = key;
+            this.record = record;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
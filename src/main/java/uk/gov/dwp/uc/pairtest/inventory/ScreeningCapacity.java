@@ -0,0 +1,102 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Remaining seats of one screening, split across independently CAS-updated segments so that
+ * concurrent buyers mostly contend on different cache lines.
+ * <p>
+ * A buyer first tries to take the whole order from a single segment, starting from one chosen
+ * by its thread. Only when no single segment has enough does it gather seats from several
+ * segments; if even that falls short it returns what it took and the order is rejected. While
+ * a gather is being rolled back, another buyer may see a segment as briefly emptier than it is,
+ * so near sell-out a request can be rejected spuriously, but seats are never oversold.
+ */
+final class ScreeningCapacity {
+
+    private static final int PADDING = 16;
+
+    private final int capacity;
+    private final int segmentCount;
+    private final AtomicIntegerArray segments;
+
+    ScreeningCapacity(int capacity, int segmentCount) {
+        this.capacity = capacity;
+        this.segmentCount = segmentCount;
+        this.segments = new AtomicIntegerArray(segmentCount * PADDING);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.set(i * PADDING, capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+        }
+    }
+
+    boolean tryAcquire(int seats) {
+        int start = home();
+        for (int i = 0; i < segmentCount; i++) {
+            if (takeAll((start + i) % segmentCount, seats)) {
+                return true;
+            }
+        }
+        return gather(start, seats);
+    }
+
+    void release(int seats) {
+        segments.addAndGet(home() * PADDING, seats);
+    }
+
+    int remaining() {
+        int remaining = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            remaining += segments.get(i * PADDING);
+        }
+        return remaining;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private boolean takeAll(int segment, int seats) {
+        int index = segment * PADDING;
+        for (; ; ) {
+            int available = segments.get(index);
+            if (available < seats) {
+                return false;
+            }
+            if (segments.compareAndSet(index, available, available - seats)) {
+                return true;
+            }
+        }
+    }
+
+    private int takeUpTo(int segment, int seats) {
+        int index = segment * PADDING;
+        for (; ; ) {
+            int available = segments.get(index);
+            int taken = Math.min(available, seats);
+            if (taken <= 0) {
+                return 0;
+            }
+            if (segments.compareAndSet(index, available, available - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    private boolean gather(int start, int seats) {
+        int taken = 0;
+        for (int i = 0; i < segmentCount && taken < seats; i++) {
+            taken += takeUpTo((start + i) % segmentCount, seats - taken);
+        }
+        if (taken == seats) {
+            return true;
+        }
+        if (taken > 0) {
+            segments.addAndGet(start * PADDING, taken);
+        }
+        return false;
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().threadId() % segmentCount);
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remaining seat capacity per screening, kept in process so sold-out orders are rejected
+ * before the payment gateway is called. Acquiring and releasing seats never takes a lock.
+ */
+public class SeatInventory {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final ConcurrentHashMap<Long, ScreeningCapacity> screenings = new ConcurrentHashMap<>();
+    private final int segmentsPerScreening;
+
+    public SeatInventory() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    public SeatInventory(int segmentsPerScreening) {
+        if (segmentsPerScreening <= 0) {
+            throw new IllegalArgumentException("segmentsPerScreening must be positive");
+        }
+        this.segmentsPerScreening = segmentsPerScreening;
+    }
+
+    public void addScreening(long screeningId, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        int segments = Math.max(1, Math.min(segmentsPerScreening, capacity));
+        if (screenings.putIfAbsent(screeningId, new ScreeningCapacity(capacity, segments)) != null) {
+            throw new IllegalStateException("Screening " + screeningId + " already exists");
+        }
+    }
+
+    /**
+     * @return whether the seats were taken; {@code false} if the screening cannot fit them
+     */
+    public boolean tryAcquire(long screeningId, int seats) {
+        if (seats < 0) {
+            throw new IllegalArgumentException("Seats must not be negative");
+        }
+        return seats == 0 || screening(screeningId).tryAcquire(seats);
+    }
+
+    public void release(long screeningId, int seats) {
+        if (seats > 0) {
+            screening(screeningId).release(seats);
+        }
+    }
+
+    public int remaining(long screeningId) {
+        return screening(screeningId).remaining();
+    }
+
+    public int capacity(long screeningId) {
+        return screening(screeningId).capacity();
+    }
+
+    private ScreeningCapacity screening(long screeningId) {
+        ScreeningCapacity capacity = screenings.get(screeningId);
+        if (capacity == null) {
+            throw new InvalidPurchaseException("Unknown screening");
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,13 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * One state change of one purchase. Every record of a purchase carries the full order so that
+ * recovery only ever needs a purchase's latest record.
+ */
+public record JournalRecord(long purchaseId, long accountId, int adults, int children, int infants,
+                            int totalAmount, int totalSeats, PurchaseState state) {
+
+    public JournalRecord withState(PurchaseState newState) {
+        return new JournalRecord(purchaseId, accountId, adults, children, infants, totalAmount, totalSeats, newState);
+    }
+}
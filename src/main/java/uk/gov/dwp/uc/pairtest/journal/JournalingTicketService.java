@@ -0,0 +1,197 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.CompletedPurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.gateway.ReleasableSeatReservationService;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Purchases that journal every step: the order is on disk before payment is taken, and the
+ * payment is on disk before seats are reserved, so a crash at any point leaves a record that
+ * {@link #recover} can finish or undo on the next start.
+ * <p>
+ * A reservation failure is compensated straight away with a refund. If the refund fails too the
+ * purchase stays {@link PurchaseState#PAID} in the journal for recovery to deal with. A payment
+ * that went through but could not be journalled as paid is refunded too, since nothing on disk
+ * would let recovery find it; if that refund fails the purchase is left
+ * {@link PurchaseState#STARTED} and recovery reports it as in doubt.
+ * <p>
+ * A payment whose outcome is unknown because the gateway did not answer in time stays
+ * {@link PurchaseState#STARTED} until it answers. A late payment is then journalled as paid and
+ * the purchase carries on as above; a declined one is journalled as failed. Purchases still in
+ * doubt at the next start are closed with {@link #resolveInDoubt} once the payment gateway's own
+ * records show whether they were charged.
+ */
+public class JournalingTicketService implements TicketService {
+
+    private final RefundableTicketPaymentService paymentService;
+    private final ReleasableSeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final PurchaseJournal journal;
+    private final CompletedPurchaseListener listener;
+
+    public JournalingTicketService(RefundableTicketPaymentService paymentService, ReleasableSeatReservationService seatService,
+                                   TicketOrderProcessor processor, PurchaseJournal journal) {
+        this(paymentService, seatService, processor, journal, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * @param listener told about every purchase once it is journalled as completed; purchases
+     *                 finished by {@link #recover} are not reported
+     */
+    public JournalingTicketService(RefundableTicketPaymentService paymentService, ReleasableSeatReservationService seatService,
+                                   TicketOrderProcessor processor, PurchaseJournal journal, CompletedPurchaseListener listener) {
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.processor = processor;
+        this.journal = journal;
+        this.listener = CompletedPurchaseListener.guarded(listener);
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        TicketCounts counts = processor.tally(accountId, ticketTypeRequests);
+        TicketCalculationResult result = processor.process(accountId, counts.adultTickets(), counts.childTickets(), counts.infantTickets());
+        JournalRecord started = new JournalRecord(journal.nextPurchaseId(), accountId, counts.adultTickets(),
+                counts.childTickets(), counts.infantTickets(), result.totalAmount(), result.totalSeats(), PurchaseState.STARTED);
+        journal.appendDurable(started);
+
+        try {
+            paymentService.makePayment(accountId, result.totalAmount());
+        } catch (PurchaseOutcomeUnknownException e) {
+            throw new PurchaseOutcomeUnknownException(e.getMessage(), e, e.outcome().handle((done, failure) -> {
+                if (failure != null) {
+                    RuntimeException declined = unwrap(failure);
+                    failed(started, declined);
+                    throw declined;
+                }
+                reserve(started, counts, result);
+                return new PurchaseReceipt(accountId, result.totalAmount(), result.totalSeats());
+            }));
+        } catch (RuntimeException e) {
+            journal.append(started.withState(PurchaseState.FAILED));
+            throw e;
+        }
+        reserve(started, counts, result);
+    }
+
+    /**
+     * Journals the payment, then reserves the seats and journals the purchase as completed.
+     */
+    private void reserve(JournalRecord started, TicketCounts counts, TicketCalculationResult result) {
+        try {
+            journal.appendDurable(started.withState(PurchaseState.PAID));
+        } catch (RuntimeException e) {
+            compensate(started, e);
+            throw e;
+        }
+
+        try {
+            seatService.reserveSeat(started.accountId(), result.totalSeats());
+        } catch (RuntimeException e) {
+            compensate(started, e);
+            throw e;
+        }
+        journal.appendDurable(started.withState(PurchaseState.COMPLETED));
+        listener.onCompleted(started.accountId(), counts.adultTickets(), counts.childTickets(), counts.infantTickets(), result);
+    }
+
+    private void failed(JournalRecord started, RuntimeException cause) {
+        try {
+            journal.append(started.withState(PurchaseState.FAILED));
+        } catch (RuntimeException journalFailure) {
+            cause.addSuppressed(journalFailure);
+        }
+    }
+
+    private void compensate(JournalRecord started, RuntimeException cause) {
+        try {
+            paymentService.refundPayment(started.accountId(), started.totalAmount());
+        } catch (RuntimeException refundFailure) {
+            cause.addSuppressed(refundFailure);
+            return;
+        }
+        try {
+            journal.append(started.withState(PurchaseState.COMPENSATED));
+        } catch (RuntimeException journalFailure) {
+            cause.addSuppressed(journalFailure);
+        }
+    }
+
+    /**
+     * Finishes the purchases that were incomplete when the journal was opened. Paid purchases are
+     * replayed or refunded according to {@code mode}; purchases that stopped around the payment
+     * call are only reported, because the gateway cannot tell us whether they were charged.
+     */
+    public RecoveryReport recover(RecoveryMode mode) {
+        int replayed = 0;
+        int compensated = 0;
+        List<JournalRecord> inDoubt = new ArrayList<>();
+        List<JournalRecord> unresolved = new ArrayList<>();
+        for (JournalRecord record : journal.incompletePurchases()) {
+            if (record.state() == PurchaseState.STARTED) {
+                inDoubt.add(record);
+                continue;
+            }
+            try {
+                settle(record, mode);
+                if (mode == RecoveryMode.REPLAY) {
+                    replayed++;
+                } else {
+                    compensated++;
+                }
+            } catch (RuntimeException e) {
+                unresolved.add(record);
+            }
+        }
+        return new RecoveryReport(replayed, compensated, inDoubt, unresolved);
+    }
+
+    /**
+     * Closes a purchase that {@link #recover} reported in doubt, once the payment gateway's own
+     * records show whether it was charged. An uncharged purchase is journalled as failed. A charged
+     * one is journalled as paid and then replayed or refunded according to {@code mode}; if that
+     * fails it stays paid for the next {@link #recover}. Until it is closed, an in-doubt purchase
+     * is copied forward at every checkpoint and reported again at every start.
+     *
+     * @throws IllegalArgumentException if the record is not an in-doubt {@link PurchaseState#STARTED} record
+     */
+    public void resolveInDoubt(JournalRecord record, boolean charged, RecoveryMode mode) {
+        if (record.state() != PurchaseState.STARTED) {
+            throw new IllegalArgumentException("Only purchases in doubt can be resolved, not " + record.state());
+        }
+        if (!charged) {
+            journal.appendDurable(record.withState(PurchaseState.FAILED));
+            return;
+        }
+        JournalRecord paid = record.withState(PurchaseState.PAID);
+        journal.appendDurable(paid);
+        settle(paid, mode);
+    }
+
+    private void settle(JournalRecord paid, RecoveryMode mode) {
+        if (mode == RecoveryMode.REPLAY) {
+            seatService.reserveSeat(paid.accountId(), paid.totalSeats());
+            journal.appendDurable(paid.withState(PurchaseState.COMPLETED));
+        } else {
+            paymentService.refundPayment(paid.accountId(), paid.totalAmount());
+            journal.appendDurable(paid.withState(PurchaseState.COMPENSATED));
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+}
@@ -0,0 +1,481 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal of purchase state changes, kept in memory-mapped append-only segment files
+ * of fixed-size records, named after the journal file with the segment number appended.
+ * <p>
+ * Appending claims a slot with one atomic increment and writes it straight into the mapping, so
+ * appenders for different purchases never wait for each other. Each record ends with a checksum
+ * written last with release semantics; a background flusher advances over records whose checksum
+ * is in place and forces them to disk in one call. Callers that need their record on disk wait in
+ * {@link #awaitDurable} and are released together by that group commit.
+ * <p>
+ * The journal remembers where the latest record of each unfinished purchase is. Once at least
+ * half of the durable segments behind the one being written hold nothing else, the flusher
+ * checkpoints: it copies those latest records forward to the end of the journal and, when the
+ * copies are on disk, deletes the old segments. The journal therefore stays a small multiple of
+ * the purchases in flight, however long it runs.
+ * <p>
+ * On open the segments are scanned in order. Records with a bad checksum, left by a crash part
+ * way through a write, are skipped, and the latest record of each purchase that never reached a
+ * final state is kept for {@link #incompletePurchases()}. Purchases are forgotten as soon as the
+ * scan reaches their final record. Slots after the last valid record are cleared and forced
+ * before the flusher starts, so a torn write there is never taken for a new record.
+ * <p>
+ * A slot that was claimed but could not be written, because its segment could not be mapped,
+ * would stop the flusher at that point for good. The journal is failed instead: waiters are
+ * released with the cause and further appends are rejected, as after a failed force.
+ */
+public class PurchaseJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = 64;
+    static final int DEFAULT_RECORDS_PER_REGION = 1 << 18;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(1);
+
+    private static final int MAX_REGIONS = 4096;
+    private static final int CHECKSUM_OFFSET = 60;
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private record Segment(int index, Path path, MappedByteBuffer buffer) {
+    }
+
+    /**
+     * Where the latest record of an unfinished purchase is. Its monitor orders the appends of
+     * one purchase against the checkpoint copying that purchase forward.
+     */
+    private static final class Latest {
+        long index = Long.MAX_VALUE;
+        boolean finished;
+
+        Latest() {
+        }
+
+        Latest(long index) {
+            this.index = index;
+        }
+    }
+
+    private final Path file;
+    private final int recordsPerRegion;
+    private final long regionBytes;
+    private final long flushIntervalNanos;
+    private final AtomicReferenceArray<Segment> regions = new AtomicReferenceArray<>(MAX_REGIONS);
+    private final ConcurrentHashMap<Long, Latest> unfinished = new ConcurrentHashMap<>();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong purchaseIds = new AtomicLong();
+    private final Object durableMonitor = new Object();
+    private final List<JournalRecord> incomplete;
+    private final Thread flusher;
+    private volatile long durable;
+    private volatile int waiters;
+    private volatile boolean closed;
+    private volatile RuntimeException flushFailure;
+    private int oldestRegion;
+    private int checkpointRegion = -1;
+    private long checkpointCopies;
+
+    public PurchaseJournal(Path file) {
+        this(file, DEFAULT_RECORDS_PER_REGION, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public PurchaseJournal(Path file, Duration flushInterval) {
+        this(file, DEFAULT_RECORDS_PER_REGION, flushInterval);
+    }
+
+    PurchaseJournal(Path file, int recordsPerRegion, Duration flushInterval) {
+        if (Integer.bitCount(recordsPerRegion) != 1) {
+            throw new IllegalArgumentException("recordsPerRegion must be a power of two");
+        }
+        this.file = file.toAbsolutePath();
+        this.recordsPerRegion = recordsPerRegion;
+        this.regionBytes = (long) recordsPerRegion * RECORD_SIZE;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        try {
+            this.incomplete = scan();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open purchase journal " + file, e);
+        }
+        this.durable = claimed.get();
+        this.flusher = Thread.ofPlatform().daemon().name("purchase-journal-flusher").start(this::flushLoop);
+    }
+
+    public long nextPurchaseId() {
+        return purchaseIds.incrementAndGet();
+    }
+
+    /**
+     * Writes the record without waiting for it to reach disk.
+     *
+     * @return the journal position after the record, to pass to {@link #awaitDurable}
+     */
+    public long append(JournalRecord record) {
+        if (flushFailure != null) {
+            throw new IllegalStateException("Purchase journal has failed", flushFailure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Purchase journal is closed");
+        }
+        Latest latest = unfinished.computeIfAbsent(record.purchaseId(), purchaseId -> new Latest());
+        synchronized (latest) {
+            long index = write(record);
+            latest.index = index;
+            if (record.state().isFinal()) {
+                latest.finished = true;
+                unfinished.remove(record.purchaseId(), latest);
+            }
+            return index + 1;
+        }
+    }
+
+    private long write(JournalRecord record) {
+        long index = claimed.getAndIncrement();
+        MappedByteBuffer region;
+        try {
+            region = region((int) (index / recordsPerRegion));
+        } catch (RuntimeException e) {
+            // The flusher's checkpoint copies write too, so report whichever failure came first.
+            throw fail(e);
+        }
+        int offset = (int) (index % recordsPerRegion) * RECORD_SIZE;
+        region.putLong(offset, record.purchaseId());
+        region.putLong(offset + 8, record.accountId());
+        region.putInt(offset + 16, record.adults());
+        region.putInt(offset + 20, record.children());
+        region.putInt(offset + 24, record.infants());
+        region.putInt(offset + 28, record.totalAmount());
+        region.putInt(offset + 32, record.totalSeats());
+        region.putInt(offset + 36, record.state().ordinal());
+        INT.setRelease(region, offset + CHECKSUM_OFFSET, checksum(record));
+        return index;
+    }
+
+    /**
+     * Blocks until every record up to {@code position} has been forced to disk.
+     */
+    public void awaitDurable(long position) {
+        if (durable >= position) {
+            return;
+        }
+        synchronized (durableMonitor) {
+            waiters++;
+            try {
+                while (durable < position) {
+                    if (flushFailure != null) {
+                        throw new IllegalStateException("Purchase journal could not be forced to disk", flushFailure);
+                    }
+                    if (closed) {
+                        throw new IllegalStateException("Purchase journal closed before the record was written");
+                    }
+                    LockSupport.unpark(flusher);
+                    durableMonitor.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the purchase journal", e);
+            } finally {
+                waiters--;
+            }
+        }
+    }
+
+    public long appendDurable(JournalRecord record) {
+        long position = append(record);
+        awaitDurable(position);
+        return position;
+    }
+
+    /**
+     * @return the latest record of every purchase that was not finished when the journal was opened
+     */
+    public List<JournalRecord> incompletePurchases() {
+        return incomplete;
+    }
+
+    public long size() {
+        return claimed.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static Path segment(Path file, int regionIndex) {
+        return file.resolveSibling(file.getFileName() + "." + regionIndex);
+    }
+
+    private MappedByteBuffer region(int regionIndex) {
+        Segment segment = regions.get(regionIndex & (MAX_REGIONS - 1));
+        if (segment == null || segment.index() != regionIndex) {
+            segment = map(regionIndex);
+        }
+        return segment.buffer();
+    }
+
+    private synchronized Segment map(int regionIndex) {
+        int slot = regionIndex & (MAX_REGIONS - 1);
+        Segment segment = regions.get(slot);
+        if (segment != null && segment.index() == regionIndex) {
+            return segment;
+        }
+        if (segment != null) {
+            throw new IllegalStateException("Purchase journal has more than " + MAX_REGIONS + " live segments");
+        }
+        Path path = segment(file, regionIndex);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            segment = new Segment(regionIndex, path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend purchase journal", e);
+        }
+        regions.set(slot, segment);
+        return segment;
+    }
+
+    private List<Integer> existingSegments() throws IOException {
+        String prefix = file.getFileName() + ".";
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            return siblings.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.length() > prefix.length()
+                            && name.substring(prefix.length()).chars().allMatch(Character::isDigit))
+                    .map(name -> Integer.valueOf(name.substring(prefix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private List<JournalRecord> scan() throws IOException {
+        List<Integer> segments = existingSegments();
+        Map<Long, JournalRecord> latest = new HashMap<>();
+        oldestRegion = segments.isEmpty() ? 0 : segments.get(0);
+        long end = (long) oldestRegion * recordsPerRegion;
+        long maxPurchaseId = 0;
+        for (int r : segments) {
+            MappedByteBuffer region = region(r);
+            for (int slot = 0; slot < recordsPerRegion; slot++) {
+                JournalRecord record = read(region, slot * RECORD_SIZE);
+                if (record == null) {
+                    continue;
+                }
+                long index = (long) r * recordsPerRegion + slot;
+                end = index + 1;
+                maxPurchaseId = Math.max(maxPurchaseId, record.purchaseId());
+                if (record.state().isFinal()) {
+                    latest.remove(record.purchaseId());
+                    unfinished.remove(record.purchaseId());
+                } else {
+                    latest.put(record.purchaseId(), record);
+                    unfinished.put(record.purchaseId(), new Latest(index));
+                }
+            }
+        }
+        if (!segments.isEmpty()) {
+            clearSlots(end, (long) (segments.get(segments.size() - 1) + 1) * recordsPerRegion);
+        }
+        claimed.set(end);
+        purchaseIds.set(maxPurchaseId);
+        List<JournalRecord> records = new ArrayList<>(latest.values());
+        records.sort((a, b) -> Long.compare(a.purchaseId(), b.purchaseId()));
+        return List.copyOf(records);
+    }
+
+    /**
+     * Zeroes the checksum of every slot in the range that has one and forces the change, since the
+     * flusher takes any slot with a checksum for a record this process has written.
+     */
+    private void clearSlots(long from, long to) {
+        long first = to;
+        long last = from;
+        for (long index = from; index < to; index++) {
+            MappedByteBuffer region = region((int) (index / recordsPerRegion));
+            int offset = (int) (index % recordsPerRegion) * RECORD_SIZE + CHECKSUM_OFFSET;
+            if (region.getInt(offset) != 0) {
+                region.putInt(offset, 0);
+                first = Math.min(first, index);
+                last = index + 1;
+            }
+        }
+        if (first < last) {
+            force(first, last);
+        }
+    }
+
+    private static JournalRecord read(MappedByteBuffer region, int offset) {
+        int stored = region.getInt(offset + CHECKSUM_OFFSET);
+        int state = region.getInt(offset + 36);
+        if (stored == 0 || state < 0 || state >= PurchaseState.values().length) {
+            return null;
+        }
+        JournalRecord record = new JournalRecord(region.getLong(offset), region.getLong(offset + 8),
+                region.getInt(offset + 16), region.getInt(offset + 20), region.getInt(offset + 24),
+                region.getInt(offset + 28), region.getInt(offset + 32), PurchaseState.values()[state]);
+        return checksum(record) == stored ? record : null;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            boolean stopping = closed || flushFailure != null;
+            long written = durable;
+            long target = claimed.get();
+            try {
+                while (written < target && isWritten(written)) {
+                    written++;
+                }
+                if (written > durable) {
+                    force(durable, written);
+                    synchronized (durableMonitor) {
+                        durable = written;
+                        durableMonitor.notifyAll();
+                    }
+                }
+                if (!stopping) {
+                    checkpoint();
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                stopping = true;
+            }
+            if (stopping) {
+                closed = true;
+                synchronized (durableMonitor) {
+                    durableMonitor.notifyAll();
+                }
+                return;
+            }
+            if (waiters > 0 && written < target) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private RuntimeException fail(RuntimeException cause) {
+        RuntimeException failure;
+        synchronized (durableMonitor) {
+            if (flushFailure == null) {
+                flushFailure = cause;
+            }
+            failure = flushFailure;
+            closed = true;
+            durableMonitor.notifyAll();
+        }
+        LockSupport.unpark(flusher);
+        return failure;
+    }
+
+    /**
+     * Runs on the flusher in two steps: copy forward the latest record of every unfinished
+     * purchase behind the durable segment, then, on a later pass once the copies are durable,
+     * delete the segments behind it. Appends for a purchase and its copy are ordered by the
+     * purchase's {@link Latest} monitor, so a copy never lands after a newer record.
+     */
+    private void checkpoint() {
+        if (checkpointRegion >= 0) {
+            if (durable >= checkpointCopies) {
+                dropSegmentsBefore(checkpointRegion);
+                checkpointRegion = -1;
+            }
+            return;
+        }
+        int cut = (int) (durable / recordsPerRegion);
+        long cutIndex = (long) cut * recordsPerRegion;
+        long behind = cutIndex - (long) oldestRegion * recordsPerRegion;
+        if (behind <= 0 || behind < 2 * unfinished.mappingCount()) {
+            return;
+        }
+        long copies = durable;
+        for (Latest latest : unfinished.values()) {
+            synchronized (latest) {
+                if (latest.finished || latest.index >= cutIndex) {
+                    continue;
+                }
+                JournalRecord record = read(latest.index);
+                if (record == null) {
+                    // Written and checksummed by this process, so only damage to the file can get here.
+                    throw new IllegalStateException("Purchase journal record " + latest.index + " is corrupt");
+                }
+                latest.index = write(record);
+                copies = Math.max(copies, latest.index + 1);
+            }
+        }
+        checkpointRegion = cut;
+        checkpointCopies = copies;
+    }
+
+    private void dropSegmentsBefore(int cut) {
+        for (int r = oldestRegion; r < cut; r++) {
+            int slot = r & (MAX_REGIONS - 1);
+            Segment segment = regions.get(slot);
+            if (segment != null && segment.index() == r && regions.compareAndSet(slot, segment, null)) {
+                try {
+                    Files.deleteIfExists(segment.path());
+                } catch (IOException e) {
+                    // Left behind: every purchase in it has a later record, so scanning it again changes nothing.
+                }
+            }
+        }
+        oldestRegion = cut;
+    }
+
+    private JournalRecord read(long index) {
+        return read(region((int) (index / recordsPerRegion)), (int) (index % recordsPerRegion) * RECORD_SIZE);
+    }
+
+    private boolean isWritten(long index) {
+        MappedByteBuffer region = region((int) (index / recordsPerRegion));
+        int offset = (int) (index % recordsPerRegion) * RECORD_SIZE;
+        return (int) INT.getAcquire(region, offset + CHECKSUM_OFFSET) != 0;
+    }
+
+    private void force(long from, long to) {
+        while (from < to) {
+            int regionIndex = (int) (from / recordsPerRegion);
+            long regionEnd = Math.min(to, (long) (regionIndex + 1) * recordsPerRegion);
+            int offset = (int) (from % recordsPerRegion) * RECORD_SIZE;
+            region(regionIndex).force(offset, (int) (regionEnd - from) * RECORD_SIZE);
+            from = regionEnd;
+        }
+    }
+
+    /**
+     * Never zero, so a zero checksum always means the slot has not been written.
+     */
+    static int checksum(JournalRecord record) {
+        long h = record.purchaseId() * 0x9E3779B97F4A7C15L;
+        h = (h ^ record.accountId()) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ ((long) record.adults() << 32 | record.children() & 0xFFFFFFFFL)) * 0x94D049BB133111EBL;
+        h = (h ^ ((long) record.infants() << 32 | record.totalAmount() & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        h = (h ^ ((long) record.totalSeats() << 32 | record.state().ordinal())) * 0xBF58476D1CE4E5B9L;
+        int checksum = (int) (h ^ (h >>> 32));
+        return checksum == 0 ? 1 : checksum;
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * Progress of a purchase as recorded in the {@link PurchaseJournal}.
+ */
+public enum PurchaseState {
+    /**
+     * About to take payment; whether the gateway took it is unknown until the next record.
+     */
+    STARTED,
+    PAID,
+    COMPLETED,
+    FAILED,
+    COMPENSATED;
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED || this == COMPENSATED;
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * What recovery does with a purchase that was paid for but never had its seats reserved.
+ */
+public enum RecoveryMode {
+    /**
+     * Reserve the seats and complete the purchase.
+     */
+    REPLAY,
+    /**
+     * Refund the payment.
+     */
+    COMPENSATE
+}
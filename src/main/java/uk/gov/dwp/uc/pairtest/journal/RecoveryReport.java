@@ -0,0 +1,17 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import java.util.List;
+
+/**
+ * Outcome of recovering the incomplete purchases found in the journal.
+ *
+ * @param inDoubt    purchases that crashed around the payment call, so whether they were charged is unknown
+ * @param unresolved paid purchases whose replay or compensation failed and should be retried
+ */
+public record RecoveryReport(int replayed, int compensated, List<JournalRecord> inDoubt, List<JournalRecord> unresolved) {
+
+    public RecoveryReport {
+        inDoubt = List.copyOf(inDoubt);
+        unresolved = List.copyOf(unresolved);
+    }
+}
@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+/**
+ * Latency distribution in nanoseconds. Percentiles are bucket upper bounds, accurate to
+ * within the histogram's relative precision.
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,94 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram in the style of HdrHistogram: values are grouped by power of two, and
+ * each power of two is split into {@code 2^SUB_BUCKET_BITS} linear sub-buckets, giving about
+ * 6% relative precision over the whole {@code long} range in under a thousand buckets.
+ * <p>
+ * Counts are kept in per-stripe slices of one {@link AtomicLongArray}, chosen by thread, so
+ * concurrent writers rarely touch the same cache line. Recording is a handful of arithmetic
+ * operations and one atomic increment.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final int stripeMask;
+    private final AtomicLongArray counts;
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    LatencyHistogram(int stripes) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripeMask = stripeCount - 1;
+        this.counts = new AtomicLongArray(stripeCount * BUCKETS);
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        counts.getAndIncrement(stripe * BUCKETS + bucketOf(v));
+        total.add(v);
+        max.accumulate(v);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long c = counts.get(i);
+            merged[i % BUCKETS] += c;
+            count += c;
+        }
+        if (count == 0) {
+            return new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+        long maxValue = max.get();
+        return new HistogramSnapshot(count, (double) total.sum() / count,
+                percentile(merged, count, 0.50, maxValue),
+                percentile(merged, count, 0.90, maxValue),
+                percentile(merged, count, 0.99, maxValue),
+                percentile(merged, count, 0.999, maxValue),
+                maxValue);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = ((long) (SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static long percentile(long[] merged, long count, double quantile, long maxValue) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < merged.length; bucket++) {
+            seen += merged[bucket];
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), maxValue);
+            }
+        }
+        return maxValue;
+    }
+}
@@ -0,0 +1,79 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link PurchaseMetrics}: {@link LongAdder} counters and one {@link LatencyHistogram}
+ * per stage. Nothing on the recording path takes a lock or allocates. Outcomes are always
+ * counted; latencies can be sampled for one in {@code latencySampleRate} purchases.
+ */
+public class LockFreePurchaseMetrics implements PurchaseMetrics {
+
+    private static final ValidationFailure[] FAILURES = ValidationFailure.values();
+    private static final PurchaseStage[] STAGES = PurchaseStage.values();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder[] rejections = new LongAdder[FAILURES.length];
+    private final LongAdder unclassifiedRejections = new LongAdder();
+    private final LatencyHistogram[] latencies = new LatencyHistogram[STAGES.length];
+    private final int latencySampleRate;
+
+    public LockFreePurchaseMetrics() {
+        this(1);
+    }
+
+    public LockFreePurchaseMetrics(int latencySampleRate) {
+        if (latencySampleRate <= 0) {
+            throw new IllegalArgumentException("latencySampleRate must be positive");
+        }
+        this.latencySampleRate = latencySampleRate;
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public void recordAccepted() {
+        accepted.increment();
+    }
+
+    @Override
+    public void recordRejected(ValidationFailure reason) {
+        if (reason == null) {
+            unclassifiedRejections.increment();
+        } else {
+            rejections[reason.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public void recordLatency(PurchaseStage stage, long nanos) {
+        latencies[stage.ordinal()].record(nanos);
+    }
+
+    @Override
+    public boolean sampleLatency() {
+        return latencySampleRate == 1 || ThreadLocalRandom.current().nextInt(latencySampleRate) == 0;
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<ValidationFailure, Long> rejectionCounts = new EnumMap<>(ValidationFailure.class);
+        for (ValidationFailure failure : FAILURES) {
+            rejectionCounts.put(failure, rejections[failure.ordinal()].sum());
+        }
+        Map<PurchaseStage, HistogramSnapshot> latencySnapshots = new EnumMap<>(PurchaseStage.class);
+        for (PurchaseStage stage : STAGES) {
+            latencySnapshots.put(stage, latencies[stage.ordinal()].snapshot());
+        }
+        return new MetricsSnapshot(accepted.sum(), rejectionCounts, unclassifiedRejections.sum(), latencySnapshots);
+    }
+}
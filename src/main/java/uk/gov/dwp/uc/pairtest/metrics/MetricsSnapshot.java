@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.Map;
+
+/**
+ * Point-in-time copy of the purchase metrics, safe to hand to an exporter.
+ */
+public record MetricsSnapshot(long accepted,
+                              Map<ValidationFailure, Long> rejections,
+                              long unclassifiedRejections,
+                              Map<PurchaseStage, HistogramSnapshot> latencies) {
+
+    public MetricsSnapshot {
+        rejections = Map.copyOf(rejections);
+        latencies = Map.copyOf(latencies);
+    }
+}
@@ -0,0 +1,37 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.Map;
+
+final class NoopPurchaseMetrics implements PurchaseMetrics {
+
+    static final NoopPurchaseMetrics INSTANCE = new NoopPurchaseMetrics();
+
+    private static final MetricsSnapshot EMPTY = new MetricsSnapshot(0, Map.of(), 0, Map.of());
+
+    private NoopPurchaseMetrics() {
+    }
+
+    @Override
+    public void recordAccepted() {
+    }
+
+    @Override
+    public void recordRejected(ValidationFailure reason) {
+    }
+
+    @Override
+    public void recordLatency(PurchaseStage stage, long nanos) {
+    }
+
+    @Override
+    public boolean sampleLatency() {
+        return false;
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        return EMPTY;
+    }
+}
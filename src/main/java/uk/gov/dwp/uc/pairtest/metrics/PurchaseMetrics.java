@@ -0,0 +1,37 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+/**
+ * Instrumentation hooks called on the purchase hot path. Implementations must be thread-safe
+ * and must not block.
+ */
+public interface PurchaseMetrics {
+
+    void recordAccepted();
+
+    /**
+     * @param reason why the order was rejected, or {@code null} if it could not be classified
+     */
+    void recordRejected(ValidationFailure reason);
+
+    void recordLatency(PurchaseStage stage, long nanos);
+
+    /**
+     * Whether the current purchase should be timed. Reading the clock is the dominant cost of
+     * latency recording, so implementations may time only a sample of purchases.
+     */
+    default boolean sampleLatency() {
+        return true;
+    }
+
+    MetricsSnapshot snapshot();
+
+    /**
+     * Metrics that record nothing; callers may skip timing entirely when given this instance.
+     */
+    static PurchaseMetrics noop() {
+        return NoopPurchaseMetrics.INSTANCE;
+    }
+
+}
@@ -0,0 +1,7 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+public enum PurchaseStage {
+    CALCULATION,
+    PAYMENT,
+    RESERVATION
+}
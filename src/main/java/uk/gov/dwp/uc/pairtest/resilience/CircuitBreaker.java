@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the
+ * circuit opens and calls are refused; once {@code openNanos} have passed a single probe call
+ * is let through, and its outcome either closes the circuit or opens it again.
+ * <p>
+ * State lives in one immutable snapshot swapped by compare-and-set, so no lock is taken and a
+ * success on a healthy circuit is a single volatile read.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private record Snapshot(State state, int failures, long openedAt) {
+    }
+
+    private static final Snapshot HEALTHY = new Snapshot(State.CLOSED, 0, 0);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(HEALTHY);
+
+    public CircuitBreaker(int failureThreshold, long openNanos) {
+        this(failureThreshold, openNanos, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return whether a call may go ahead; a caller granted a permit must report its outcome
+     */
+    public boolean tryAcquirePermission() {
+        for (; ; ) {
+            Snapshot current = snapshot.get();
+            switch (current.state()) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    return false;
+                default:
+                    if (nanoClock.getAsLong() - current.openedAt() < openNanos) {
+                        return false;
+                    }
+                    if (snapshot.compareAndSet(current, new Snapshot(State.HALF_OPEN, 0, current.openedAt()))) {
+                        return true;
+                    }
+            }
+        }
+    }
+
+    public void onSuccess() {
+        for (; ; ) {
+            Snapshot current = snapshot.get();
+            if (current == HEALTHY || current.state() == State.OPEN) {
+                return;
+            }
+            if (snapshot.compareAndSet(current, HEALTHY)) {
+                return;
+            }
+        }
+    }
+
+    public void onFailure() {
+        for (; ; ) {
+            Snapshot current = snapshot.get();
+            if (current.state() == State.OPEN) {
+                return;
+            }
+            int failures = current.failures() + 1;
+            Snapshot next = current.state() == State.HALF_OPEN || failures >= failureThreshold
+                    ? new Snapshot(State.OPEN, 0, nanoClock.getAsLong())
+                    : new Snapshot(State.CLOSED, failures, 0);
+            if (snapshot.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public State getState() {
+        return snapshot.get().state();
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs calls to one gateway behind a bulkhead, a circuit breaker and a deadline.
+ * <p>
+ * The call runs on the executor, virtual threads by default, while the caller waits at most the
+ * policy timeout. A call that times out keeps its bulkhead permit until it really returns, so a
+ * hung gateway fills its own bulkhead and further calls are refused straight away instead of
+ * piling up threads. Refusals, where the gateway was never called, throw
+ * {@link GatewayUnavailableException}. A call that was made but did not answer in time may still
+ * go through, so it throws {@link PurchaseOutcomeUnknownException} instead, whose outcome completes
+ * with {@code null} or the gateway's failure once the call returns. A failure thrown by the gateway
+ * itself is rethrown unchanged. An {@link InvalidPurchaseException}, such as sold out, is a
+ * business answer from a healthy gateway and does not count against the circuit.
+ */
+public class GatewayGuard {
+
+    private final String name;
+    private final Executor executor;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker breaker;
+    private final long timeoutNanos;
+
+    public GatewayGuard(String name, GatewayPolicy policy) {
+        this(name, policy, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public GatewayGuard(String name, GatewayPolicy policy, Executor executor) {
+        this(name, policy, executor, new CircuitBreaker(policy.failureThreshold(), policy.openDuration().toNanos()));
+    }
+
+    GatewayGuard(String name, GatewayPolicy policy, Executor executor, CircuitBreaker breaker) {
+        this.name = name;
+        this.executor = executor;
+        this.bulkhead = new Semaphore(policy.maxConcurrent());
+        this.breaker = breaker;
+        this.timeoutNanos = policy.timeout().toNanos();
+    }
+
+    public void run(Runnable call) {
+        if (!bulkhead.tryAcquire()) {
+            throw new GatewayUnavailableException(name + " has too many calls in flight");
+        }
+        if (!breaker.tryAcquirePermission()) {
+            bulkhead.release();
+            throw new GatewayUnavailableException(name + " circuit is open");
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                Throwable failure = null;
+                try {
+                    call.run();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                bulkhead.release();
+                if (failure == null) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            breaker.onFailure();
+            throw new GatewayUnavailableException(name + " executor rejected the call");
+        }
+
+        try {
+            result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            breaker.onSuccess();
+        } catch (TimeoutException e) {
+            breaker.onFailure();
+            throw new PurchaseOutcomeUnknownException(name + " did not respond within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms",
+                    e, result.thenApply(done -> null));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InvalidPurchaseException) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.onFailure();
+            throw new PurchaseOutcomeUnknownException(name + " call was interrupted", e, result.thenApply(done -> null));
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    public int getAvailableConcurrency() {
+        return bulkhead.availablePermits();
+    }
+}
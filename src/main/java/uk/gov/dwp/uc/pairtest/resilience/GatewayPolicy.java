@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+
+/**
+ * Limits applied to one gateway.
+ *
+ * @param timeout          how long a caller waits for one call
+ * @param maxConcurrent    calls allowed in flight at once, including timed-out calls still running
+ * @param failureThreshold consecutive failures that open the circuit
+ * @param openDuration     how long the circuit stays open before a probe call is let through
+ */
+public record GatewayPolicy(Duration timeout, int maxConcurrent, int failureThreshold, Duration openDuration) {
+
+    public static final GatewayPolicy DEFAULT = new GatewayPolicy(Duration.ofSeconds(2), 64, 5, Duration.ofSeconds(10));
+
+    public GatewayPolicy {
+        if (timeout.isNegative() || timeout.isZero() || openDuration.isNegative()) {
+            throw new IllegalArgumentException("timeout must be positive and openDuration not negative");
+        }
+        if (maxConcurrent <= 0 || failureThreshold <= 0) {
+            throw new IllegalArgumentException("maxConcurrent and failureThreshold must be positive");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+
+/**
+ * {@link ResilientTicketPaymentService} for a gateway that can refund; refunds go through the same guard.
+ */
+public class ResilientRefundableTicketPaymentService extends ResilientTicketPaymentService implements RefundableTicketPaymentService {
+
+    private final RefundableTicketPaymentService delegate;
+
+    public ResilientRefundableTicketPaymentService(RefundableTicketPaymentService delegate, GatewayPolicy policy) {
+        this(delegate, new GatewayGuard("Payment gateway", policy));
+    }
+
+    public ResilientRefundableTicketPaymentService(RefundableTicketPaymentService delegate, GatewayGuard guard) {
+        super(delegate, guard);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        getGuard().run(() -> delegate.refundPayment(accountId, totalAmountToRefund));
+    }
+}
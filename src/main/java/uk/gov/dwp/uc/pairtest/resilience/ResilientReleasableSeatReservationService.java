@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.gateway.ReleasableSeatReservationService;
+
+/**
+ * {@link ResilientSeatReservationService} for a service that can release seats; releases go through the same guard.
+ */
+public class ResilientReleasableSeatReservationService extends ResilientSeatReservationService implements ReleasableSeatReservationService {
+
+    private final ReleasableSeatReservationService delegate;
+
+    public ResilientReleasableSeatReservationService(ReleasableSeatReservationService delegate, GatewayPolicy policy) {
+        this(delegate, new GatewayGuard("Seat reservation gateway", policy));
+    }
+
+    public ResilientReleasableSeatReservationService(ReleasableSeatReservationService delegate, GatewayGuard guard) {
+        super(delegate, guard);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        getGuard().run(() -> delegate.releaseSeat(accountId, totalSeatsToRelease));
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * {@link SeatReservationService} decorator that guards every call with a {@link GatewayGuard}.
+ * Use {@link ResilientReleasableSeatReservationService} for a service that can also release seats.
+ */
+public class ResilientSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService delegate;
+    private final GatewayGuard guard;
+
+    public ResilientSeatReservationService(SeatReservationService delegate, GatewayPolicy policy) {
+        this(delegate, new GatewayGuard("Seat reservation gateway", policy));
+    }
+
+    public ResilientSeatReservationService(SeatReservationService delegate, GatewayGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        guard.run(() -> delegate.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    public GatewayGuard getGuard() {
+        return guard;
+    }
+}
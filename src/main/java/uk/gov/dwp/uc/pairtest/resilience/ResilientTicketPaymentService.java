@@ -0,0 +1,31 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * {@link TicketPaymentService} decorator that guards every call with a {@link GatewayGuard}.
+ * Use {@link ResilientRefundableTicketPaymentService} for a gateway that can also refund.
+ */
+public class ResilientTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService delegate;
+    private final GatewayGuard guard;
+
+    public ResilientTicketPaymentService(TicketPaymentService delegate, GatewayPolicy policy) {
+        this(delegate, new GatewayGuard("Payment gateway", policy));
+    }
+
+    public ResilientTicketPaymentService(TicketPaymentService delegate, GatewayGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        guard.run(() -> delegate.makePayment(accountId, totalAmountToPay));
+    }
+
+    public GatewayGuard getGuard() {
+        return guard;
+    }
+}
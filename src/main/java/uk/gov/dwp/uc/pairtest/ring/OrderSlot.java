@@ -0,0 +1,87 @@
+package uk.gov.dwp.uc.pairtest.ring;
+
+import uk.gov.dwp.uc.pairtest.PurchaseOutcome;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+
+/**
+ * A reusable entry in the ring. It is filled in by the publisher and the pricing stage, and
+ * handed to the {@link PurchaseListener} when the purchase has finished. After that call
+ * returns, the slot is recycled for a later order.
+ */
+public final class OrderSlot {
+
+    long tag;
+    long accountId;
+    int adultTickets;
+    int childTickets;
+    int infantTickets;
+    int totalAmount;
+    int totalSeats;
+    PriceList prices;
+    PurchaseOutcome.Status status;
+    Throwable failure;
+
+    OrderSlot() {
+    }
+
+    void set(long tag, long accountId, int adultTickets, int childTickets, int infantTickets) {
+        this.tag = tag;
+        this.accountId = accountId;
+        this.adultTickets = adultTickets;
+        this.childTickets = childTickets;
+        this.infantTickets = infantTickets;
+        this.totalAmount = 0;
+        this.totalSeats = 0;
+        this.prices = null;
+        this.status = null;
+        this.failure = null;
+    }
+
+    void fail(PurchaseOutcome.Status status, Throwable failure) {
+        this.status = status;
+        this.failure = failure;
+    }
+
+    /**
+     * The value the publisher passed to correlate this order with its outcome.
+     */
+    public long tag() {
+        return tag;
+    }
+
+    public long accountId() {
+        return accountId;
+    }
+
+    public int adultTickets() {
+        return adultTickets;
+    }
+
+    public int childTickets() {
+        return childTickets;
+    }
+
+    public int infantTickets() {
+        return infantTickets;
+    }
+
+    public int totalAmount() {
+        return totalAmount;
+    }
+
+    public int totalSeats() {
+        return totalSeats;
+    }
+
+    public PurchaseOutcome.Status status() {
+        return status;
+    }
+
+    /**
+     * The rejection or gateway error, or {@code null} if the purchase completed. Errors are
+     * reported here too, since the stage that caught them keeps running for later orders.
+     */
+    public Throwable failure() {
+        return failure;
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.ring;
+
+@FunctionalInterface
+public interface PurchaseListener {
+
+    /**
+     * Called on the reservation stage thread once per order, in publication order. The slot is
+     * only valid for the duration of the call; copy anything needed later.
+     */
+    void onPurchase(OrderSlot slot);
+
+}
@@ -0,0 +1,303 @@
+package uk.gov.dwp.uc.pairtest.ring;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.CompletedPurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseOutcome;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Purchase pipeline over a preallocated ring of {@link OrderSlot}s, in the style of the LMAX
+ * disruptor. Publishers claim a slot with a CAS, fill it in and mark it published. Three stages
+ * then follow each other around the ring, each on its own thread:
+ * <ol>
+ *     <li>pricing validates and prices every order with the {@link TicketOrderProcessor};</li>
+ *     <li>payment calls the payment gateway for the orders that priced;</li>
+ *     <li>reservation reserves seats for the paid orders and hands every slot to the
+ *     {@link PurchaseListener}.</li>
+ * </ol>
+ * Each stage owns one {@link Sequence} and only waits on the one before it, so no locks or queues
+ * are involved. A stage processes every slot that became available since it last looked as one
+ * batch before publishing its sequence. Slots are reused once the reservation stage has passed
+ * them. A running pipeline allocates nothing per order except for purchases that fail or whose
+ * outcome is unknown.
+ * <p>
+ * A failed payment leaves the order {@link PurchaseOutcome.Status#FAILED} without reserving seats.
+ * A failed reservation is reported as {@link PurchaseOutcome.Status#PAID_NOT_RESERVED} and the
+ * payment is not refunded, as with {@link uk.gov.dwp.uc.pairtest.TicketServiceImpl}'s plain gateways.
+ * A gateway call whose outcome is unknown leaves the order
+ * {@link PurchaseOutcome.Status#OUTCOME_UNKNOWN}, with its failure's outcome carrying the purchase on
+ * from the late answer: a late payment is followed by the reservation. Whatever a stage catches,
+ * errors included, fails only that slot's order, so a stage thread never dies and leaves
+ * publishers waiting on a ring that no longer moves.
+ */
+public class RingPurchaseProcessor implements AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 14;
+
+    private static final long CLOSED = 1L << 62;
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final TicketOrderProcessor processor;
+    private final PurchaseListener listener;
+    private final CompletedPurchaseListener completed;
+    private final WaitStrategy waitStrategy;
+    private final OrderSlot[] slots;
+    /** The lap of the ring each slot was last published on, so a stale slot is never mistaken for a new one. */
+    private final int[] published;
+    private final int mask;
+    private final int lapShift;
+    /** The next sequence to claim, with {@link #CLOSED} set once no more may be claimed. */
+    private final AtomicLong claimed = new AtomicLong();
+    private final Sequence priced = new Sequence(-1);
+    private final Sequence paid = new Sequence(-1);
+    private final Sequence reserved = new Sequence(-1);
+    private final Thread[] stages;
+    /**
+     * Last value of {@link #reserved} seen by any publisher. Publishers race to update it, so it
+     * may be stale or even move back, which only costs a re-read since it never runs ahead of
+     * {@link #reserved}. It is a padded {@link Sequence} so that the 64-bit value is never torn
+     * and its cache line is not shared with the fields the stages write.
+     */
+    private final Sequence reservedCache = new Sequence(-1);
+
+    public RingPurchaseProcessor(TicketPaymentService paymentService, SeatReservationService seatService,
+                                 TicketOrderProcessor processor, PurchaseListener listener) {
+        this(paymentService, seatService, processor, listener, DEFAULT_BUFFER_SIZE, WaitStrategy.PARK);
+    }
+
+    public RingPurchaseProcessor(TicketPaymentService paymentService, SeatReservationService seatService,
+                                 TicketOrderProcessor processor, PurchaseListener listener,
+                                 int bufferSize, WaitStrategy waitStrategy) {
+        this(paymentService, seatService, processor, listener, bufferSize, waitStrategy, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * @param completed told about every completed purchase on the reservation stage thread, just
+     *                  before {@code listener} sees its slot, or for a purchase whose outcome was
+     *                  unknown, on the thread that completes it late
+     */
+    public RingPurchaseProcessor(TicketPaymentService paymentService, SeatReservationService seatService,
+                                 TicketOrderProcessor processor, PurchaseListener listener,
+                                 int bufferSize, WaitStrategy waitStrategy, CompletedPurchaseListener completed) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two");
+        }
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.processor = processor;
+        this.listener = listener;
+        this.completed = CompletedPurchaseListener.guarded(completed);
+        this.waitStrategy = waitStrategy;
+        this.slots = new OrderSlot[bufferSize];
+        this.published = new int[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new OrderSlot();
+            published[i] = -1;
+        }
+        this.mask = bufferSize - 1;
+        this.lapShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.stages = new Thread[]{
+                stage("ring-pricing", null, priced, this::price),
+                stage("ring-payment", priced, paid, this::pay),
+                stage("ring-reservation", paid, reserved, this::reserve)
+        };
+    }
+
+    /**
+     * Publishes an order if a slot is free.
+     *
+     * @return {@code false} if the ring is full
+     * @throws IllegalStateException if the processor has been closed
+     */
+    public boolean tryPublish(long tag, long accountId, int adultTickets, int childTickets, int infantTickets) {
+        long sequence = claim(false);
+        if (sequence < 0) {
+            return false;
+        }
+        write(sequence, tag, accountId, adultTickets, childTickets, infantTickets);
+        return true;
+    }
+
+    /**
+     * Publishes an order, waiting with the configured {@link WaitStrategy} while the ring is full.
+     * Must not be called from the {@link PurchaseListener}, which would wait on itself.
+     *
+     * @throws IllegalStateException if the processor has been closed
+     */
+    public void publish(long tag, long accountId, int adultTickets, int childTickets, int infantTickets) {
+        write(claim(true), tag, accountId, adultTickets, childTickets, infantTickets);
+    }
+
+    public int getBufferSize() {
+        return slots.length;
+    }
+
+    /**
+     * Orders published or being published that the listener has not seen yet.
+     */
+    public long getBacklog() {
+        return (claimed.get() & ~CLOSED) - 1 - reserved.get();
+    }
+
+    /**
+     * Stops taking orders and waits for the ones already published to finish.
+     */
+    @Override
+    public void close() {
+        claimed.getAndUpdate(next -> next | CLOSED);
+        try {
+            for (Thread stage : stages) {
+                stage.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long claim(boolean wait) {
+        int attempts = 0;
+        while (true) {
+            long next = claimed.get();
+            if ((next & CLOSED) != 0) {
+                throw new IllegalStateException("Ring purchase processor is closed");
+            }
+            long wrapPoint = next - slots.length;
+            if (wrapPoint > reservedCache.get()) {
+                long gate = reserved.get();
+                reservedCache.set(gate);
+                if (wrapPoint > gate) {
+                    if (!wait) {
+                        return -1;
+                    }
+                    attempts = waitStrategy.idle(attempts);
+                    continue;
+                }
+            }
+            if (claimed.compareAndSet(next, next + 1)) {
+                return next;
+            }
+        }
+    }
+
+    private void write(long sequence, long tag, long accountId, int adultTickets, int childTickets, int infantTickets) {
+        int index = (int) sequence & mask;
+        slots[index].set(tag, accountId, adultTickets, childTickets, infantTickets);
+        PUBLISHED.setRelease(published, index, (int) (sequence >>> lapShift));
+    }
+
+    private long highestPublished(long from) {
+        long limit = claimed.get() & ~CLOSED;
+        long sequence = from;
+        while (sequence < limit && (int) PUBLISHED.getAcquire(published, (int) sequence & mask) == (int) (sequence >>> lapShift)) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    private Thread stage(String name, Sequence dependency, Sequence own, Consumer<OrderSlot> handler) {
+        return Thread.ofPlatform().daemon().name(name).start(() -> {
+            long next = own.get() + 1;
+            int attempts = 0;
+            while (true) {
+                long available = dependency == null ? highestPublished(next) : dependency.get();
+                if (available < next) {
+                    long claimedState = claimed.get();
+                    if ((claimedState & CLOSED) != 0 && next >= (claimedState & ~CLOSED)) {
+                        return;
+                    }
+                    attempts = waitStrategy.idle(attempts);
+                    continue;
+                }
+                for (long sequence = next; sequence <= available; sequence++) {
+                    handler.accept(slots[(int) sequence & mask]);
+                }
+                own.set(available);
+                next = available + 1;
+                attempts = 0;
+            }
+        });
+    }
+
+    private void price(OrderSlot slot) {
+        try {
+            TicketCalculationResult result = processor.process(slot.accountId, slot.adultTickets, slot.childTickets, slot.infantTickets);
+            slot.totalAmount = result.totalAmount();
+            slot.totalSeats = result.totalSeats();
+            slot.prices = result.prices();
+        } catch (InvalidPurchaseException e) {
+            slot.fail(PurchaseOutcome.Status.REJECTED, e);
+        } catch (Throwable e) {
+            slot.fail(PurchaseOutcome.Status.FAILED, e);
+        }
+    }
+
+    private void pay(OrderSlot slot) {
+        if (slot.status != null) {
+            return;
+        }
+        try {
+            paymentService.makePayment(slot.accountId, slot.totalAmount);
+        } catch (PurchaseOutcomeUnknownException e) {
+            slot.fail(PurchaseOutcome.Status.OUTCOME_UNKNOWN, late(slot, e, true));
+        } catch (Throwable e) {
+            slot.fail(PurchaseOutcome.Status.FAILED, e);
+        }
+    }
+
+    private void reserve(OrderSlot slot) {
+        if (slot.status == null) {
+            try {
+                seatService.reserveSeat(slot.accountId, slot.totalSeats);
+                slot.status = PurchaseOutcome.Status.COMPLETED;
+            } catch (PurchaseOutcomeUnknownException e) {
+                slot.fail(PurchaseOutcome.Status.OUTCOME_UNKNOWN, late(slot, e, false));
+            } catch (Throwable e) {
+                slot.fail(PurchaseOutcome.Status.PAID_NOT_RESERVED, e);
+            }
+        }
+        try {
+            if (slot.status == PurchaseOutcome.Status.COMPLETED) {
+                completed.onCompleted(slot.accountId, slot.adultTickets, slot.childTickets, slot.infantTickets,
+                        slot.totalAmount, slot.totalSeats, slot.prices);
+            }
+            listener.onPurchase(slot);
+        } catch (Throwable e) {
+            // A failing listener must not stop the pipeline for everyone else.
+        }
+    }
+
+    /**
+     * Carries the order on from a gateway's late answer, reserving its seats first if it was the
+     * payment that answered late. The slot is recycled meanwhile, so its fields are copied out.
+     */
+    private PurchaseOutcomeUnknownException late(OrderSlot slot, PurchaseOutcomeUnknownException unknown, boolean reserve) {
+        long accountId = slot.accountId;
+        int adultTickets = slot.adultTickets;
+        int childTickets = slot.childTickets;
+        int infantTickets = slot.infantTickets;
+        int totalAmount = slot.totalAmount;
+        int totalSeats = slot.totalSeats;
+        PriceList prices = slot.prices;
+        CompletableFuture<?> answered = reserve
+                ? unknown.outcome().thenRun(() -> seatService.reserveSeat(accountId, totalSeats))
+                : unknown.outcome();
+        return new PurchaseOutcomeUnknownException(unknown.getMessage(), unknown, answered.thenApply(done -> {
+            completed.onCompleted(accountId, adultTickets, childTickets, infantTickets, totalAmount, totalSeats, prices);
+            return new PurchaseReceipt(accountId, totalAmount, totalSeats);
+        }));
+    }
+}
@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.ring;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class SequenceLeftPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SequenceValue extends SequenceLeftPadding {
+    volatile long value;
+}
+
+/**
+ * A position in the ring, padded on both sides so that sequences owned by different threads
+ * never share a cache line. Each stage sequence has a single writer, which publishes with a
+ * release store; readers use an acquire load. A sequence used as a cache of another may be
+ * written by several threads, each storing a value it has read.
+ */
+final class Sequence extends SequenceValue {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    Sequence(long initial) {
+        VALUE.setRelease(this, initial);
+    }
+
+    long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    void set(long sequence) {
+        VALUE.setRelease(this, sequence);
+    }
+}
@@ -0,0 +1,66 @@
+package uk.gov.dwp.uc.pairtest.ring;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a stage waits for the stage before it, and how a publisher waits for free slots.
+ * Trades latency against the CPU burnt while idle.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spins on the sequence. Lowest latency, but keeps a core busy for every waiting thread.
+     */
+    BUSY_SPIN {
+        @Override
+        int idle(int attempts) {
+            Thread.onSpinWait();
+            return attempts;
+        }
+    },
+
+    /**
+     * Spins briefly, then yields the core to other runnable threads between checks.
+     */
+    YIELD {
+        @Override
+        int idle(int attempts) {
+            if (attempts < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return attempts + 1;
+        }
+    },
+
+    /**
+     * Spins and yields briefly, then parks between checks. Nearly idle when there is no work,
+     * at the cost of tens of microseconds to wake up.
+     */
+    PARK {
+        @Override
+        int idle(int attempts) {
+            if (attempts < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempts < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return attempts + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Waits once after a failed check.
+     *
+     * @param attempts failed checks so far, {@code 0} after the last progress
+     * @return the value to pass on the next call
+     */
+    abstract int idle(int attempts);
+}
@@ -0,0 +1,262 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import uk.gov.dwp.uc.pairtest.CompletedPurchaseListener;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live totals of completed purchases: overall, per ticket type, per account and per time bucket
+ * over a rolling window. Register it as the {@link CompletedPurchaseListener} of the ticket service
+ * so revenue and seats are taken from the result each purchase was charged from, and per-type
+ * revenue from the price snapshot that result carries.
+ * <p>
+ * Recording never takes a lock. The overall and bucket totals, which every purchase updates, are
+ * {@link LongAdder}s, so concurrent purchases add to separate cells instead of contending on one
+ * counter. Per-account totals are plain fields updated atomically, since a single account rarely
+ * buys on several threads at once. Once {@code maxTrackedAccounts} accounts are known, further
+ * accounts are added to one shared "untracked" total rather than growing the map without bound;
+ * that total is updated by every such purchase, so it is kept in {@link LongAdder}s too.
+ * <p>
+ * The window is a ring of buckets. A purchase whose bucket slot still holds an older bucket swaps
+ * in a fresh one with a CAS, which also drops the expired totals. A purchase recorded after its
+ * slot has moved on to a newer bucket is added to a separate late total instead of being
+ * attributed to the wrong time. Reads sum the counters while purchases continue and never block
+ * them.
+ */
+public class SalesAggregator implements CompletedPurchaseListener {
+
+    public static final int DEFAULT_MAX_TRACKED_ACCOUNTS = 1_000_000;
+
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+
+    private final LongAdder purchases = new LongAdder();
+    private final LongAdder seats = new LongAdder();
+    private final LongAdder revenue = new LongAdder();
+    private final LongAdder[] tickets = new LongAdder[TYPES.length];
+    private final LongAdder[] typeRevenue = new LongAdder[TYPES.length];
+    private final ConcurrentHashMap<Long, AccountCounters> accounts = new ConcurrentHashMap<>();
+    private final AdderCounters untracked = new AdderCounters();
+    private final int maxTrackedAccounts;
+    private final AtomicReferenceArray<TimeBucket> buckets;
+    private final TimeBucket late = new TimeBucket(Long.MIN_VALUE);
+    private final long bucketMillis;
+    private final LongSupplier millisClock;
+
+    /**
+     * @param bucketDuration length of one time bucket
+     * @param bucketCount    buckets kept in the rolling window
+     */
+    public SalesAggregator(Duration bucketDuration, int bucketCount) {
+        this(bucketDuration, bucketCount, DEFAULT_MAX_TRACKED_ACCOUNTS, System::currentTimeMillis);
+    }
+
+    public SalesAggregator(Duration bucketDuration, int bucketCount, int maxTrackedAccounts) {
+        this(bucketDuration, bucketCount, maxTrackedAccounts, System::currentTimeMillis);
+    }
+
+    SalesAggregator(Duration bucketDuration, int bucketCount, int maxTrackedAccounts, LongSupplier millisClock) {
+        if (bucketDuration.toMillis() <= 0 || bucketCount <= 0 || maxTrackedAccounts < 0) {
+            throw new IllegalArgumentException("bucketDuration and bucketCount must be positive and maxTrackedAccounts not negative");
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            tickets[i] = new LongAdder();
+            typeRevenue[i] = new LongAdder();
+        }
+        this.maxTrackedAccounts = maxTrackedAccounts;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        this.bucketMillis = bucketDuration.toMillis();
+        this.millisClock = millisClock;
+    }
+
+    @Override
+    public void onCompleted(long accountId, int adultTickets, int childTickets, int infantTickets, TicketCalculationResult result) {
+        record(accountId, adultTickets, childTickets, infantTickets, result);
+    }
+
+    @Override
+    public void onCompleted(long accountId, int adultTickets, int childTickets, int infantTickets,
+                            int totalAmount, int totalSeats, PriceList prices) {
+        record(accountId, adultTickets, childTickets, infantTickets, totalAmount, totalSeats, prices);
+    }
+
+    /**
+     * Adds one completed purchase, charged {@code result.totalAmount()} for {@code result.totalSeats()} seats.
+     * Each type's share of the revenue is taken from the prices the purchase was charged at.
+     */
+    public void record(long accountId, int adultTickets, int childTickets, int infantTickets, TicketCalculationResult result) {
+        record(accountId, adultTickets, childTickets, infantTickets, result.totalAmount(), result.totalSeats(), result.prices());
+    }
+
+    private void record(long accountId, int adultTickets, int childTickets, int infantTickets,
+                        int totalRevenue, int totalSeats, PriceList prices) {
+        int totalTickets = adultTickets + childTickets + infantTickets;
+
+        purchases.increment();
+        seats.add(totalSeats);
+        revenue.add(totalRevenue);
+        add(TicketTypeRequest.Type.ADULT, adultTickets, prices);
+        add(TicketTypeRequest.Type.CHILD, childTickets, prices);
+        add(TicketTypeRequest.Type.INFANT, infantTickets, prices);
+        AccountCounters counters = account(accountId);
+        if (counters != null) {
+            counters.add(totalTickets, totalSeats, totalRevenue);
+        } else {
+            untracked.add(totalTickets, totalSeats, totalRevenue);
+        }
+        bucket(millisClock.getAsLong() / bucketMillis).add(totalTickets, totalSeats, totalRevenue);
+    }
+
+    public SalesTotals accountTotals(long accountId) {
+        AccountCounters counters = accounts.get(accountId);
+        return counters == null ? SalesTotals.NONE : counters.totals();
+    }
+
+    public SalesSnapshot snapshot() {
+        Map<TicketTypeRequest.Type, TicketTypeSales> byType = new EnumMap<>(TicketTypeRequest.Type.class);
+        long totalTickets = 0;
+        for (TicketTypeRequest.Type type : TYPES) {
+            long typeTickets = tickets[type.ordinal()].sum();
+            byType.put(type, new TicketTypeSales(typeTickets, seatsOf(type, typeTickets), typeRevenue[type.ordinal()].sum()));
+            totalTickets += typeTickets;
+        }
+        SalesTotals total = new SalesTotals(purchases.sum(), totalTickets, seats.sum(), revenue.sum());
+        return new SalesSnapshot(total, byType, untracked.totals(), window(), late.totals());
+    }
+
+    private void add(TicketTypeRequest.Type type, int typeTickets, PriceList prices) {
+        if (typeTickets != 0) {
+            tickets[type.ordinal()].add(typeTickets);
+            typeRevenue[type.ordinal()].add((long) typeTickets * prices.priceOf(type));
+        }
+    }
+
+    /**
+     * Infants sit on an adult's lap, as {@link uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor}
+     * prices them; every other ticket takes a seat.
+     */
+    private static long seatsOf(TicketTypeRequest.Type type, long typeTickets) {
+        return type == TicketTypeRequest.Type.INFANT ? 0 : typeTickets;
+    }
+
+    /**
+     * The account's own counters, or null once the account is one too many to track.
+     */
+    private AccountCounters account(long accountId) {
+        AccountCounters counters = accounts.get(accountId);
+        if (counters != null) {
+            return counters;
+        }
+        if (accounts.size() >= maxTrackedAccounts) {
+            return null;
+        }
+        return accounts.computeIfAbsent(accountId, id -> new AccountCounters());
+    }
+
+    private TimeBucket bucket(long epoch) {
+        int index = Math.floorMod(epoch, buckets.length());
+        while (true) {
+            TimeBucket bucket = buckets.get(index);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            if (bucket != null && bucket.epoch > epoch) {
+                return late;
+            }
+            TimeBucket fresh = new TimeBucket(epoch);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private List<TimeBucketSales> window() {
+        long oldest = millisClock.getAsLong() / bucketMillis - buckets.length() + 1;
+        List<TimeBucketSales> window = new ArrayList<>(buckets.length());
+        for (int i = 0; i < buckets.length(); i++) {
+            TimeBucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch >= oldest) {
+                window.add(new TimeBucketSales(bucket.epoch * bucketMillis, bucket.totals()));
+            }
+        }
+        window.sort(Comparator.comparingLong(TimeBucketSales::startMillis));
+        return window;
+    }
+
+    private static class AdderCounters {
+
+        private final LongAdder purchases = new LongAdder();
+        private final LongAdder tickets = new LongAdder();
+        private final LongAdder seats = new LongAdder();
+        private final LongAdder revenue = new LongAdder();
+
+        void add(int purchaseTickets, int purchaseSeats, int purchaseRevenue) {
+            purchases.increment();
+            tickets.add(purchaseTickets);
+            seats.add(purchaseSeats);
+            revenue.add(purchaseRevenue);
+        }
+
+        SalesTotals totals() {
+            return new SalesTotals(purchases.sum(), tickets.sum(), seats.sum(), revenue.sum());
+        }
+    }
+
+    private static final class TimeBucket extends AdderCounters {
+
+        private final long epoch;
+
+        TimeBucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class AccountCounters {
+
+        private static final VarHandle PURCHASES;
+        private static final VarHandle TICKETS;
+        private static final VarHandle SEATS;
+        private static final VarHandle REVENUE;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                PURCHASES = lookup.findVarHandle(AccountCounters.class, "purchases", long.class);
+                TICKETS = lookup.findVarHandle(AccountCounters.class, "tickets", long.class);
+                SEATS = lookup.findVarHandle(AccountCounters.class, "seats", long.class);
+                REVENUE = lookup.findVarHandle(AccountCounters.class, "revenue", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long purchases;
+        private volatile long tickets;
+        private volatile long seats;
+        private volatile long revenue;
+
+        void add(int purchaseTickets, int purchaseSeats, int purchaseRevenue) {
+            PURCHASES.getAndAdd(this, 1L);
+            TICKETS.getAndAdd(this, (long) purchaseTickets);
+            SEATS.getAndAdd(this, (long) purchaseSeats);
+            REVENUE.getAndAdd(this, (long) purchaseRevenue);
+        }
+
+        SalesTotals totals() {
+            return new SalesTotals(purchases, tickets, seats, revenue);
+        }
+    }
+}
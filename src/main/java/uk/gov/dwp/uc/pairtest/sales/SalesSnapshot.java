@@ -0,0 +1,35 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy of the sales totals, safe to hand to a report or exporter. Counters are read one at a time
+ * while purchases carry on, so totals taken together may be a few purchases apart.
+ *
+ * @param untrackedAccounts totals of accounts beyond the aggregator's per-account limit
+ * @param buckets           the rolling window, oldest bucket first
+ * @param late              purchases recorded after their bucket had already been replaced by a
+ *                          newer one; they are in the overall totals but in no bucket
+ */
+public record SalesSnapshot(SalesTotals total,
+                            Map<TicketTypeRequest.Type, TicketTypeSales> byType,
+                            SalesTotals untrackedAccounts,
+                            List<TimeBucketSales> buckets,
+                            SalesTotals late) {
+
+    public SalesSnapshot {
+        byType = Map.copyOf(byType);
+        buckets = List.copyOf(buckets);
+    }
+
+    public SalesTotals windowTotals() {
+        SalesTotals totals = SalesTotals.NONE;
+        for (TimeBucketSales bucket : buckets) {
+            totals = totals.plus(bucket.totals());
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+/**
+ * Running totals of completed purchases. Revenue is in whole pounds, like every price.
+ */
+public record SalesTotals(long purchases, long tickets, long seats, long revenue) {
+
+    public static final SalesTotals NONE = new SalesTotals(0, 0, 0, 0);
+
+    public SalesTotals plus(SalesTotals other) {
+        return new SalesTotals(purchases + other.purchases, tickets + other.tickets,
+                seats + other.seats, revenue + other.revenue);
+    }
+}
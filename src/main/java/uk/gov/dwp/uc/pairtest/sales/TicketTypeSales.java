@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+/**
+ * Running totals of one ticket type across completed purchases. Revenue is what the type was
+ * charged at in each purchase, so it stays correct across price changes.
+ */
+public record TicketTypeSales(long tickets, long seats, long revenue) {
+}
@@ -0,0 +1,9 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+/**
+ * Totals of the purchases completed in one time bucket.
+ *
+ * @param startMillis start of the bucket, in milliseconds since the epoch
+ */
+public record TimeBucketSales(long startMillis, SalesTotals totals) {
+}
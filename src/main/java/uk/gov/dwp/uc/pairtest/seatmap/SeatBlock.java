@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+/**
+ * Adjacent seats {@code firstSeat .. firstSeat + seats - 1} in one row, numbered from zero.
+ */
+public record SeatBlock(int row, int firstSeat, int seats) {
+
+    long mask() {
+        return (seats == Long.SIZE ? -1L : (1L << seats) - 1) << firstSeat;
+    }
+}
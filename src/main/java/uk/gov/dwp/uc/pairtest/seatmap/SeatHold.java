@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import uk.gov.dwp.uc.pairtest.timer.HashedTimingWheel;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A block of seats held for an account until it is confirmed, released or its hold expires.
+ * The hold is its own timer entry, so tracking its expiry costs no further allocation.
+ */
+public final class SeatHold extends HashedTimingWheel.Timeout {
+
+    public enum State { HELD, CONFIRMED, RELEASED, EXPIRED }
+
+    private static final State[] STATES = State.values();
+    private static final AtomicIntegerFieldUpdater<SeatHold> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(SeatHold.class, "state");
+
+    private final long accountId;
+    private final SeatBlock block;
+    private final SeatHoldService owner;
+    private volatile int state;
+
+    SeatHold(long accountId, SeatBlock block, SeatHoldService owner) {
+        this.accountId = accountId;
+        this.block = block;
+        this.owner = owner;
+    }
+
+    public long accountId() {
+        return accountId;
+    }
+
+    public SeatBlock block() {
+        return block;
+    }
+
+    public State state() {
+        return STATES[state];
+    }
+
+    boolean transition(State to) {
+        return transition(State.HELD, to);
+    }
+
+    boolean transition(State from, State to) {
+        return STATE.compareAndSet(this, from.ordinal(), to.ordinal());
+    }
+
+    @Override
+    protected void expire() {
+        owner.expire(this);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold[accountId=" + accountId + ", block=" + block + ", state=" + state() + "]";
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+import uk.gov.dwp.uc.pairtest.timer.HashedTimingWheel;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-phase seat reservation around a {@link SeatReservationService}: seats are held on a
+ * local {@link SeatMap} while payment is taken, and only reserved with the booking service
+ * once the hold is confirmed, or released if payment fails. A hold that is neither confirmed
+ * nor released within the TTL is returned to the map by the timing wheel, so abandoned
+ * checkouts cannot keep seats off sale.
+ */
+public class SeatHoldService {
+
+    private final SeatReservationService reservations;
+    private final SeatMap seatMap;
+    private final HashedTimingWheel wheel;
+    private final long ttlNanos;
+    private final LongAdder active = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public SeatHoldService(SeatReservationService reservations, SeatMap seatMap, HashedTimingWheel wheel,
+                           Duration holdTtl) {
+        if (holdTtl.isNegative() || holdTtl.isZero()) {
+            throw new IllegalArgumentException("holdTtl must be positive");
+        }
+        this.reservations = reservations;
+        this.seatMap = seatMap;
+        this.wheel = wheel;
+        this.ttlNanos = holdTtl.toNanos();
+    }
+
+    /**
+     * @throws SoldOutException if no block of {@code seats} adjacent seats is free
+     */
+    public SeatHold hold(long accountId, int seats) {
+        SeatBlock block = seatMap.hold(seats);
+        if (block == null) {
+            throw new SoldOutException("No block of " + seats + " adjacent seats available");
+        }
+        SeatHold hold = new SeatHold(accountId, block, this);
+        active.increment();
+        wheel.schedule(hold, ttlNanos, TimeUnit.NANOSECONDS);
+        return hold;
+    }
+
+    /**
+     * Reserves the held seats with the booking service. The hold is confirmed first so it
+     * cannot expire mid-call; if the booking service fails, the hold is released instead and
+     * the failure rethrown.
+     *
+     * @throws IllegalStateException if the hold has already expired or been released
+     */
+    public void confirm(SeatHold hold) {
+        if (!hold.transition(SeatHold.State.CONFIRMED)) {
+            throw new IllegalStateException("Cannot confirm " + hold);
+        }
+        wheel.cancel(hold);
+        active.decrement();
+        try {
+            reservations.reserveSeat(hold.accountId(), hold.block().seats());
+        } catch (RuntimeException e) {
+            hold.transition(SeatHold.State.CONFIRMED, SeatHold.State.RELEASED);
+            seatMap.release(hold.block());
+            throw e;
+        }
+        seatMap.confirm(hold.block());
+    }
+
+    /**
+     * @return whether the hold was still active
+     */
+    public boolean release(SeatHold hold) {
+        if (!hold.transition(SeatHold.State.RELEASED)) {
+            return false;
+        }
+        wheel.cancel(hold);
+        active.decrement();
+        seatMap.release(hold.block());
+        return true;
+    }
+
+    public long getActiveHolds() {
+        return active.sum();
+    }
+
+    public long getExpiredHolds() {
+        return expired.sum();
+    }
+
+    void expire(SeatHold hold) {
+        if (hold.transition(SeatHold.State.EXPIRED)) {
+            active.decrement();
+            expired.increment();
+            seatMap.release(hold.block());
+        }
+    }
+}
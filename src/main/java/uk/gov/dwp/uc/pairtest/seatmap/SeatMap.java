@@ -0,0 +1,128 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat map of one auditorium with up to 64 seats per row. Each row is a single {@code long}
+ * bitset (bit {@code n} is seat {@code n}), so finding {@code k} adjacent free seats in a row is
+ * a few shift-and-mask steps, and holding them is one compare-and-set on that row.
+ * <p>
+ * A seat is either free, held or confirmed. {@link #hold} takes free seats, {@link #confirm}
+ * marks held seats as sold and {@link #release} returns held or confirmed seats to the map.
+ * None of the operations take a lock.
+ */
+public class SeatMap {
+
+    private final int rows;
+    private final int seatsPerRow;
+    private final long rowMask;
+    private final AtomicLongArray occupied;
+    private final AtomicLongArray confirmed;
+    private final AtomicInteger nextStartRow = new AtomicInteger();
+
+    public SeatMap(int rows, int seatsPerRow) {
+        if (rows <= 0 || seatsPerRow <= 0 || seatsPerRow > Long.SIZE) {
+            throw new IllegalArgumentException("A seat map needs at least one row and 1 to 64 seats per row");
+        }
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.rowMask = seatsPerRow == Long.SIZE ? -1L : (1L << seatsPerRow) - 1;
+        this.occupied = new AtomicLongArray(rows);
+        this.confirmed = new AtomicLongArray(rows);
+    }
+
+    /**
+     * Holds a block of {@code seats} adjacent free seats. Each call starts searching at the row
+     * after the previous call's starting row and wraps around, so concurrent holds spread over
+     * the rows instead of all competing for the front one.
+     *
+     * @return the held block, or {@code null} if no row has that many adjacent free seats
+     */
+    public SeatBlock hold(int seats) {
+        if (seats <= 0 || seats > seatsPerRow) {
+            return null;
+        }
+        int start = Math.floorMod(nextStartRow.getAndIncrement(), rows);
+        for (int scanned = 0, row = start; scanned < rows; scanned++, row = row + 1 == rows ? 0 : row + 1) {
+            for (; ; ) {
+                long taken = occupied.get(row);
+                int first = findRun(~taken & rowMask, seats);
+                if (first < 0) {
+                    break;
+                }
+                SeatBlock block = new SeatBlock(row, first, seats);
+                if (occupied.compareAndSet(row, taken, taken | block.mask())) {
+                    return block;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks a held block as sold.
+     *
+     * @throws IllegalStateException if any seat of the block is not currently held
+     */
+    public void confirm(SeatBlock block) {
+        long mask = block.mask();
+        for (; ; ) {
+            long sold = confirmed.get(block.row());
+            if ((occupied.get(block.row()) & mask) != mask || (sold & mask) != 0) {
+                throw new IllegalStateException("Seats " + block + " are not held");
+            }
+            if (confirmed.compareAndSet(block.row(), sold, sold | mask)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a held or confirmed block to the map.
+     */
+    public void release(SeatBlock block) {
+        long mask = block.mask();
+        clear(confirmed, block.row(), mask);
+        clear(occupied, block.row(), mask);
+    }
+
+    public int availableSeats() {
+        int available = 0;
+        for (int row = 0; row < rows; row++) {
+            available += seatsPerRow - Long.bitCount(occupied.get(row));
+        }
+        return available;
+    }
+
+    public boolean isConfirmed(int row, int seat) {
+        return (confirmed.get(row) & (1L << seat)) != 0;
+    }
+
+    public boolean isFree(int row, int seat) {
+        return (occupied.get(row) & (1L << seat)) == 0;
+    }
+
+    /**
+     * @return the lowest seat starting a run of {@code length} set bits in {@code free}, or -1
+     */
+    static int findRun(long free, int length) {
+        long starts = free;
+        int covered = 1;
+        while (covered < length && starts != 0) {
+            int shift = Math.min(covered, length - covered);
+            starts &= starts >>> shift;
+            covered += shift;
+        }
+        return starts == 0 ? -1 : Long.numberOfTrailingZeros(starts);
+    }
+
+    private static void clear(AtomicLongArray bits, int row, long mask) {
+        for (; ; ) {
+            long current = bits.get(row);
+            if (bits.compareAndSet(row, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+import uk.gov.dwp.uc.pairtest.gateway.ReleasableSeatReservationService;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Seat reservation against a local {@link SeatMap}: every order is seated together in one
+ * block of adjacent seats. Blocks are remembered per account so they can be released.
+ */
+public class SeatMapReservationService implements ReleasableSeatReservationService {
+
+    private final SeatMap seatMap;
+    private final ConcurrentHashMap<Long, Deque<SeatBlock>> allocations = new ConcurrentHashMap<>();
+
+    public SeatMapReservationService(SeatMap seatMap) {
+        this.seatMap = seatMap;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        if (totalSeatsToAllocate <= 0) {
+            return;
+        }
+        SeatBlock block = seatMap.hold(totalSeatsToAllocate);
+        if (block == null) {
+            throw new SoldOutException("No block of " + totalSeatsToAllocate + " adjacent seats available");
+        }
+        seatMap.confirm(block);
+        allocations.compute(accountId, (id, blocks) -> {
+            Deque<SeatBlock> accountBlocks = blocks == null ? new ConcurrentLinkedDeque<>() : blocks;
+            accountBlocks.push(block);
+            return accountBlocks;
+        });
+    }
+
+    /**
+     * Releases the account's most recent block of exactly {@code totalSeatsToRelease} seats.
+     * Blocks are added and removed under the account's map entry, so a reservation racing with
+     * the release of the account's last block is never dropped along with the emptied deque.
+     */
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        SeatBlock[] released = new SeatBlock[1];
+        allocations.computeIfPresent(accountId, (id, blocks) -> {
+            for (Iterator<SeatBlock> it = blocks.iterator(); it.hasNext(); ) {
+                SeatBlock block = it.next();
+                if (block.seats() == totalSeatsToRelease) {
+                    it.remove();
+                    released[0] = block;
+                    break;
+                }
+            }
+            return blocks.isEmpty() ? null : blocks;
+        });
+        if (released[0] != null) {
+            seatMap.release(released[0]);
+        }
+    }
+
+    public List<SeatBlock> allocationsFor(long accountId) {
+        Deque<SeatBlock> blocks = allocations.get(accountId);
+        return blocks == null ? List.of() : List.copyOf(blocks);
+    }
+}
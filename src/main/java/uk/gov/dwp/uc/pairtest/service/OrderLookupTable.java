@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.service;
+
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+/**
+ * Precomputed outcome of every (adult, child, infant) count combination up to the validator's
+ * ticket limit, stored in one flat {@code int[]} so an order is answered with a single read.
+ * <p>
+ * Each entry is either {@code amount << 8 | seats} for a valid combination, or
+ * {@code -(failure ordinal + 1)} for a rejected one. With the default limit of 25 the table has
+ * 26<sup>3</sup> = 17,576 entries (about 70 KB) and takes roughly 10 ms to build in a cold JVM.
+ * The table is priced against the {@link PriceList} current at build time, which it keeps;
+ * {@link TicketOrderProcessor} stops using it as soon as the prices change and
+ * {@link TicketOrderProcessor#rebuildLookupTable()} replaces it.
+ */
+public class OrderLookupTable {
+
+    private static final int SEAT_BITS = 8;
+    private static final int MAX_AMOUNT = Integer.MAX_VALUE >> SEAT_BITS;
+    private static final ValidationFailure[] FAILURES = ValidationFailure.values();
+
+    private final int dimension;
+    private final int[] entries;
+    private final PriceList prices;
+
+    private OrderLookupTable(int dimension, int[] entries, PriceList prices) {
+        this.dimension = dimension;
+        this.entries = entries;
+        this.prices = prices;
+    }
+
+    public static OrderLookupTable build(TicketRequestValidator validator, PriceCalculator calculator) {
+        int maxTickets = validator.getMaxTicketsAllowed();
+        if (maxTickets < 0 || maxTickets >= 1 << SEAT_BITS) {
+            throw new IllegalArgumentException("Lookup table supports at most " + ((1 << SEAT_BITS) - 1) + " tickets");
+        }
+        PriceList prices = calculator.currentPrices();
+        int dimension = maxTickets + 1;
+        int[] entries = new int[dimension * dimension * dimension];
+        for (int adults = 0; adults < dimension; adults++) {
+            for (int children = 0; children < dimension; children++) {
+                for (int infants = 0; infants < dimension; infants++) {
+                    int index = (adults * dimension + children) * dimension + infants;
+                    ValidationFailure failure = validator.evaluate(adults, children, infants);
+                    if (failure != null) {
+                        entries[index] = -(failure.ordinal() + 1);
+                        continue;
+                    }
+                    long amount = prices.totalOf(adults, children, infants);
+                    if (amount > MAX_AMOUNT) {
+                        throw new IllegalArgumentException("Order amount " + amount + " is too large for the lookup table");
+                    }
+                    entries[index] = (int) amount << SEAT_BITS | (adults + children);
+                }
+            }
+        }
+        return new OrderLookupTable(dimension, entries, prices);
+    }
+
+    /**
+     * Counts must each be between zero and the ticket limit.
+     */
+    public int entry(int adultTickets, int childTickets, int infantTickets) {
+        return entries[(adultTickets * dimension + childTickets) * dimension + infantTickets];
+    }
+
+    public static boolean isValid(int entry) {
+        return entry >= 0;
+    }
+
+    public static int totalAmount(int entry) {
+        return entry >>> SEAT_BITS;
+    }
+
+    public static int totalSeats(int entry) {
+        return entry & ((1 << SEAT_BITS) - 1);
+    }
+
+    public static ValidationFailure failure(int entry) {
+        return entry < 0 ? FAILURES[-entry - 1] : null;
+    }
+
+    public PriceList getPrices() {
+        return prices;
+    }
+
+    /**
+     * Whether the amounts in this table were computed with {@code currentPrices}.
+     */
+    public boolean isPricedWith(PriceList currentPrices) {
+        return prices == currentPrices || prices.equals(currentPrices);
+    }
+
+    public int getMaxTicketsAllowed() {
+        return dimension - 1;
+    }
+
+    public long memoryBytes() {
+        return (long) entries.length * Integer.BYTES;
+    }
+}
@@ -2,9 +2,21 @@ package uk.gov.dwp.uc.pairtest.service;
 
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+import uk.gov.dwp.uc.pairtest.service.pricing.PricingPolicy;
 
 public class PriceCalculator {
 
+    private final PricingPolicy pricingPolicy;
+
+    public PriceCalculator() {
+        this(PricingPolicy.fixed(PriceList.defaults()));
+    }
+
+    public PriceCalculator(PricingPolicy pricingPolicy) {
+        this.pricingPolicy = pricingPolicy;
+    }
+
     public int calculate(int noOfTickets, TicketTypeRequest.Type ticketType) {
         if (ticketType == null) {
             throw new InvalidPurchaseException("ticketType must not be null");
@@ -15,17 +27,29 @@ public class PriceCalculator {
         if (noOfTickets == 0) {
             return 0;
         }
-        switch (ticketType) {
-            case ADULT -> {
-                return noOfTickets * TicketTypeRequest.Type.ADULT.getPrice();
-            }
-            case CHILD -> {
-                return noOfTickets * TicketTypeRequest.Type.CHILD.getPrice();
-            }
-            case INFANT -> {
-                return 0;
-            }
-            default -> throw new InvalidPurchaseException("Unsupported ticket type: " + ticketType);
+        try {
+            return Math.multiplyExact(noOfTickets, pricingPolicy.currentPrices().priceOf(ticketType));
+        } catch (ArithmeticException e) {
+            throw new InvalidPurchaseException("Order total is too large");
+        }
+    }
+
+    /**
+     * Prices a whole order from its per-type counts without revisiting individual requests.
+     * All three counts are priced against the same price snapshot.
+     */
+    public int calculate(int adultTickets, int childTickets, int infantTickets) {
+        if (adultTickets < 0 || childTickets < 0 || infantTickets < 0) {
+            throw new InvalidPurchaseException("Number of tickets must not be negative");
         }
+        try {
+            return pricingPolicy.currentPrices().priceOf(adultTickets, childTickets, infantTickets);
+        } catch (ArithmeticException e) {
+            throw new InvalidPurchaseException("Order total is too large");
+        }
+    }
+
+    public PriceList currentPrices() {
+        return pricingPolicy.currentPrices();
     }
 }
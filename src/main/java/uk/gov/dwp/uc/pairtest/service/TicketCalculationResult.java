@@ -1,4 +1,25 @@
 package uk.gov.dwp.uc.pairtest.service;
 
-public record TicketCalculationResult(int totalAmount, int totalSeats) {
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+
+/**
+ * @param prices the price snapshot the order was charged from, so the amount can be split per
+ *               ticket type after the prices have moved on
+ */
+public record TicketCalculationResult(int totalAmount, int totalSeats, PriceList prices) {
+
+    /**
+     * A result priced at {@link PriceList#defaults()}.
+     */
+    public TicketCalculationResult(int totalAmount, int totalSeats) {
+        this(totalAmount, totalSeats, PriceList.defaults());
+    }
+
+    /**
+     * What {@code tickets} tickets of {@code type} contributed to {@link #totalAmount()}.
+     */
+    public long amountOf(TicketTypeRequest.Type type, int tickets) {
+        return (long) tickets * prices.priceOf(type);
+    }
 }
@@ -0,0 +1,7 @@
+package uk.gov.dwp.uc.pairtest.service;
+
+/**
+ * An order's line items summed per ticket type.
+ */
+public record TicketCounts(int adultTickets, int childTickets, int infantTickets) {
+}
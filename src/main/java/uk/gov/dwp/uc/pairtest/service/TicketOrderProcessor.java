@@ -1,37 +1,113 @@
 package uk.gov.dwp.uc.pairtest.service;
 
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
 import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
 
 public class TicketOrderProcessor {
     private final TicketRequestValidator validator;
     private final PriceCalculator paymentService;
+    private volatile OrderLookupTable lookupTable;
 
     public TicketOrderProcessor(TicketRequestValidator validator, PriceCalculator paymentService) {
+        this(validator, paymentService, null);
+    }
+
+    /**
+     * @param lookupTable precomputed outcomes answering each order with a single array read,
+     *                    or {@code null} to derive them arithmetically. The table is bypassed
+     *                    while the calculator's prices differ from those it was built with.
+     */
+    public TicketOrderProcessor(TicketRequestValidator validator, PriceCalculator paymentService, OrderLookupTable lookupTable) {
+        if (lookupTable != null && lookupTable.getMaxTicketsAllowed() != validator.getMaxTicketsAllowed()) {
+            throw new IllegalArgumentException("Lookup table was built for a different ticket limit");
+        }
         this.validator = validator;
         this.paymentService = paymentService;
+        this.lookupTable = lookupTable;
     }
 
+    /**
+     * Validates and prices the order in a single pass: requests are tallied into per-type
+     * counters and the business rules and totals are derived from those counters.
+     */
     public TicketCalculationResult process(Long accountId, TicketTypeRequest... requests) {
-        validator.validate(accountId, requests);
+        TicketCounts counts = tally(accountId, requests);
+        return process(accountId.longValue(), counts.adultTickets(), counts.childTickets(), counts.infantTickets());
+    }
 
-        int totalAmount = 0;
-        int totalSeats = 0;
+    /**
+     * Sums the requests per ticket type. Malformed orders (no account, no requests, negative or
+     * oversized line items) are handed to the request-level validator so they are rejected with
+     * exactly the same reason as before; the business rules are left to
+     * {@link #process(long, int, int, int)}.
+     */
+    public TicketCounts tally(Long accountId, TicketTypeRequest... requests) {
+        if (accountId == null || requests == null || requests.length == 0) {
+            validator.validate(accountId, requests);
+        }
+
+        int maxTickets = validator.getMaxTicketsAllowed();
+        int totalTickets = 0;
+        int adultTickets = 0;
+        int childTickets = 0;
+        int infantTickets = 0;
 
         for (TicketTypeRequest req : requests) {
+            int tickets = req.noOfTickets();
+            totalTickets += tickets;
+            if (tickets < 0 || totalTickets > maxTickets) {
+                validator.validate(accountId, requests);
+            }
             switch (req.type()) {
-                case ADULT -> {
-                    totalAmount += paymentService.calculate(req.noOfTickets(), TicketTypeRequest.Type.ADULT);
-                    totalSeats += req.noOfTickets();
-                }
-                case CHILD -> {
-                    totalAmount += paymentService.calculate(req.noOfTickets(), TicketTypeRequest.Type.CHILD);
-                    totalSeats += req.noOfTickets();
-                }
-                // INFANT - intentionally omitted
+                case ADULT -> adultTickets += tickets;
+                case CHILD -> childTickets += tickets;
+                case INFANT -> infantTickets += tickets;
             }
         }
 
-        return new TicketCalculationResult(totalAmount, totalSeats);
+        return new TicketCounts(adultTickets, childTickets, infantTickets);
+    }
+
+    /**
+     * Validates and prices an order that has already been tallied into per-type counts,
+     * such as one decoded from the binary wire format. Nothing is boxed or allocated
+     * apart from the result.
+     */
+    public TicketCalculationResult process(long accountId, int adultTickets, int childTickets, int infantTickets) {
+        OrderLookupTable table = lookupTable;
+        PriceList prices = paymentService.currentPrices();
+        if (table != null && adultTickets >= 0 && childTickets >= 0 && infantTickets >= 0
+                && (long) adultTickets + childTickets + infantTickets <= validator.getMaxTicketsAllowed()
+                && table.isPricedWith(prices)) {
+            int entry = table.entry(adultTickets, childTickets, infantTickets);
+            if (OrderLookupTable.isValid(entry)) {
+                validator.validateAccount(accountId);
+                return new TicketCalculationResult(OrderLookupTable.totalAmount(entry), OrderLookupTable.totalSeats(entry),
+                        table.getPrices());
+            }
+        }
+
+        validator.validate(accountId, adultTickets, childTickets, infantTickets);
+
+        int totalAmount;
+        try {
+            totalAmount = prices.priceOf(adultTickets, childTickets, infantTickets);
+        } catch (ArithmeticException e) {
+            throw new InvalidPurchaseException("Order total is too large");
+        }
+        return new TicketCalculationResult(totalAmount, adultTickets + childTickets, prices);
+    }
+
+    /**
+     * Rebuilds the lookup table against the current prices and swaps it in, e.g. after a
+     * {@link uk.gov.dwp.uc.pairtest.service.pricing.ReloadablePricingPolicy} reload. Orders are
+     * priced arithmetically until then. Does nothing if the processor has no lookup table.
+     */
+    public void rebuildLookupTable() {
+        if (lookupTable != null) {
+            lookupTable = OrderLookupTable.build(validator, paymentService);
+        }
     }
 }
@@ -0,0 +1,129 @@
+package uk.gov.dwp.uc.pairtest.service.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of the price of every ticket type.
+ * <p>
+ * Prices are capped at {@link #MAX_PRICE} so that an order of up to
+ * {@code Integer.MAX_VALUE / MAX_PRICE} tickets always has an {@code int} total. Larger orders are
+ * priced exactly and fail rather than wrap.
+ */
+public final class PriceList {
+
+    public static final int MAX_PRICE = 100_000;
+
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+    private static final PriceList DEFAULTS = defaultPrices();
+
+    private final int[] prices;
+
+    private PriceList(int[] prices) {
+        this.prices = prices;
+    }
+
+    /**
+     * Prices declared on {@link TicketTypeRequest.Type}.
+     */
+    public static PriceList defaults() {
+        return DEFAULTS;
+    }
+
+    public static PriceList of(int adultPrice, int childPrice, int infantPrice) {
+        int[] prices = new int[TYPES.length];
+        prices[TicketTypeRequest.Type.ADULT.ordinal()] = adultPrice;
+        prices[TicketTypeRequest.Type.CHILD.ordinal()] = childPrice;
+        prices[TicketTypeRequest.Type.INFANT.ordinal()] = infantPrice;
+        for (int price : prices) {
+            if (price < 0 || price > MAX_PRICE) {
+                throw new IllegalArgumentException("Ticket price must be between 0 and " + MAX_PRICE);
+            }
+        }
+        return new PriceList(prices);
+    }
+
+    /**
+     * Reads a properties file with one {@code TYPE=price} entry for every ticket type, e.g. {@code ADULT=25}.
+     */
+    public static PriceList load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        int[] prices = new int[TYPES.length];
+        for (TicketTypeRequest.Type type : TYPES) {
+            String value = properties.getProperty(type.name());
+            if (value == null) {
+                throw new IllegalArgumentException("No price configured for " + type + " in " + file);
+            }
+            try {
+                prices[type.ordinal()] = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price for " + type + " in " + file + ": " + value, e);
+            }
+        }
+        return of(prices[TicketTypeRequest.Type.ADULT.ordinal()],
+                prices[TicketTypeRequest.Type.CHILD.ordinal()],
+                prices[TicketTypeRequest.Type.INFANT.ordinal()]);
+    }
+
+    public int priceOf(TicketTypeRequest.Type type) {
+        return prices[type.ordinal()];
+    }
+
+    /**
+     * Price of an order from its per-type counts.
+     *
+     * @throws ArithmeticException if the total does not fit in an {@code int}
+     */
+    public int priceOf(int adultTickets, int childTickets, int infantTickets) {
+        return Math.toIntExact(totalOf(adultTickets, childTickets, infantTickets));
+    }
+
+    /**
+     * Exact price of an order from its per-type counts, which cannot overflow a {@code long} for
+     * prices up to {@link #MAX_PRICE}.
+     */
+    public long totalOf(int adultTickets, int childTickets, int infantTickets) {
+        return (long) adultTickets * prices[TicketTypeRequest.Type.ADULT.ordinal()]
+                + (long) childTickets * prices[TicketTypeRequest.Type.CHILD.ordinal()]
+                + (long) infantTickets * prices[TicketTypeRequest.Type.INFANT.ordinal()];
+    }
+
+    private static PriceList defaultPrices() {
+        int[] prices = new int[TYPES.length];
+        for (TicketTypeRequest.Type type : TYPES) {
+            prices[type.ordinal()] = type.getPrice();
+        }
+        return new PriceList(prices);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PriceList other && Arrays.equals(prices, other.prices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(prices);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PriceList[");
+        for (TicketTypeRequest.Type type : TYPES) {
+            if (type.ordinal() > 0) {
+                sb.append(", ");
+            }
+            sb.append(type).append('=').append(prices[type.ordinal()]);
+        }
+        return sb.append(']').toString();
+    }
+}
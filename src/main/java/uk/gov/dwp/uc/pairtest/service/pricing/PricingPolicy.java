@@ -0,0 +1,16 @@
+package uk.gov.dwp.uc.pairtest.service.pricing;
+
+/**
+ * Source of ticket prices consulted by {@link uk.gov.dwp.uc.pairtest.service.PriceCalculator}.
+ * Callers pricing a whole order read {@link #currentPrices()} once so the order is priced
+ * against a single consistent snapshot.
+ */
+public interface PricingPolicy {
+
+    PriceList currentPrices();
+
+    static PricingPolicy fixed(PriceList prices) {
+        return () -> prices;
+    }
+
+}
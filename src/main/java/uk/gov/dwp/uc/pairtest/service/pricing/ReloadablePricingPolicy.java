@@ -0,0 +1,68 @@
+package uk.gov.dwp.uc.pairtest.service.pricing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Prices loaded from a properties file that can be replaced while purchases are in flight.
+ * Readers take the current immutable {@link PriceList} through a volatile field; a reload builds
+ * a new snapshot and swaps the reference, so neither side ever blocks. A file that fails to load
+ * leaves the previous prices in place.
+ */
+public class ReloadablePricingPolicy implements PricingPolicy {
+
+    private final Path file;
+    private volatile PriceList prices;
+    private volatile FileTime loadedModifiedTime;
+
+    public ReloadablePricingPolicy(Path file) {
+        this.file = file;
+        load();
+    }
+
+    @Override
+    public PriceList currentPrices() {
+        return prices;
+    }
+
+    public synchronized void reload() {
+        load();
+    }
+
+    private void load() {
+        try {
+            FileTime modifiedTime = Files.getLastModifiedTime(file);
+            prices = PriceList.load(file);
+            loadedModifiedTime = modifiedTime;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load prices from " + file, e);
+        }
+    }
+
+    /**
+     * Reloads only if the file changed since the last load; cheap enough to poll on a schedule.
+     *
+     * @return whether the prices were reloaded
+     */
+    public synchronized boolean reloadIfModified() {
+        try {
+            if (Files.getLastModifiedTime(file).equals(loadedModifiedTime)) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not check prices file " + file, e);
+        }
+        load();
+        return true;
+    }
+
+    /**
+     * Replaces the prices directly, e.g. from an admin endpoint, until the next reload.
+     */
+    public void update(PriceList newPrices) {
+        prices = newPrices;
+    }
+}
@@ -6,24 +6,53 @@ import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 public class TicketRequestValidator {
 
     private final int maxTicketsAllowed;
+    private final boolean preallocatedRejections;
 
     public TicketRequestValidator(int maxTicketsAllowed) {
+        this(maxTicketsAllowed, false);
+    }
+
+    /**
+     * @param preallocatedRejections when {@code true}, {@link #validate} throws the shared stackless
+     *                               exception of the {@link ValidationFailure} instead of allocating one
+     */
+    public TicketRequestValidator(int maxTicketsAllowed, boolean preallocatedRejections) {
         this.maxTicketsAllowed = maxTicketsAllowed;
+        this.preallocatedRejections = preallocatedRejections;
+    }
+
+    public int getMaxTicketsAllowed() {
+        return maxTicketsAllowed;
     }
 
     public void validate(Long accountId, TicketTypeRequest[] requests) {
-        ValidationResult result = isValid(accountId, requests);
-        if (!result.isValid()) {
-            throw new InvalidPurchaseException(result.message());
-        }
+        reject(check(accountId, requests));
+    }
+
+    public void validate(long accountId, int adultTickets, int childTickets, int infantTickets) {
+        reject(check(accountId, adultTickets, childTickets, infantTickets));
+    }
+
+    public void validateAccount(long accountId) {
+        reject(checkAccount(accountId));
     }
 
     public ValidationResult isValid(Long accountId, TicketTypeRequest[] requests) {
-        if (accountId == null || accountId <= 0) {
-            return ValidationResult.failure("Invalid account id");
+        ValidationFailure failure = check(accountId, requests);
+        return failure == null ? ValidationResult.success() : ValidationResult.failure(failure);
+    }
+
+    /**
+     * Allocation-free variant of {@link #isValid}.
+     *
+     * @return the reason the order is rejected, or {@code null} if it is valid
+     */
+    public ValidationFailure check(Long accountId, TicketTypeRequest[] requests) {
+        if (accountId == null || checkAccount(accountId.longValue()) != null) {
+            return ValidationFailure.INVALID_ACCOUNT;
         }
         if (requests == null || requests.length == 0) {
-            return ValidationResult.failure("No ticket requests found");
+            return ValidationFailure.NO_REQUESTS;
         }
 
         int totalTickets = 0;
@@ -33,11 +62,11 @@ public class TicketRequestValidator {
 
         for (TicketTypeRequest request : requests) {
             if (request.noOfTickets() < 0) {
-                return ValidationResult.failure("Tickets no should be greater than zero");
+                return ValidationFailure.NEGATIVE_TICKETS;
             }
             totalTickets += request.noOfTickets();
             if (totalTickets > maxTicketsAllowed) {
-                return ValidationResult.failure("Too many tickets found");
+                return ValidationFailure.TOO_MANY_TICKETS;
             }
             switch (request.type()) {
                 case ADULT -> adultTickets += request.noOfTickets();
@@ -46,14 +75,58 @@ public class TicketRequestValidator {
             }
         }
 
+        return checkComposition(totalTickets, adultTickets, childTickets, infantTickets);
+    }
+
+    /**
+     * Applies the business rules to per-type ticket counts already tallied by the caller.
+     *
+     * @return the reason the order is rejected, or {@code null} if it is valid
+     */
+    public ValidationFailure check(long accountId, int adultTickets, int childTickets, int infantTickets) {
+        if (checkAccount(accountId) != null) {
+            return ValidationFailure.INVALID_ACCOUNT;
+        }
+        if (adultTickets < 0 || childTickets < 0 || infantTickets < 0) {
+            return ValidationFailure.NEGATIVE_TICKETS;
+        }
+        long totalTickets = (long) adultTickets + childTickets + infantTickets;
+        if (totalTickets > maxTicketsAllowed) {
+            return ValidationFailure.TOO_MANY_TICKETS;
+        }
+        return checkComposition((int) totalTickets, adultTickets, childTickets, infantTickets);
+    }
+
+    /**
+     * The verdict {@link #check(long, int, int, int)} gives these counts for a valid account,
+     * without recording it as a rejection. Used to precompute an
+     * {@link uk.gov.dwp.uc.pairtest.service.OrderLookupTable}, whose entries are not real orders.
+     *
+     * @return the reason the counts are rejected, or {@code null} if they are valid
+     */
+    public ValidationFailure evaluate(int adultTickets, int childTickets, int infantTickets) {
+        return check(1L, adultTickets, childTickets, infantTickets);
+    }
+
+    private static ValidationFailure checkAccount(long accountId) {
+        return accountId <= 0 ? ValidationFailure.INVALID_ACCOUNT : null;
+    }
+
+    private ValidationFailure checkComposition(int totalTickets, int adultTickets, int childTickets, int infantTickets) {
         if (totalTickets == 0) {
-            return ValidationResult.failure("No tickets found");
+            return ValidationFailure.NO_TICKETS;
         }
 
         if ((childTickets > 0 || infantTickets > 0) && adultTickets == 0) {
-            return ValidationResult.failure("No adult tickets found");
+            return ValidationFailure.NO_ADULT;
         }
 
-        return ValidationResult.success();
+        return null;
+    }
+
+    private void reject(ValidationFailure failure) {
+        if (failure != null) {
+            throw preallocatedRejections ? failure.exception() : new InvalidPurchaseException(failure);
+        }
     }
 }
@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.service.validator;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Reasons an order can be rejected. Each constant carries a preallocated
+ * {@link ValidationResult} and a shared stackless exception so rejecting an
+ * order does not allocate.
+ */
+public enum ValidationFailure {
+    INVALID_ACCOUNT("Invalid account id"),
+    NO_REQUESTS("No ticket requests found"),
+    NEGATIVE_TICKETS("Tickets no should be greater than zero"),
+    TOO_MANY_TICKETS("Too many tickets found"),
+    NO_TICKETS("No tickets found"),
+    NO_ADULT("No adult tickets found"),
+    TOO_MANY_INFANTS("Too many infants for the number of adults");
+
+    private final String message;
+    private final ValidationResult result;
+    private final InvalidPurchaseException exception;
+
+    ValidationFailure(String message) {
+        this.message = message;
+        this.result = new ValidationResult(false, message, this);
+        this.exception = new InvalidPurchaseException(message, this, false);
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public ValidationResult result() {
+        return result;
+    }
+
+    /**
+     * Shared instance without a stack trace; safe to throw from any thread.
+     */
+    public InvalidPurchaseException exception() {
+        return exception;
+    }
+}
@@ -1,12 +1,25 @@
 package uk.gov.dwp.uc.pairtest.service.validator;
 
-public record ValidationResult(boolean isValid, String message) {
+public record ValidationResult(boolean isValid, String message, ValidationFailure reason) {
+
+    private static final ValidationResult SUCCESS = new ValidationResult(true, null, null);
+
+    /**
+     * Result without a {@link ValidationFailure}, as constructed before rejections carried a reason.
+     */
+    public ValidationResult(boolean isValid, String message) {
+        this(isValid, message, null);
+    }
 
     public static ValidationResult success() {
-        return new ValidationResult(true, null);
+        return SUCCESS;
     }
 
     public static ValidationResult failure(String message) {
-        return new ValidationResult(false, message);
+        return new ValidationResult(false, message, null);
+    }
+
+    public static ValidationResult failure(ValidationFailure reason) {
+        return reason.result();
     }
 }
@@ -0,0 +1,241 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rules flattened into primitive fields and arrays, evaluated with no virtual calls or per-rule
+ * objects.
+ * <p>
+ * Each rule takes eight slots of one array, the guard's three weights and bound followed by the
+ * constraint's, and a scan runs through them in evaluation order to find the first broken
+ * rule. That costs a few multiplications per rule, so the chain avoids it where it can.
+ * <p>
+ * Guardless rules are folded into ranges over the weighted sum they constrain, rules over the same
+ * sum sharing one range. When the ranges on each ticket type and on the total confine the counts to
+ * a small box, as any total cap over non-negative counts does, every order in the box is scanned up
+ * front and the position of its first broken rule kept in a table. An order in the box then costs
+ * one bounds check and one array read whatever the number of rules, and only orders outside it,
+ * which are always rejected, are scanned. A chain whose counts are not confined checks the ranges
+ * and the guarded rules first and scans only the orders that break one of them.
+ */
+final class CompiledRuleChain {
+
+    private static final int STRIDE = 8;
+    private static final int RANGE_STRIDE = 5;
+    /**
+     * Beyond any weighted sum of {@code int} counts, which {@link LinearConstraint} keeps below 2^50.
+     */
+    private static final long UNBOUNDED = 1L << 60;
+    /**
+     * The box spans at most 2^6 counts of each type, so a total cap of up to 63 tickets is
+     * tabulated in 256 KB. A cap of 25 takes 32 KB.
+     */
+    private static final int MAX_BOX_BITS = 6;
+    private static final long MAX_BOX_BASE = 1L << 30;
+
+    private final long[] terms;
+    private final ValidationFailure[] failures;
+    private final int[] ruleIds;
+
+    private final byte[] positions;
+    private final int boxBits;
+    private final int adultBase;
+    private final int childBase;
+    private final int infantBase;
+
+    private final long[] ranges;
+    private final long[] guarded;
+
+    /**
+     * @param order indices into {@code rules}, in evaluation order
+     */
+    CompiledRuleChain(List<ValidationRule> rules, int[] order) {
+        this.terms = new long[order.length * STRIDE];
+        this.failures = new ValidationFailure[order.length];
+        this.ruleIds = order.clone();
+        for (int r = 0; r < order.length; r++) {
+            ValidationRule rule = rules.get(order[r]);
+            int t = r * STRIDE;
+            terms[t] = rule.guard().adultWeight();
+            terms[t + 1] = rule.guard().childWeight();
+            terms[t + 2] = rule.guard().infantWeight();
+            terms[t + 3] = rule.guard().bound();
+            terms[t + 4] = rule.constraint().adultWeight();
+            terms[t + 5] = rule.constraint().childWeight();
+            terms[t + 6] = rule.constraint().infantWeight();
+            terms[t + 7] = rule.constraint().bound();
+            failures[r] = rule.failure();
+        }
+
+        Map<Sum, long[]> bySum = new LinkedHashMap<>();
+        List<ValidationRule> guardedRules = new ArrayList<>();
+        for (ValidationRule rule : rules) {
+            LinearConstraint guard = rule.guard();
+            if (isConstant(guard)) {
+                if (guard.bound() >= 0) {
+                    narrow(bySum, rule.constraint());
+                }
+            } else {
+                guardedRules.add(rule);
+            }
+        }
+        this.ranges = new long[bySum.size() * RANGE_STRIDE];
+        int t = 0;
+        for (Map.Entry<Sum, long[]> range : bySum.entrySet()) {
+            ranges[t] = range.getKey().adultWeight();
+            ranges[t + 1] = range.getKey().childWeight();
+            ranges[t + 2] = range.getKey().infantWeight();
+            ranges[t + 3] = range.getValue()[0];
+            ranges[t + 4] = range.getValue()[1];
+            t += RANGE_STRIDE;
+        }
+        this.guarded = new long[guardedRules.size() * STRIDE];
+        for (int r = 0; r < guardedRules.size(); r++) {
+            ValidationRule rule = guardedRules.get(r);
+            int g = r * STRIDE;
+            guarded[g] = rule.guard().adultWeight();
+            guarded[g + 1] = rule.guard().childWeight();
+            guarded[g + 2] = rule.guard().infantWeight();
+            guarded[g + 3] = rule.guard().bound();
+            guarded[g + 4] = rule.constraint().adultWeight();
+            guarded[g + 5] = rule.constraint().childWeight();
+            guarded[g + 6] = rule.constraint().infantWeight();
+            guarded[g + 7] = rule.constraint().bound();
+        }
+
+        long[] adult = range(bySum, new Sum(1, 0, 0));
+        long[] child = range(bySum, new Sum(0, 1, 0));
+        long[] infant = range(bySum, new Sum(0, 0, 1));
+        long[] total = range(bySum, new Sum(1, 1, 1));
+        // The total bounds each type by what the other two leave, e.g. at most 25 - 0 - 0 adults
+        long adultMin = Math.max(adult[0], total[0] - child[1] - infant[1]);
+        long adultMax = Math.min(adult[1], total[1] - child[0] - infant[0]);
+        long childMin = Math.max(child[0], total[0] - adult[1] - infant[1]);
+        long childMax = Math.min(child[1], total[1] - adult[0] - infant[0]);
+        long infantMin = Math.max(infant[0], total[0] - adult[1] - child[1]);
+        long infantMax = Math.min(infant[1], total[1] - adult[0] - child[0]);
+        long span = Math.max(adultMax - adultMin, Math.max(childMax - childMin, infantMax - infantMin)) + 1;
+        boolean boxed = order.length <= Byte.MAX_VALUE
+                && adultMin <= adultMax && childMin <= childMax && infantMin <= infantMax
+                && span <= 1L << MAX_BOX_BITS
+                && Math.abs(adultMin) <= MAX_BOX_BASE && Math.abs(childMin) <= MAX_BOX_BASE && Math.abs(infantMin) <= MAX_BOX_BASE;
+
+        this.boxBits = boxed ? 64 - Long.numberOfLeadingZeros(span - 1) : 0;
+        this.adultBase = boxed ? (int) adultMin : 0;
+        this.childBase = boxed ? (int) childMin : 0;
+        this.infantBase = boxed ? (int) infantMin : 0;
+        this.positions = boxed ? tabulate() : null;
+    }
+
+    /**
+     * @return the position of the first broken rule, or {@code -1} if the order keeps them all
+     */
+    int firstBroken(int adultTickets, int childTickets, int infantTickets) {
+        byte[] positions = this.positions;
+        if (positions != null) {
+            int a = adultTickets - adultBase;
+            int c = childTickets - childBase;
+            int i = infantTickets - infantBase;
+            // A count below the box goes negative, so one unsigned shift checks both ends of all three
+            if (((a | c | i) >>> boxBits) == 0) {
+                return positions[(a << boxBits | c) << boxBits | i];
+            }
+        } else if (keepsRanges(adultTickets, childTickets, infantTickets)) {
+            return -1;
+        }
+        return scan(adultTickets, childTickets, infantTickets);
+    }
+
+    ValidationFailure failure(int position) {
+        return failures[position];
+    }
+
+    int ruleId(int position) {
+        return ruleIds[position];
+    }
+
+    int[] order() {
+        return ruleIds.clone();
+    }
+
+    private boolean keepsRanges(long a, long c, long i) {
+        long outside = 0;
+        long[] ranges = this.ranges;
+        for (int t = 0; t < ranges.length; t += RANGE_STRIDE) {
+            long value = ranges[t] * a + ranges[t + 1] * c + ranges[t + 2] * i;
+            // Negative when the sum is below or above its range
+            outside |= (value - ranges[t + 3]) | (ranges[t + 4] - value);
+        }
+        long[] guarded = this.guarded;
+        for (int t = 0; t < guarded.length; t += STRIDE) {
+            long guard = guarded[t] * a + guarded[t + 1] * c + guarded[t + 2] * i;
+            long value = guarded[t + 4] * a + guarded[t + 5] * c + guarded[t + 6] * i;
+            // Negative when the guard holds and the constraint does not
+            outside |= (guard - guarded[t + 3] - 1) & (guarded[t + 7] - value);
+        }
+        return outside >= 0;
+    }
+
+    private int scan(long a, long c, long i) {
+        long[] terms = this.terms;
+        int rules = failures.length;
+        for (int r = 0; r < rules; r++) {
+            int t = r * STRIDE;
+            long guard = terms[t] * a + terms[t + 1] * c + terms[t + 2] * i;
+            long value = terms[t + 4] * a + terms[t + 5] * c + terms[t + 6] * i;
+            // Non-short-circuit & so both sums are always computed and there is a single exit branch
+            if (guard <= terms[t + 3] & value > terms[t + 7]) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] tabulate() {
+        int side = 1 << boxBits;
+        byte[] table = new byte[side * side * side];
+        for (int a = 0; a < side; a++) {
+            for (int c = 0; c < side; c++) {
+                for (int i = 0; i < side; i++) {
+                    table[(a << boxBits | c) << boxBits | i] = (byte) scan(adultBase + a, childBase + c, infantBase + i);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static boolean isConstant(LinearConstraint constraint) {
+        return constraint.adultWeight() == 0 && constraint.childWeight() == 0 && constraint.infantWeight() == 0;
+    }
+
+    private static long[] range(Map<Sum, long[]> bySum, Sum sum) {
+        return bySum.getOrDefault(sum, new long[]{-UNBOUNDED, UNBOUNDED});
+    }
+
+    /**
+     * Intersects the range of the constraint's sum with the constraint. The sum is kept with its
+     * first non-zero weight positive, so {@code adults >= 1}, stored as {@code -adults <= -1},
+     * narrows the same range as {@code adults <= 25}.
+     */
+    private static void narrow(Map<Sum, long[]> bySum, LinearConstraint constraint) {
+        long a = constraint.adultWeight();
+        long c = constraint.childWeight();
+        long i = constraint.infantWeight();
+        boolean flip = a < 0 || (a == 0 && (c < 0 || (c == 0 && i < 0)));
+        Sum sum = flip ? new Sum(-a, -c, -i) : new Sum(a, c, i);
+        long[] range = bySum.computeIfAbsent(sum, s -> new long[]{-UNBOUNDED, UNBOUNDED});
+        if (flip) {
+            range[0] = Math.max(range[0], -constraint.bound());
+        } else {
+            range[1] = Math.min(range[1], constraint.bound());
+        }
+    }
+
+    private record Sum(long adultWeight, long childWeight, long infantWeight) {
+    }
+}
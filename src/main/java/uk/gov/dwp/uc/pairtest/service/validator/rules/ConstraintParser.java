@@ -0,0 +1,141 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+/**
+ * Parses comparisons such as {@code children + infants <= 2 * adults} into a {@link LinearConstraint}.
+ * Terms are {@code adults}, {@code children}, {@code infants} or whole numbers, optionally
+ * multiplied by a whole number; comparisons are {@code <=}, {@code <}, {@code >=} and {@code >}.
+ */
+final class ConstraintParser {
+
+    private final String text;
+    private int position;
+
+    private ConstraintParser(String text) {
+        this.text = text;
+    }
+
+    static LinearConstraint parse(String text) {
+        ConstraintParser parser = new ConstraintParser(text);
+        long[] left = parser.sum();
+        String comparison = parser.comparison();
+        long[] right = parser.sum();
+        parser.skipSpaces();
+        if (parser.position != text.length()) {
+            throw parser.error("Unexpected input");
+        }
+        // Move everything to the left: weights . counts + constant (op) 0
+        long[] terms = new long[4];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = left[i] - right[i];
+        }
+        try {
+            return switch (comparison) {
+                case "<=" -> constraint(terms, 1, 0);
+                case "<" -> constraint(terms, 1, 1);
+                case ">=" -> constraint(terms, -1, 0);
+                default -> constraint(terms, -1, 1);
+            };
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " in '" + text.strip() + "'", e);
+        }
+    }
+
+    /**
+     * {@code sign * (weights . counts + constant) <= -strict}, i.e. {@code sign * weights . counts <= -sign * constant - strict}.
+     */
+    private static LinearConstraint constraint(long[] terms, int sign, int strict) {
+        return new LinearConstraint(weight(sign * terms[0]), weight(sign * terms[1]), weight(sign * terms[2]),
+                -sign * terms[3] - strict);
+    }
+
+    private static int weight(long weight) {
+        return Math.toIntExact(weight);
+    }
+
+    /**
+     * @return adult, child and infant weights followed by the constant
+     */
+    private long[] sum() {
+        long[] terms = new long[4];
+        int sign = 1;
+        while (true) {
+            term(terms, sign);
+            skipSpaces();
+            if (peek('+')) {
+                sign = 1;
+            } else if (peek('-')) {
+                sign = -1;
+            } else {
+                return terms;
+            }
+            position++;
+        }
+    }
+
+    private void term(long[] terms, int sign) {
+        skipSpaces();
+        if (position < text.length() && Character.isDigit(text.charAt(position))) {
+            long number = number();
+            skipSpaces();
+            if (peek('*')) {
+                position++;
+                skipSpaces();
+                terms[variable()] += sign * number;
+            } else {
+                terms[3] += sign * number;
+            }
+        } else {
+            terms[variable()] += sign;
+        }
+    }
+
+    private long number() {
+        int start = position;
+        while (position < text.length() && Character.isDigit(text.charAt(position))) {
+            position++;
+        }
+        try {
+            return Long.parseLong(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Number out of range");
+        }
+    }
+
+    private int variable() {
+        int start = position;
+        while (position < text.length() && Character.isLetter(text.charAt(position))) {
+            position++;
+        }
+        return switch (text.substring(start, position)) {
+            case "adults" -> 0;
+            case "children" -> 1;
+            case "infants" -> 2;
+            default -> throw error("Expected adults, children, infants or a number");
+        };
+    }
+
+    private String comparison() {
+        skipSpaces();
+        for (String comparison : new String[]{"<=", ">=", "<", ">"}) {
+            if (text.startsWith(comparison, position)) {
+                position += comparison.length();
+                return comparison;
+            }
+        }
+        throw error("Expected <=, <, >= or >");
+    }
+
+    private boolean peek(char c) {
+        return position < text.length() && text.charAt(position) == c;
+    }
+
+    private void skipSpaces() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " of '" + text.strip() + "'");
+    }
+}
@@ -0,0 +1,37 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+/**
+ * {@code adults * adultWeight + children * childWeight + infants * infantWeight <= bound}.
+ * Every comparison between weighted sums of ticket counts can be rearranged into this form.
+ * Weights and bound are limited so that evaluating the sum for any {@code int} counts cannot overflow.
+ */
+public record LinearConstraint(int adultWeight, int childWeight, int infantWeight, long bound) {
+
+    public static final int MAX_WEIGHT = 1 << 16;
+    public static final long MAX_BOUND = 1L << 48;
+
+    /**
+     * Holds for every order.
+     */
+    public static final LinearConstraint ALWAYS = new LinearConstraint(0, 0, 0, 0);
+
+    public LinearConstraint {
+        if (Math.abs(adultWeight) > MAX_WEIGHT || Math.abs(childWeight) > MAX_WEIGHT || Math.abs(infantWeight) > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Weights must be between -" + MAX_WEIGHT + " and " + MAX_WEIGHT);
+        }
+        if (Math.abs(bound) > MAX_BOUND) {
+            throw new IllegalArgumentException("Bound must be between -" + MAX_BOUND + " and " + MAX_BOUND);
+        }
+    }
+
+    public boolean test(int adultTickets, int childTickets, int infantTickets) {
+        return (long) adultWeight * adultTickets + (long) childWeight * childTickets + (long) infantWeight * infantTickets <= bound;
+    }
+
+    /**
+     * Whether this caps the total number of tickets, whatever their type.
+     */
+    boolean isTotalCap() {
+        return adultWeight == 1 && childWeight == 1 && infantWeight == 1;
+    }
+}
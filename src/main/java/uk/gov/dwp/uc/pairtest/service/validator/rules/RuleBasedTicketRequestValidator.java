@@ -0,0 +1,152 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validator applying a {@link RuleSet} instead of hard-coded business rules. The rules are compiled
+ * once into a {@link CompiledRuleChain} over the per-type counters, which answers orders within the
+ * ticket cap from a precomputed table, so adding a rule costs nothing per order.
+ * <p>
+ * The account id and the shape of the request array (present, no negative line item, running total
+ * within {@link RuleSet#maxTotalTickets()}) are still checked in code before the counters are
+ * tallied, as are negative counts of an order that arrives already tallied; everything else comes
+ * from the rules. Rejections are counted per rule, and {@link #reorderByRejections()} moves the
+ * rules that reject most often to the front of the chain so invalid orders leave it early.
+ * Building a lookup table does not count towards them. An order breaking several rules is
+ * rejected with the reason of whichever comes first in the current order. An
+ * {@link uk.gov.dwp.uc.pairtest.service.OrderLookupTable} built from this validator captures the
+ * order at build time.
+ */
+public class RuleBasedTicketRequestValidator extends TicketRequestValidator {
+
+    private final RuleSet ruleSet;
+    private final ValidationFailure capFailure;
+    private final LongAdder[] rejections;
+    private volatile CompiledRuleChain chain;
+
+    public RuleBasedTicketRequestValidator(RuleSet ruleSet) {
+        this(ruleSet, false);
+    }
+
+    public RuleBasedTicketRequestValidator(RuleSet ruleSet, boolean preallocatedRejections) {
+        super(ruleSet.maxTotalTickets(), preallocatedRejections);
+        this.ruleSet = ruleSet;
+        this.capFailure = ruleSet.totalCap().failure();
+        this.rejections = new LongAdder[ruleSet.rules().size()];
+        for (int r = 0; r < rejections.length; r++) {
+            rejections[r] = new LongAdder();
+        }
+        int[] order = new int[rejections.length];
+        Arrays.setAll(order, r -> r);
+        this.chain = new CompiledRuleChain(ruleSet.rules(), order);
+    }
+
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    @Override
+    public ValidationFailure check(Long accountId, TicketTypeRequest[] requests) {
+        if (accountId == null || accountId <= 0) {
+            return ValidationFailure.INVALID_ACCOUNT;
+        }
+        if (requests == null || requests.length == 0) {
+            return ValidationFailure.NO_REQUESTS;
+        }
+
+        int maxTickets = getMaxTicketsAllowed();
+        int totalTickets = 0;
+        int adultTickets = 0;
+        int childTickets = 0;
+        int infantTickets = 0;
+
+        for (TicketTypeRequest request : requests) {
+            int tickets = request.noOfTickets();
+            if (tickets < 0) {
+                return ValidationFailure.NEGATIVE_TICKETS;
+            }
+            totalTickets += tickets;
+            if (totalTickets > maxTickets) {
+                return capFailure;
+            }
+            switch (request.type()) {
+                case ADULT -> adultTickets += tickets;
+                case CHILD -> childTickets += tickets;
+                case INFANT -> infantTickets += tickets;
+            }
+        }
+
+        return checkCounts(adultTickets, childTickets, infantTickets, true);
+    }
+
+    @Override
+    public ValidationFailure check(long accountId, int adultTickets, int childTickets, int infantTickets) {
+        if (accountId <= 0) {
+            return ValidationFailure.INVALID_ACCOUNT;
+        }
+        if (adultTickets < 0 || childTickets < 0 || infantTickets < 0) {
+            return ValidationFailure.NEGATIVE_TICKETS;
+        }
+        return checkCounts(adultTickets, childTickets, infantTickets, true);
+    }
+
+    @Override
+    public ValidationFailure evaluate(int adultTickets, int childTickets, int infantTickets) {
+        return checkCounts(adultTickets, childTickets, infantTickets, false);
+    }
+
+    /**
+     * Rebuilds the chain with the rules sorted by how many orders each has rejected so far, most
+     * first; rules with equal counts keep their relative order. Rebuilding the chain's table takes
+     * about a quarter of a millisecond for a cap of 25 tickets, cheap enough to call periodically
+     * from a housekeeping thread, and it is safe to call while orders are being validated.
+     */
+    public synchronized void reorderByRejections() {
+        long[] counts = new long[rejections.length];
+        for (int r = 0; r < counts.length; r++) {
+            counts[r] = rejections[r].sum();
+        }
+        Integer[] order = Arrays.stream(chain.order()).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong((Integer r) -> counts[r]).reversed());
+        chain = new CompiledRuleChain(ruleSet.rules(), Arrays.stream(order).mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * @return names of the rules in their current evaluation order
+     */
+    public List<String> getRuleOrder() {
+        return Arrays.stream(chain.order()).mapToObj(r -> ruleSet.rules().get(r).name()).toList();
+    }
+
+    /**
+     * @return rejections per rule name since the validator was created, in rule set order
+     */
+    public Map<String, Long> getRejectionCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int r = 0; r < rejections.length; r++) {
+            counts.put(ruleSet.rules().get(r).name(), rejections[r].sum());
+        }
+        return counts;
+    }
+
+    private ValidationFailure checkCounts(int adultTickets, int childTickets, int infantTickets, boolean counted) {
+        CompiledRuleChain chain = this.chain;
+        int broken = chain.firstBroken(adultTickets, childTickets, infantTickets);
+        if (broken < 0) {
+            return null;
+        }
+        if (counted) {
+            rejections[chain.ruleId(broken)].increment();
+        }
+        return chain.failure(broken);
+    }
+}
@@ -0,0 +1,119 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ordered business rules over the number of adult, child and infant tickets in an order.
+ * <p>
+ * Rules are written one per line as {@code name = REASON | constraint}, optionally followed by
+ * {@code if guard}, where {@code REASON} is a {@link ValidationFailure} and the constraint and
+ * guard compare sums of {@code adults}, {@code children}, {@code infants} and whole numbers, for
+ * example:
+ * <pre>
+ * # At most one infant per adult, who holds them on their lap
+ * infant-laps = TOO_MANY_INFANTS | infants &lt;= adults
+ * adult-present = NO_ADULT | adults &gt;= 1 if children + infants &gt;= 1
+ * </pre>
+ * Blank lines and lines starting with {@code #} are ignored. Every rule set must cap the total
+ * {@code adults + children + infants}, which bounds the counters before any rule is evaluated.
+ */
+public final class RuleSet {
+
+    private final List<ValidationRule> rules;
+    private final ValidationRule totalCap;
+
+    public RuleSet(List<ValidationRule> rules) {
+        Set<String> names = new HashSet<>();
+        ValidationRule cap = null;
+        for (ValidationRule rule : rules) {
+            if (!names.add(rule.name())) {
+                throw new IllegalArgumentException("Duplicate rule " + rule.name());
+            }
+            if (rule.guard().equals(LinearConstraint.ALWAYS) && rule.constraint().isTotalCap()
+                    && (cap == null || rule.constraint().bound() < cap.constraint().bound())) {
+                cap = rule;
+            }
+        }
+        if (cap == null || cap.constraint().bound() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rules must cap adults + children + infants");
+        }
+        this.rules = List.copyOf(rules);
+        this.totalCap = cap;
+    }
+
+    /**
+     * The rules {@link uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator} applies.
+     */
+    public static RuleSet defaults(int maxTicketsAllowed) {
+        return parse(List.of(
+                "non-negative-adults = NEGATIVE_TICKETS | adults >= 0",
+                "non-negative-children = NEGATIVE_TICKETS | children >= 0",
+                "non-negative-infants = NEGATIVE_TICKETS | infants >= 0",
+                "max-tickets = TOO_MANY_TICKETS | adults + children + infants <= " + maxTicketsAllowed,
+                "some-tickets = NO_TICKETS | adults + children + infants >= 1",
+                "adult-present = NO_ADULT | adults >= 1 if children + infants >= 1"));
+    }
+
+    public static RuleSet load(Path file) throws IOException {
+        try {
+            return parse(Files.readAllLines(file));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid rule in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static RuleSet parse(List<String> lines) {
+        List<ValidationRule> rules = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                rules.add(parseRule(trimmed));
+            }
+        }
+        return new RuleSet(rules);
+    }
+
+    public List<ValidationRule> rules() {
+        return rules;
+    }
+
+    public int maxTotalTickets() {
+        return (int) totalCap.constraint().bound();
+    }
+
+    /**
+     * The rule giving {@link #maxTotalTickets()}, whose reason is reported for orders over the cap.
+     */
+    public ValidationRule totalCap() {
+        return totalCap;
+    }
+
+    private static ValidationRule parseRule(String line) {
+        int equals = line.indexOf('=');
+        int bar = line.indexOf('|');
+        if (equals < 0 || bar < equals) {
+            throw new IllegalArgumentException("Expected 'name = REASON | constraint' but got: " + line);
+        }
+        String name = line.substring(0, equals).strip();
+        String reason = line.substring(equals + 1, bar).strip();
+        ValidationFailure failure;
+        try {
+            failure = ValidationFailure.valueOf(reason);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown rejection reason " + reason + " in: " + line, e);
+        }
+        String body = line.substring(bar + 1);
+        int guardAt = body.indexOf(" if ");
+        LinearConstraint constraint = ConstraintParser.parse(guardAt < 0 ? body : body.substring(0, guardAt));
+        LinearConstraint guard = guardAt < 0 ? LinearConstraint.ALWAYS : ConstraintParser.parse(body.substring(guardAt + 4));
+        return new ValidationRule(name, failure, constraint, guard);
+    }
+}
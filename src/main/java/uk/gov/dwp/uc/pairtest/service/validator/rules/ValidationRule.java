@@ -0,0 +1,18 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+/**
+ * One business rule: whenever {@code guard} holds, an order must satisfy {@code constraint} or it
+ * is rejected with {@code failure}.
+ */
+public record ValidationRule(String name, ValidationFailure failure, LinearConstraint constraint, LinearConstraint guard) {
+
+    public ValidationRule(String name, ValidationFailure failure, LinearConstraint constraint) {
+        this(name, failure, constraint, LinearConstraint.ALWAYS);
+    }
+
+    public boolean isBrokenBy(int adultTickets, int childTickets, int infantTickets) {
+        return guard.test(adultTickets, childTickets, infantTickets) && !constraint.test(adultTickets, childTickets, infantTickets);
+    }
+}
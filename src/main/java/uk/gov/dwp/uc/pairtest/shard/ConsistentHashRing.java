@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash of account ids onto shard ids. Each shard is placed on the ring at
+ * {@code virtualNodes} points and an account belongs to the first point at or after its own hash,
+ * so adding or removing a shard moves only about {@code 1/n} of the accounts.
+ * <p>
+ * The ring is immutable and lookups are a binary search over a sorted {@code long[]}.
+ */
+public final class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final long[] points;
+    private final int[] owners;
+    private final Set<Integer> shardIds;
+
+    public ConsistentHashRing(Collection<Integer> shardIds) {
+        this(shardIds, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(Collection<Integer> shardIds, int virtualNodes) {
+        if (shardIds.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("At least one shard and one virtual node per shard are required");
+        }
+        Set<Integer> ids = new TreeSet<>(shardIds);
+        long[] keyed = new long[ids.size() * virtualNodes];
+        int[] keyedOwners = new int[keyed.length];
+        int n = 0;
+        for (int shardId : ids) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                keyed[n] = mix(((long) shardId << 32) | replica);
+                keyedOwners[n++] = shardId;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        this.points = new long[n];
+        this.owners = new int[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = keyed[order[i]];
+            owners[i] = keyedOwners[order[i]];
+        }
+        this.shardIds = Set.copyOf(ids);
+    }
+
+    public int shardFor(long accountId) {
+        int index = Arrays.binarySearch(points, mix(accountId ^ 0x5851F42D4C957F2DL));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<Integer> getShardIds() {
+        return shardIds;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
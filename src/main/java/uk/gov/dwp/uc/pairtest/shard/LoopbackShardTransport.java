@@ -0,0 +1,48 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transport to shards running in this JVM. The request array is copied on the way in, as a
+ * network transport would serialise it, so a caller reusing its array cannot change an order
+ * that is still queued.
+ */
+public class LoopbackShardTransport implements ShardTransport {
+
+    private final Map<Integer, PurchaseShard> shards;
+
+    public LoopbackShardTransport(Collection<PurchaseShard> shards) {
+        this.shards = shards.stream().collect(Collectors.toUnmodifiableMap(PurchaseShard::getId, Function.identity()));
+    }
+
+    @Override
+    public CompletableFuture<Void> send(int shardId, TicketOrder order) {
+        PurchaseShard shard = shards.get(shardId);
+        if (shard == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown shard " + shardId));
+        }
+        return shard.submit(order.ticketTypeRequests() == null ? order
+                : new TicketOrder(order.accountId(), order.ticketTypeRequests().clone()));
+    }
+
+    @Override
+    public Set<Integer> getShardIds() {
+        return shards.keySet();
+    }
+
+    public PurchaseShard getShard(int shardId) {
+        return shards.get(shardId);
+    }
+
+    @Override
+    public void close() {
+        shards.values().forEach(PurchaseShard::close);
+    }
+}
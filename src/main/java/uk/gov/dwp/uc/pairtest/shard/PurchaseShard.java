@@ -0,0 +1,209 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One partition of the purchase workload. Each purchase is prepared and completed on the shard's
+ * single writer thread, so the per-account state behind its {@link ShardPurchaseHandler}, such as
+ * rate limits or idempotency keys, is only ever touched by one thread and needs no locking. The
+ * gateway calls in between run on a separate executor, virtual threads by default, so the writer
+ * moves on to other purchases while the gateways respond.
+ * <p>
+ * Up to {@code queueCapacity} purchases may be pending, whether waiting for the writer or at the
+ * gateways; beyond that {@link #submit} fails with {@link RejectedExecutionException}.
+ */
+public class PurchaseShard implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int id;
+    private final ShardPurchaseHandler handler;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor writer;
+    private final Executor gateways;
+    private final boolean ownsGateways;
+    private final long closeTimeoutNanos;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private volatile boolean closed;
+    private volatile long completedPurchases;
+
+    public PurchaseShard(int id, ShardPurchaseHandler handler) {
+        this(id, handler, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public PurchaseShard(int id, ShardPurchaseHandler handler, int queueCapacity) {
+        this(id, handler, queueCapacity, Executors.newVirtualThreadPerTaskExecutor(), true, DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    /**
+     * @param gatewayExecutor runs the gateway calls; left running when the shard is closed
+     */
+    public PurchaseShard(int id, ShardPurchaseHandler handler, int queueCapacity, Executor gatewayExecutor) {
+        this(id, handler, queueCapacity, gatewayExecutor, false, DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    PurchaseShard(int id, ShardPurchaseHandler handler, int queueCapacity, Executor gatewayExecutor, boolean ownsGateways,
+                  Duration closeTimeout) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+        this.id = id;
+        this.handler = handler;
+        this.queueCapacity = queueCapacity;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().daemon().name("purchase-shard-" + id).factory());
+        this.gateways = gatewayExecutor;
+        this.ownsGateways = ownsGateways;
+        this.closeTimeoutNanos = closeTimeout.toNanos();
+    }
+
+    public CompletableFuture<Void> submit(TicketOrder order) {
+        CompletableFuture<Void> purchase = new CompletableFuture<>();
+        if (closed) {
+            purchase.completeExceptionally(new RejectedExecutionException("Shard " + id + " is closed"));
+            return purchase;
+        }
+        if (pending.incrementAndGet() > queueCapacity) {
+            finished();
+            purchase.completeExceptionally(new RejectedExecutionException("Shard " + id + " has " + queueCapacity + " purchases pending"));
+            return purchase;
+        }
+        try {
+            // Each pending purchase has at most one task queued on the writer, so the queue cannot overflow.
+            writer.execute(() -> prepare(order, purchase));
+        } catch (RejectedExecutionException e) {
+            finished();
+            purchase.completeExceptionally(e);
+        }
+        return purchase;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getCompletedPurchases() {
+        return completedPurchases;
+    }
+
+    /**
+     * @return purchases submitted but not yet completed, whether waiting for the writer or at the gateways
+     */
+    public int getPendingPurchases() {
+        return pending.get();
+    }
+
+    /**
+     * Stops taking orders and waits up to the close timeout for pending ones to finish. A purchase
+     * still at the gateways after that has its future completed when the gateways return, without
+     * {@link ShardPurchaseHandler#complete}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (pending.get() == 0) {
+            drained.complete(null);
+        }
+        long deadline = System.nanoTime() + closeTimeoutNanos;
+        try {
+            drained.get(closeTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Give up on stragglers; they complete their futures from the gateway thread.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (ownsGateways) {
+            ((ExecutorService) gateways).shutdown();
+        }
+    }
+
+    private void prepare(TicketOrder order, CompletableFuture<Void> purchase) {
+        TicketCalculationResult result;
+        try {
+            result = handler.prepare(order);
+        } catch (Throwable e) {
+            finished();
+            purchase.completeExceptionally(e);
+            return;
+        }
+        try {
+            gateways.execute(() -> callGateways(order, result, purchase));
+        } catch (RejectedExecutionException e) {
+            complete(order, result, e, purchase);
+        }
+    }
+
+    private void callGateways(TicketOrder order, TicketCalculationResult result, CompletableFuture<Void> purchase) {
+        Throwable failure = null;
+        try {
+            handler.callGateways(order, result);
+        } catch (Throwable e) {
+            failure = e;
+        }
+        Throwable outcome = failure;
+        try {
+            writer.execute(() -> complete(order, result, outcome, purchase));
+        } catch (RejectedExecutionException e) {
+            finished();
+            settle(purchase, outcome);
+        }
+    }
+
+    private void complete(TicketOrder order, TicketCalculationResult result, Throwable failure, CompletableFuture<Void> purchase) {
+        Throwable outcome = failure;
+        try {
+            handler.complete(order, result, failure);
+        } catch (Throwable e) {
+            if (outcome == null) {
+                outcome = e;
+            } else {
+                outcome.addSuppressed(e);
+            }
+        }
+        if (outcome == null) {
+            // Only the writer thread updates the counter, so a volatile increment is enough.
+            completedPurchases++;
+        }
+        finished();
+        settle(purchase, outcome);
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0 && closed) {
+            drained.complete(null);
+        }
+    }
+
+    private static void settle(CompletableFuture<Void> purchase, Throwable failure) {
+        if (failure == null) {
+            purchase.complete(null);
+        } else {
+            purchase.completeExceptionally(failure);
+        }
+    }
+}
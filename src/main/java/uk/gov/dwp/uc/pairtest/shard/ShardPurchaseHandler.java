@@ -0,0 +1,98 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.CompletedPurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+/**
+ * One purchase split around its gateway calls, so that a {@link PurchaseShard} can keep
+ * per-account state on its writer thread without holding the writer while the gateways respond.
+ * {@link #prepare} and {@link #complete} always run on the shard's writer thread;
+ * {@link #callGateways} runs on the shard's gateway executor.
+ */
+public interface ShardPurchaseHandler {
+
+    /**
+     * Validates and prices the order and updates any per-account state, such as rate limits.
+     */
+    TicketCalculationResult prepare(TicketOrder order);
+
+    void callGateways(TicketOrder order, TicketCalculationResult result);
+
+    /**
+     * Called once the gateway calls have returned.
+     *
+     * @param failure what the gateway calls threw, or {@code null} if they succeeded
+     */
+    default void complete(TicketOrder order, TicketCalculationResult result, Throwable failure) {
+    }
+
+    /**
+     * Validates and prices on the writer, then takes payment and reserves seats off it. A payment
+     * whose outcome is unknown is followed by the reservation if it goes through late, through the
+     * outcome of the {@link PurchaseOutcomeUnknownException} the purchase fails with.
+     */
+    static ShardPurchaseHandler of(TicketOrderProcessor processor, TicketPaymentService paymentService,
+                                   SeatReservationService seatService) {
+        return of(processor, paymentService, seatService, CompletedPurchaseListener.noop());
+    }
+
+    /**
+     * As {@link #of(TicketOrderProcessor, TicketPaymentService, SeatReservationService)}, telling
+     * {@code listener} about every completed purchase on the shard's writer thread, or for a
+     * purchase whose outcome was unknown, on the thread that completes it late.
+     */
+    static ShardPurchaseHandler of(TicketOrderProcessor processor, TicketPaymentService paymentService,
+                                   SeatReservationService seatService, CompletedPurchaseListener listener) {
+        CompletedPurchaseListener guarded = CompletedPurchaseListener.guarded(listener);
+        return new ShardPurchaseHandler() {
+            @Override
+            public TicketCalculationResult prepare(TicketOrder order) {
+                return processor.process(order.accountId(), order.ticketTypeRequests());
+            }
+
+            @Override
+            public void callGateways(TicketOrder order, TicketCalculationResult result) {
+                try {
+                    paymentService.makePayment(order.accountId(), result.totalAmount());
+                } catch (PurchaseOutcomeUnknownException e) {
+                    throw late(order, result, e, true);
+                }
+                try {
+                    seatService.reserveSeat(order.accountId(), result.totalSeats());
+                } catch (PurchaseOutcomeUnknownException e) {
+                    throw late(order, result, e, false);
+                }
+            }
+
+            @Override
+            public void complete(TicketOrder order, TicketCalculationResult result, Throwable failure) {
+                if (failure == null) {
+                    completed(order, result);
+                }
+            }
+
+            private PurchaseOutcomeUnknownException late(TicketOrder order, TicketCalculationResult result,
+                                                         PurchaseOutcomeUnknownException unknown, boolean reserve) {
+                return new PurchaseOutcomeUnknownException(unknown.getMessage(), unknown, unknown.outcome().thenApply(done -> {
+                    if (reserve) {
+                        seatService.reserveSeat(order.accountId(), result.totalSeats());
+                    }
+                    completed(order, result);
+                    return new PurchaseReceipt(order.accountId(), result.totalAmount(), result.totalSeats());
+                }));
+            }
+
+            private void completed(TicketOrder order, TicketCalculationResult result) {
+                TicketCounts counts = processor.tally(order.accountId(), order.ticketTypeRequests());
+                guarded.onCompleted(order.accountId(), counts.adultTickets(), counts.childTickets(), counts.infantTickets(), result);
+            }
+        };
+    }
+}
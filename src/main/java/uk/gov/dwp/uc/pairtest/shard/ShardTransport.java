@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carries orders from the router to the shard that owns the account, whether that shard is a
+ * partition in this JVM or a separate node.
+ */
+public interface ShardTransport extends AutoCloseable {
+
+    /**
+     * Delivers the order to the shard. The returned future completes when the shard has finished
+     * the purchase, or fails with the shard's exception, such as
+     * {@link uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException}.
+     */
+    CompletableFuture<Void> send(int shardId, TicketOrder order);
+
+    Set<Integer> getShardIds();
+
+    @Override
+    void close();
+
+}
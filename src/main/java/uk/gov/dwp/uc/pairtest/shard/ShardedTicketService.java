@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+
+/**
+ * Routes each purchase to the shard that owns its account, chosen by a {@link ConsistentHashRing}.
+ * All purchases for an account land on the same shard, so per-account state lives in exactly one
+ * place and shards never coordinate with each other.
+ * <p>
+ * Orders without an account id are routed as account {@code 0} and rejected there by the shard's
+ * own validation.
+ */
+public class ShardedTicketService implements TicketService, AutoCloseable {
+
+    private final ConsistentHashRing ring;
+    private final ShardTransport transport;
+
+    /**
+     * In-process shards connected by a {@link LoopbackShardTransport}.
+     *
+     * @param handlerFactory creates the purchase handler, and the state behind it, for each shard id
+     */
+    public ShardedTicketService(int shardCount, IntFunction<ShardPurchaseHandler> handlerFactory) {
+        this(loopback(shardCount, handlerFactory));
+    }
+
+    public ShardedTicketService(ShardTransport transport) {
+        this(new ConsistentHashRing(transport.getShardIds()), transport);
+    }
+
+    public ShardedTicketService(ConsistentHashRing ring, ShardTransport transport) {
+        if (!transport.getShardIds().containsAll(ring.getShardIds())) {
+            throw new IllegalArgumentException("Transport does not reach every shard on the ring");
+        }
+        this.ring = ring;
+        this.transport = transport;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        try {
+            purchaseTicketsAsync(accountId, ticketTypeRequests).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Void> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return transport.send(shardFor(accountId), new TicketOrder(accountId, ticketTypeRequests));
+    }
+
+    public int shardFor(Long accountId) {
+        return ring.shardFor(accountId == null ? 0 : accountId);
+    }
+
+    public ShardTransport getTransport() {
+        return transport;
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    private static ShardTransport loopback(int shardCount, IntFunction<ShardPurchaseHandler> handlerFactory) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        List<PurchaseShard> shards = new ArrayList<>(shardCount);
+        for (int id = 0; id < shardCount; id++) {
+            shards.add(new PurchaseShard(id, handlerFactory.apply(id)));
+        }
+        return new LoopbackShardTransport(shards);
+    }
+}
@@ -0,0 +1,119 @@
+package uk.gov.dwp.uc.pairtest.throttle;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-account token bucket, implemented as a generic cell rate algorithm: each account keeps a
+ * single "theoretical arrival time" updated by CAS, so acquiring a permit takes no locks.
+ * <p>
+ * Accounts are spread over power-of-two stripes, each holding at most
+ * {@code maxTrackedAccounts / stripes} entries. When a new account finds its stripe full, a clock
+ * hand advances over at most {@value #SWEEP_LIMIT} entries of that stripe, dropping buckets that
+ * have fully refilled, since they carry no information. If none of those has, the scanned bucket
+ * closest to refilled is evicted; that account only loses what little of its burst it had used.
+ * Lookups of tracked accounts never scan.
+ */
+public class AccountRateLimiter {
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int SWEEP_LIMIT = 16;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxAccountsPerStripe;
+    private final LongSupplier nanoClock;
+
+    public AccountRateLimiter(double permitsPerSecond, int burst, int maxTrackedAccounts) {
+        this(permitsPerSecond, burst, maxTrackedAccounts, DEFAULT_STRIPES, System::nanoTime);
+    }
+
+    AccountRateLimiter(double permitsPerSecond, int burst, int maxTrackedAccounts, int stripeCount, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst <= 0 || maxTrackedAccounts <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond, burst and maxTrackedAccounts must be positive");
+        }
+        int stripeSize = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, maxTrackedAccounts)));
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.stripes = new Stripe[stripeSize];
+        for (int i = 0; i < stripeSize; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeSize - 1;
+        this.maxAccountsPerStripe = Math.max(1, maxTrackedAccounts / stripeSize);
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean tryAcquire(long accountId) {
+        long now = nanoClock.getAsLong();
+        AtomicLong arrivalTime = bucket(accountId, now);
+        for (; ; ) {
+            long current = arrivalTime.get();
+            long earliest = current - now > 0 ? current : now;
+            if (earliest - now > burstToleranceNanos) {
+                return false;
+            }
+            if (arrivalTime.compareAndSet(current, earliest + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public int getTrackedAccounts() {
+        int tracked = 0;
+        for (Stripe stripe : stripes) {
+            tracked += stripe.buckets.size();
+        }
+        return tracked;
+    }
+
+    private AtomicLong bucket(long accountId, long now) {
+        Stripe stripe = stripes[spread(accountId) & stripeMask];
+        AtomicLong arrivalTime = stripe.buckets.get(accountId);
+        if (arrivalTime != null) {
+            return arrivalTime;
+        }
+        if (stripe.buckets.size() >= maxAccountsPerStripe) {
+            stripe.makeRoom(now, maxAccountsPerStripe);
+        }
+        return stripe.buckets.computeIfAbsent(accountId, id -> new AtomicLong(now));
+    }
+
+    private static int spread(long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Stripe {
+
+        final ConcurrentHashMap<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private Iterator<Map.Entry<Long, AtomicLong>> hand;
+
+        synchronized void makeRoom(long now, int capacity) {
+            Map.Entry<Long, AtomicLong> victim = null;
+            for (int scanned = 0; scanned < SWEEP_LIMIT && buckets.size() >= capacity; scanned++) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = buckets.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<Long, AtomicLong> entry = hand.next();
+                long arrivalTime = entry.getValue().get();
+                if (arrivalTime - now <= 0) {
+                    hand.remove();
+                } else if (victim == null || arrivalTime - victim.getValue().get() < 0) {
+                    victim = entry;
+                }
+            }
+            if (victim != null && buckets.size() >= capacity) {
+                buckets.remove(victim.getKey(), victim.getValue());
+            }
+        }
+    }
+}
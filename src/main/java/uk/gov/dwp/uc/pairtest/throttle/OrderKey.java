@@ -0,0 +1,33 @@
+package uk.gov.dwp.uc.pairtest.throttle;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * Identity of an order for duplicate suppression: the account and the per-type ticket counts,
+ * regardless of how the counts were split across requests.
+ */
+record OrderKey(long accountId, int adultTickets, int childTickets, int infantTickets) {
+
+    /**
+     * @return the key, or {@code null} if the order is malformed and should be left to the validator
+     */
+    static OrderKey of(Long accountId, TicketTypeRequest[] requests) {
+        if (accountId == null || requests == null) {
+            return null;
+        }
+        int adultTickets = 0;
+        int childTickets = 0;
+        int infantTickets = 0;
+        for (TicketTypeRequest request : requests) {
+            if (request == null || request.type() == null || request.noOfTickets() < 0) {
+                return null;
+            }
+            switch (request.type()) {
+                case ADULT -> adultTickets += request.noOfTickets();
+                case CHILD -> childTickets += request.noOfTickets();
+                case INFANT -> infantTickets += request.noOfTickets();
+            }
+        }
+        return new OrderKey(accountId, adultTickets, childTickets, infantTickets);
+    }
+}
@@ -0,0 +1,73 @@
+package uk.gov.dwp.uc.pairtest.throttle;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseRateLimitedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TicketService} decorator that rate limits each account and collapses identical
+ * concurrent purchases (same account, same ticket counts) into a single call to the delegate.
+ * Duplicates wait for that call and see its outcome. At most {@code maxInFlightOrders} orders are
+ * tracked for de-duplication; beyond that, orders go straight to the delegate.
+ */
+public class ThrottledTicketService implements TicketService {
+
+    private final TicketService delegate;
+    private final AccountRateLimiter rateLimiter;
+    private final int maxInFlightOrders;
+    private final ConcurrentHashMap<OrderKey, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public ThrottledTicketService(TicketService delegate, AccountRateLimiter rateLimiter, int maxInFlightOrders) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.maxInFlightOrders = maxInFlightOrders;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        if (accountId != null && !rateLimiter.tryAcquire(accountId)) {
+            throw new PurchaseRateLimitedException("Too many purchase attempts");
+        }
+
+        OrderKey key = OrderKey.of(accountId, ticketTypeRequests);
+        if (key == null || inFlight.size() >= maxInFlightOrders) {
+            delegate.purchaseTickets(accountId, ticketTypeRequests);
+            return;
+        }
+
+        CompletableFuture<Void> purchase = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(key, purchase);
+        if (existing != null) {
+            awaitDuplicate(existing);
+            return;
+        }
+        try {
+            delegate.purchaseTickets(accountId, ticketTypeRequests);
+            purchase.complete(null);
+        } catch (RuntimeException | Error e) {
+            purchase.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, purchase);
+        }
+    }
+
+    private static void awaitDuplicate(CompletableFuture<Void> purchase) {
+        try {
+            purchase.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
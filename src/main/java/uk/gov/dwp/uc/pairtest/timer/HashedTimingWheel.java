@@ -0,0 +1,205 @@
+package uk.gov.dwp.uc.pairtest.timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel (Varghese &amp; Lauck): a ring of buckets, each covering one tick. A timeout
+ * is hashed to the bucket of its deadline tick and carries the number of full revolutions left,
+ * so scheduling and cancelling are O(1) regardless of how many timeouts are outstanding.
+ * <p>
+ * Timeouts are intrusive list nodes ({@link Timeout} subclasses), so the wheel allocates nothing
+ * per timeout. Each bucket has its own lock, held only to link or unlink a node, and expiry
+ * callbacks run after the lock is released. The wheel is advanced either by the daemon thread
+ * started with {@link #start()} or by calling {@link #advance(long)} directly.
+ */
+public class HashedTimingWheel implements AutoCloseable {
+
+    /**
+     * Base class for anything scheduled on the wheel. A timeout can be scheduled on one wheel at a time.
+     */
+    public abstract static class Timeout {
+        private Timeout prev;
+        private Timeout next;
+        private volatile Bucket bucket;
+        private long remainingRounds;
+
+        /**
+         * Called on the wheel's thread once the deadline has passed. Must not block.
+         */
+        protected abstract void expire();
+
+        public boolean isScheduled() {
+            return bucket != null;
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos;
+    private final LongSupplier nanoClock;
+    private volatile long processedTick;
+    private volatile Thread worker;
+
+    public HashedTimingWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+        this(unit.toNanos(tickDuration), wheelSize, System::nanoTime);
+    }
+
+    HashedTimingWheel(long tickNanos, int wheelSize, LongSupplier nanoClock) {
+        if (tickNanos <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheelSize must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (wheelSize == 1) {
+            size = 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickNanos = tickNanos;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    public void schedule(Timeout timeout, long delay, TimeUnit unit) {
+        if (timeout.isScheduled()) {
+            throw new IllegalStateException("Timeout is already scheduled");
+        }
+        long elapsed = nanoClock.getAsLong() - startNanos + Math.max(0, unit.toNanos(delay));
+        long deadlineTick = (elapsed + tickNanos - 1) / tickNanos;
+        for (; ; ) {
+            long target = Math.max(deadlineTick, processedTick + 1);
+            Bucket bucket = wheel[(int) (target & mask)];
+            synchronized (bucket) {
+                long processed = processedTick;
+                if (target > processed) {
+                    timeout.remainingRounds = (target - processed - 1) / wheel.length;
+                    bucket.add(timeout);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the timeout was still scheduled
+     */
+    public boolean cancel(Timeout timeout) {
+        Bucket bucket = timeout.bucket;
+        if (bucket == null) {
+            return false;
+        }
+        synchronized (bucket) {
+            if (timeout.bucket != bucket) {
+                return false;
+            }
+            bucket.remove(timeout);
+            return true;
+        }
+    }
+
+    /**
+     * Expires every timeout whose deadline is at or before {@code nowNanos}.
+     * Must only be called from one thread at a time.
+     */
+    public void advance(long nowNanos) {
+        long currentTick = (nowNanos - startNanos) / tickNanos;
+        for (long tick = processedTick + 1; tick <= currentTick; tick++) {
+            Timeout expired = processTick(tick);
+            while (expired != null) {
+                Timeout next = expired.next;
+                expired.next = null;
+                expired.expire();
+                expired = next;
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = Thread.ofPlatform().daemon().name("seat-hold-timer").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long nextTickAt = startNanos + (processedTick + 1) * tickNanos;
+                long sleepNanos = nextTickAt - nanoClock.getAsLong();
+                if (sleepNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                advance(nanoClock.getAsLong());
+            }
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Unlinks the due timeouts of one bucket and returns them chained through {@code next}.
+     */
+    private Timeout processTick(long tick) {
+        Bucket bucket = wheel[(int) (tick & mask)];
+        Timeout expired = null;
+        synchronized (bucket) {
+            Timeout timeout = bucket.head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    bucket.remove(timeout);
+                    timeout.next = expired;
+                    expired = timeout;
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            processedTick = tick;
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+
+import java.nio.ByteBuffer;
+
+import static uk.gov.dwp.uc.pairtest.wire.OrderEncoder.*;
+
+/**
+ * Flyweight over an order encoded by {@link OrderEncoder}. It reads fields straight from the
+ * wrapped buffer with absolute gets, so one decoder can be moved across any number of orders
+ * without copying bytes or allocating per order.
+ */
+public final class OrderDecoder {
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * Points the decoder at the order starting at {@code offset}; the buffer is not modified.
+     */
+    public OrderDecoder wrap(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset + ENCODED_LENGTH > buffer.limit()) {
+            throw new IndexOutOfBoundsException("No complete order at offset " + offset);
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public long accountId() {
+        return buffer.getLong(offset + ACCOUNT_OFFSET);
+    }
+
+    public int adultTickets() {
+        return buffer.getShort(offset + ADULT_OFFSET);
+    }
+
+    public int childTickets() {
+        return buffer.getShort(offset + CHILD_OFFSET);
+    }
+
+    public int infantTickets() {
+        return buffer.getShort(offset + INFANT_OFFSET);
+    }
+
+    public int tickets(TicketTypeRequest.Type type) {
+        return switch (type) {
+            case ADULT -> adultTickets();
+            case CHILD -> childTickets();
+            case INFANT -> infantTickets();
+        };
+    }
+
+    public TicketCalculationResult process(TicketOrderProcessor processor) {
+        return processor.process(accountId(), adultTickets(), childTickets(), infantTickets());
+    }
+}
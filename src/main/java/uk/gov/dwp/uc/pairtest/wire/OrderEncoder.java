@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of one order as a fixed 14-byte big-endian record:
+ * <pre>
+ *   0  long   account id
+ *   8  short  adult tickets
+ *  10  short  child tickets
+ *  12  short  infant tickets
+ * </pre>
+ * Line items of the same type are summed, since only the per-type counts matter to validation
+ * and pricing. Fixed-size records let {@link OrderDecoder} read any order in a buffer in place.
+ */
+public final class OrderEncoder {
+
+    public static final int ENCODED_LENGTH = 14;
+
+    static final int ACCOUNT_OFFSET = 0;
+    static final int ADULT_OFFSET = 8;
+    static final int CHILD_OFFSET = 10;
+    static final int INFANT_OFFSET = 12;
+
+    private OrderEncoder() {
+    }
+
+    /**
+     * Writes the order at the buffer's position and advances it.
+     *
+     * @throws IllegalArgumentException if a count does not fit in a signed 16-bit field
+     */
+    public static void encode(ByteBuffer buffer, long accountId, int adultTickets, int childTickets, int infantTickets) {
+        int offset = buffer.position();
+        buffer.putLong(offset + ACCOUNT_OFFSET, accountId)
+                .putShort(offset + ADULT_OFFSET, toShort(adultTickets))
+                .putShort(offset + CHILD_OFFSET, toShort(childTickets))
+                .putShort(offset + INFANT_OFFSET, toShort(infantTickets))
+                .position(offset + ENCODED_LENGTH);
+    }
+
+    /**
+     * Sums the line items per type and writes the order at the buffer's position. A negative
+     * line item is rejected here, since once summed with the others it could no longer be told
+     * apart from a valid count. The sums are checked as they grow, so line items large enough to
+     * wrap an {@code int} are rejected rather than encoded as a small count.
+     *
+     * @throws InvalidPurchaseException with {@link ValidationFailure#NEGATIVE_TICKETS} for a negative line item
+     * @throws IllegalArgumentException if a count does not fit in a signed 16-bit field
+     */
+    public static void encode(ByteBuffer buffer, long accountId, TicketTypeRequest... ticketTypeRequests) {
+        long adultTickets = 0;
+        long childTickets = 0;
+        long infantTickets = 0;
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            if (request.noOfTickets() < 0) {
+                throw ValidationFailure.NEGATIVE_TICKETS.exception();
+            }
+            switch (request.type()) {
+                case ADULT -> adultTickets = toShort(adultTickets + request.noOfTickets());
+                case CHILD -> childTickets = toShort(childTickets + request.noOfTickets());
+                case INFANT -> infantTickets = toShort(infantTickets + request.noOfTickets());
+            }
+        }
+        encode(buffer, accountId, (int) adultTickets, (int) childTickets, (int) infantTickets);
+    }
+
+    private static short toShort(long tickets) {
+        if (tickets < Short.MIN_VALUE || tickets > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Ticket count " + tickets + " cannot be encoded");
+        }
+        return (short) tickets;
+    }
+}
@@ -0,0 +1,97 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the orders of a file written by {@link OrderFileWriter} through a fixed direct buffer,
+ * so files larger than memory are read with no allocation per order:
+ * <pre>
+ *   OrderDecoder order = new OrderDecoder();
+ *   while (reader.next(order)) {
+ *       order.process(processor);
+ *   }
+ * </pre>
+ */
+public class OrderFileReader implements AutoCloseable {
+
+    /**
+     * "TKT1"
+     */
+    public static final int MAGIC = 0x544B5431;
+
+    private static final int BUFFER_ORDERS = 4096;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean endOfStream;
+
+    public OrderFileReader(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ), BUFFER_ORDERS);
+    }
+
+    OrderFileReader(ReadableByteChannel channel, int bufferOrders) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferOrders * OrderEncoder.ENCODED_LENGTH + Integer.BYTES).limit(0);
+        boolean orderFile;
+        try {
+            orderFile = fill(Integer.BYTES) && buffer.getInt() == MAGIC;
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        if (!orderFile) {
+            channel.close();
+            throw new IOException("Not an order file");
+        }
+    }
+
+    /**
+     * Points {@code decoder} at the next order. The decoder is valid until the following call.
+     *
+     * @return {@code false} at the end of the file
+     * @throws IOException if the file ends part way through an order
+     */
+    public boolean next(OrderDecoder decoder) throws IOException {
+        if (!fill(OrderEncoder.ENCODED_LENGTH)) {
+            if (buffer.hasRemaining()) {
+                throw new IOException("Order file is truncated");
+            }
+            return false;
+        }
+        decoder.wrap(buffer, buffer.position());
+        buffer.position(buffer.position() + OrderEncoder.ENCODED_LENGTH);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Ensures at least {@code bytes} are readable, moving any partial order to the front of
+     * the buffer before reading more.
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (!endOfStream && buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                endOfStream = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file of encoded orders: the {@link OrderFileReader#MAGIC} header followed by
+ * back-to-back {@link OrderEncoder} records.
+ */
+public class OrderFileWriter implements AutoCloseable {
+
+    private static final int BUFFER_ORDERS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_ORDERS * OrderEncoder.ENCODED_LENGTH);
+
+    public OrderFileWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(OrderFileReader.MAGIC);
+    }
+
+    public void write(long accountId, int adultTickets, int childTickets, int infantTickets) throws IOException {
+        if (buffer.remaining() < OrderEncoder.ENCODED_LENGTH) {
+            flush();
+        }
+        OrderEncoder.encode(buffer, accountId, adultTickets, childTickets, infantTickets);
+    }
+
+    public void write(long accountId, TicketTypeRequest... ticketTypeRequests) throws IOException {
+        if (buffer.remaining() < OrderEncoder.ENCODED_LENGTH) {
+            flush();
+        }
+        OrderEncoder.encode(buffer, accountId, ticketTypeRequests);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
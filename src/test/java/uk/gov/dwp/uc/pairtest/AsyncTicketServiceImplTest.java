@@ -0,0 +1,183 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTicketServiceImplTest {
+
+    @Mock
+    private TicketPaymentService paymentService;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldPayThenReserveAndReturnReceipt() throws Exception {
+        try (AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(paymentService, seatReservationService, processor)) {
+            PurchaseReceipt receipt = service.purchaseTicketsAsync(5L,
+                    new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 2), new TicketTypeRequest(INFANT, 1)).get();
+
+            assertEquals(new PurchaseReceipt(5L, 80, 4), receipt);
+            InOrder inOrder = inOrder(paymentService, seatReservationService);
+            inOrder.verify(paymentService).makePayment(5L, 80);
+            inOrder.verify(seatReservationService).reserveSeat(5L, 4);
+            assertEquals(0, service.getInFlightPurchases());
+        }
+    }
+
+    @Test
+    void shouldRunGatewayCallsOnVirtualThreadsByDefault() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        TicketPaymentService recordingPayment = (accountId, amount) -> virtual.set(Thread.currentThread().isVirtual());
+        try (AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(recordingPayment, seatReservationService, processor)) {
+            service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1)).get();
+        }
+
+        assertTrue(virtual.get());
+    }
+
+    @Test
+    void shouldFailFutureWithoutCallingGatewaysWhenOrderIsInvalid() {
+        AsyncTicketService service = new AsyncTicketServiceImpl(paymentService, seatReservationService, processor,
+                executor, 10, Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+        CompletableFuture<PurchaseReceipt> future = service.purchaseTicketsAsync(1L, new TicketTypeRequest(CHILD, 1));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(InvalidPurchaseException.class, exception.getCause());
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+
+    @Test
+    void shouldReportSlowPaymentAsUnknownAndStillReserveWhenItSucceeds() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TicketPaymentService slowPayment = (accountId, amount) -> await(release);
+        AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(slowPayment, seatReservationService, processor,
+                executor, 10, Duration.ofMillis(50), Duration.ofSeconds(5));
+
+        CompletableFuture<PurchaseReceipt> future = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        PurchaseOutcomeUnknownException unknown = assertInstanceOf(PurchaseOutcomeUnknownException.class, exception.getCause());
+        assertInstanceOf(TimeoutException.class, unknown.getCause());
+        verifyNoInteractions(seatReservationService);
+        assertEquals(1, service.getInFlightPurchases());
+
+        release.countDown();
+        assertEquals(new PurchaseReceipt(1L, 25, 1), unknown.outcome().get(5, TimeUnit.SECONDS));
+        verify(seatReservationService).reserveSeat(1L, 1);
+        assertEquals(0, service.getInFlightPurchases());
+    }
+
+    @Test
+    void shouldReserveWhenPaymentReportedUnknownGoesThroughLate() throws Exception {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("Payment timed out", null, late)).when(paymentService).makePayment(1L, 25);
+        AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(paymentService, seatReservationService, processor,
+                executor, 10, Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+        CompletableFuture<PurchaseReceipt> future = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        PurchaseOutcomeUnknownException unknown = assertInstanceOf(PurchaseOutcomeUnknownException.class, exception.getCause());
+        verifyNoInteractions(seatReservationService);
+
+        late.complete(null);
+        assertEquals(new PurchaseReceipt(1L, 25, 1), unknown.outcome().get(5, TimeUnit.SECONDS));
+        verify(seatReservationService).reserveSeat(1L, 1);
+        assertEquals(0, service.getInFlightPurchases());
+    }
+
+    @Test
+    void shouldHoldPermitUntilTimedOutCallReturns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TicketPaymentService slowPayment = (accountId, amount) -> await(release);
+        AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(slowPayment, seatReservationService, processor,
+                executor, 1, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        CompletableFuture<PurchaseReceipt> first = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+        assertThrows(ExecutionException.class, first::get);
+        CompletableFuture<PurchaseReceipt> second = service.purchaseTicketsAsync(2L, new TicketTypeRequest(ADULT, 1));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, second::get);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        release.countDown();
+    }
+
+    @Test
+    void shouldFailWithGatewayErrorWhenPaymentFailsInTime() {
+        doThrow(new IllegalStateException("Declined")).when(paymentService).makePayment(1L, 25);
+        AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(paymentService, seatReservationService, processor,
+                executor, 10, Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1)).get());
+
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        verifyNoInteractions(seatReservationService);
+        assertEquals(0, service.getInFlightPurchases());
+    }
+
+    @Test
+    void shouldRejectPurchasesBeyondInFlightLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TicketPaymentService blockedPayment = (accountId, amount) -> await(release);
+        AsyncTicketServiceImpl service = new AsyncTicketServiceImpl(blockedPayment, seatReservationService, processor,
+                executor, 1, Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+        CompletableFuture<PurchaseReceipt> first = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+        CompletableFuture<PurchaseReceipt> second = service.purchaseTicketsAsync(2L, new TicketTypeRequest(ADULT, 1));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, second::get);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(1, service.getInFlightPurchases());
+
+        release.countDown();
+        assertEquals(new PurchaseReceipt(1L, 25, 1), first.get());
+        assertEquals(0, service.getInFlightPurchases());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.gateway.BatchSeatReservationService;
+import uk.gov.dwp.uc.pairtest.gateway.BatchTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.gateway.GatewayBatchResult;
+import uk.gov.dwp.uc.pairtest.gateway.Payment;
+import uk.gov.dwp.uc.pairtest.gateway.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTicketServiceImplTest {
+
+    @Mock
+    private BatchTicketPaymentService batchPaymentService;
+
+    @Mock
+    private BatchSeatReservationService batchSeatService;
+
+    @Mock
+    private TicketPaymentService paymentService;
+
+    @Mock
+    private SeatReservationService seatService;
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+
+    private final TicketOrder family = new TicketOrder(1L,
+            new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1), new TicketTypeRequest(INFANT, 1));
+    private final TicketOrder childOnly = new TicketOrder(2L, new TicketTypeRequest(CHILD, 1));
+    private final TicketOrder single = new TicketOrder(3L, new TicketTypeRequest(ADULT, 1));
+
+    @Test
+    void shouldCoalesceGatewayCallsAndReportPerOrderOutcomes() {
+        when(batchPaymentService.makePayments(anyList())).thenReturn(GatewayBatchResult.allSucceeded());
+        when(batchSeatService.reserveSeats(anyList())).thenReturn(GatewayBatchResult.allSucceeded());
+        BatchTicketService service = new BatchTicketServiceImpl(batchPaymentService, batchSeatService, processor);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, childOnly, single));
+
+        verify(batchPaymentService).makePayments(List.of(new Payment(1L, 65), new Payment(3L, 25)));
+        verify(batchSeatService).reserveSeats(List.of(new SeatAllocation(1L, 3), new SeatAllocation(3L, 1)));
+        assertEquals(PurchaseOutcome.Status.COMPLETED, outcomes.get(0).status());
+        assertEquals(65, outcomes.get(0).result().totalAmount());
+        assertEquals(PurchaseOutcome.Status.REJECTED, outcomes.get(1).status());
+        assertInstanceOf(InvalidPurchaseException.class, outcomes.get(1).failure());
+        assertTrue(outcomes.get(2).isCompleted());
+    }
+
+    @Test
+    void shouldNotReserveSeatsForOrdersWhosePaymentFailed() {
+        RuntimeException declined = new IllegalStateException("declined");
+        when(batchPaymentService.makePayments(anyList())).thenReturn(new GatewayBatchResult(Map.of(0, declined)));
+        when(batchSeatService.reserveSeats(anyList())).thenReturn(GatewayBatchResult.allSucceeded());
+        BatchTicketService service = new BatchTicketServiceImpl(batchPaymentService, batchSeatService, processor);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, single));
+
+        verify(batchSeatService).reserveSeats(List.of(new SeatAllocation(3L, 1)));
+        assertEquals(PurchaseOutcome.Status.FAILED, outcomes.get(0).status());
+        assertSame(declined, outcomes.get(0).failure());
+        assertTrue(outcomes.get(1).isCompleted());
+    }
+
+    @Test
+    void shouldReportPaidOrdersWhoseReservationFailed() {
+        RuntimeException soldOut = new IllegalStateException("sold out");
+        when(batchPaymentService.makePayments(anyList())).thenReturn(GatewayBatchResult.allSucceeded());
+        when(batchSeatService.reserveSeats(anyList())).thenReturn(new GatewayBatchResult(Map.of(1, soldOut)));
+        BatchTicketService service = new BatchTicketServiceImpl(batchPaymentService, batchSeatService, processor);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, single));
+
+        assertTrue(outcomes.get(0).isCompleted());
+        assertEquals(PurchaseOutcome.Status.PAID_NOT_RESERVED, outcomes.get(1).status());
+        assertSame(soldOut, outcomes.get(1).failure());
+        assertEquals(25, outcomes.get(1).result().totalAmount());
+    }
+
+    @Test
+    void shouldReserveForAPaymentThatGoesThroughAfterItsOutcomeWasUnknown() throws Exception {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        when(batchPaymentService.makePayments(anyList())).thenReturn(new GatewayBatchResult(Map.of(
+                0, new PurchaseOutcomeUnknownException("payment timed out", null, late))));
+        when(batchSeatService.reserveSeats(anyList())).thenReturn(GatewayBatchResult.allSucceeded());
+        CompletedPurchaseListener listener = mock(CompletedPurchaseListener.class);
+        BatchTicketService service = new BatchTicketServiceImpl(batchPaymentService, batchSeatService, processor, listener);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, single));
+
+        assertEquals(PurchaseOutcome.Status.OUTCOME_UNKNOWN, outcomes.get(0).status());
+        assertTrue(outcomes.get(1).isCompleted());
+        verify(batchSeatService).reserveSeats(List.of(new SeatAllocation(3L, 1)));
+
+        late.complete(null);
+        PurchaseOutcomeUnknownException unknown = (PurchaseOutcomeUnknownException) outcomes.get(0).failure();
+        assertEquals(new PurchaseReceipt(1L, 65, 3), unknown.outcome().get());
+        verify(batchSeatService).reserveSeats(List.of(new SeatAllocation(1L, 3)));
+        verify(listener).onCompleted(1L, 2, 1, 1, outcomes.get(0).result());
+    }
+
+    @Test
+    void shouldReportOnlyCompletedOrdersToListener() {
+        when(batchPaymentService.makePayments(anyList())).thenReturn(new GatewayBatchResult(Map.of(1, new IllegalStateException("declined"))));
+        when(batchSeatService.reserveSeats(anyList())).thenReturn(GatewayBatchResult.allSucceeded());
+        CompletedPurchaseListener listener = mock(CompletedPurchaseListener.class);
+        BatchTicketService service = new BatchTicketServiceImpl(batchPaymentService, batchSeatService, processor, listener);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, childOnly, single));
+
+        verify(listener).onCompleted(1L, 2, 1, 1, outcomes.get(0).result());
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void shouldFailEveryPendingOrderWhenBatchCallThrows() {
+        when(batchPaymentService.makePayments(anyList())).thenThrow(new IllegalStateException("gateway down"));
+        BatchTicketService service = new BatchTicketServiceImpl(batchPaymentService, batchSeatService, processor);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, childOnly, single));
+
+        assertEquals(PurchaseOutcome.Status.FAILED, outcomes.get(0).status());
+        assertEquals(PurchaseOutcome.Status.REJECTED, outcomes.get(1).status());
+        assertEquals(PurchaseOutcome.Status.FAILED, outcomes.get(2).status());
+        verifyNoInteractions(batchSeatService);
+    }
+
+    @Test
+    void shouldFallBackToPerCallGatewaysWhenNotBatchCapable() {
+        doThrow(new IllegalStateException("declined")).when(paymentService).makePayment(1L, 65);
+        BatchTicketService service = new BatchTicketServiceImpl(paymentService, seatService, processor);
+
+        List<PurchaseOutcome> outcomes = service.purchaseTicketsBatch(List.of(family, single));
+
+        verify(paymentService).makePayment(3L, 25);
+        verify(seatService).reserveSeat(3L, 1);
+        verifyNoMoreInteractions(seatService);
+        assertEquals(PurchaseOutcome.Status.FAILED, outcomes.get(0).status());
+        assertTrue(outcomes.get(1).isCompleted());
+    }
+}
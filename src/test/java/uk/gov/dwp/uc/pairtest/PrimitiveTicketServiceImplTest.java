@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrimitiveTicketServiceImplTest {
+
+    @Mock
+    private TicketPaymentService paymentService;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @Test
+    void shouldPurchaseRequestsAndCountsThroughSamePath() {
+        TicketOrderProcessor realProcessor = new TicketOrderProcessor(new TicketRequestValidator(25, true), new PriceCalculator());
+        PrimitiveTicketServiceImpl purchaser = new PrimitiveTicketServiceImpl(paymentService, seatReservationService, realProcessor);
+        TicketService service = new TicketServiceImpl(purchaser);
+
+        service.purchaseTickets(1L, new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(CHILD, 1), new TicketTypeRequest(ADULT, 1));
+        purchaser.purchaseTickets(2L, 2, 1, 1);
+
+        verify(paymentService).makePayment(1L, 65);
+        verify(seatReservationService).reserveSeat(1L, 3);
+        verify(paymentService).makePayment(2L, 65);
+        verify(seatReservationService).reserveSeat(2L, 3);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 1, 0, 0",
+            "1, 0, 1, 0",
+            "1, 26, 0, 0",
+            "1, 1, -1, 0"
+    })
+    void shouldRejectInvalidCountsWithoutCallingGateways(long accountId, int adults, int children, int infants) {
+        TicketOrderProcessor realProcessor = new TicketOrderProcessor(new TicketRequestValidator(25, true), new PriceCalculator());
+        PrimitiveTicketService service = new PrimitiveTicketServiceImpl(paymentService, seatReservationService, realProcessor);
+
+        assertThrows(InvalidPurchaseException.class, () -> service.purchaseTickets(accountId, adults, children, infants));
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+}
@@ -0,0 +1,137 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScreeningTicketServiceImplTest {
+
+    private static final long PREMIERE = 42L;
+
+    @Mock
+    private TicketPaymentService paymentService;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    private final SeatInventory inventory = new SeatInventory();
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+    private ScreeningTicketService service;
+
+    @BeforeEach
+    void setUp() {
+        inventory.addScreening(PREMIERE, 3);
+        service = new ScreeningTicketServiceImpl(paymentService, seatReservationService, processor, inventory);
+    }
+
+    @Test
+    void shouldTakeSeatsFromInventoryAndCallGateways() {
+        service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(INFANT, 1));
+
+        verify(paymentService).makePayment(1L, 50);
+        verify(seatReservationService).reserveSeat(1L, 2);
+        assertEquals(1, inventory.remaining(PREMIERE));
+    }
+
+    @Test
+    void shouldRejectSoldOutOrderBeforePayment() {
+        assertThrows(SoldOutException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 4)));
+
+        verifyNoInteractions(paymentService, seatReservationService);
+        assertEquals(3, inventory.remaining(PREMIERE));
+    }
+
+    @Test
+    void shouldReturnSeatsWhenPaymentFails() {
+        doThrow(new IllegalStateException("declined")).when(paymentService).makePayment(1L, 75);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 3)));
+
+        assertEquals(3, inventory.remaining(PREMIERE));
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    void shouldHoldSeatsUntilAPaymentOfUnknownOutcomeAnswers() throws Exception {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("timed out", null, late)).when(paymentService).makePayment(1L, 50);
+
+        PurchaseOutcomeUnknownException unknown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 2)));
+        assertEquals(1, inventory.remaining(PREMIERE));
+        verifyNoInteractions(seatReservationService);
+
+        late.complete(null);
+        assertEquals(new PurchaseReceipt(1L, 50, 2), unknown.outcome().get());
+        verify(seatReservationService).reserveSeat(1L, 2);
+        assertEquals(1, inventory.remaining(PREMIERE));
+    }
+
+    @Test
+    void shouldReturnSeatsOnceAPaymentOfUnknownOutcomeTurnsOutDeclined() {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("timed out", null, late)).when(paymentService).makePayment(1L, 50);
+
+        PurchaseOutcomeUnknownException unknown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 2)));
+        late.completeExceptionally(new IllegalStateException("declined"));
+
+        assertThrows(ExecutionException.class, () -> unknown.outcome().get());
+        assertEquals(3, inventory.remaining(PREMIERE));
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    void shouldRefundAndReturnSeatsWhenReservationFailsAfterPayment() {
+        RefundableTicketPaymentService refundable = mock(RefundableTicketPaymentService.class);
+        ScreeningTicketService service = new ScreeningTicketServiceImpl(refundable, seatReservationService, processor, inventory);
+        doThrow(new IllegalStateException("sold out upstream")).when(seatReservationService).reserveSeat(1L, 2);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 2)));
+
+        verify(refundable).refundPayment(1L, 50);
+        assertEquals(3, inventory.remaining(PREMIERE));
+    }
+
+    @Test
+    void shouldKeepSeatsHeldForAPaidOrderThatCannotBeRefunded() {
+        doThrow(new IllegalStateException("sold out upstream")).when(seatReservationService).reserveSeat(1L, 2);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(ADULT, 2)));
+
+        assertEquals(1, inventory.remaining(PREMIERE));
+    }
+
+    @Test
+    void shouldNotTouchInventoryForInvalidOrder() {
+        assertThrows(InvalidPurchaseException.class,
+                () -> service.purchaseTickets(PREMIERE, 1L, new TicketTypeRequest(CHILD, 1)));
+
+        assertEquals(3, inventory.remaining(PREMIERE));
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.dwp.uc.pairtest;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,9 +13,25 @@ import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.gateway.ReleasableSeatReservationService;
+import uk.gov.dwp.uc.pairtest.metrics.LockFreePurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.MetricsSnapshot;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
 import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
 import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
@@ -30,25 +47,43 @@ class TicketServiceImplTest {
     @Mock
     private TicketOrderProcessor processor;
 
+    @Mock
+    private RefundableTicketPaymentService refundablePaymentService;
+
+    @Mock
+    private ReleasableSeatReservationService releasableSeatService;
+
     private TicketService ticketService;
 
+    private final ExecutorService pipelineExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     @BeforeEach
     void setUp() {
         ticketService = new TicketServiceImpl(paymentService, seatReservationService, processor);
     }
 
+    @AfterEach
+    void tearDown() {
+        pipelineExecutor.close();
+    }
+
+    private void givenOrder(long accountId, int adults, int children, int infants, TicketCalculationResult result,
+                            TicketTypeRequest... requests) {
+        when(processor.tally(accountId, requests)).thenReturn(new TicketCounts(adults, children, infants));
+        when(processor.process(accountId, adults, children, infants)).thenReturn(result);
+    }
+
     @Test
     void shouldCallProcessorPaymentAndSeatServicesInCorrectOrder() {
         TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
 
-        when(processor.process(1L, adult))
-                .thenReturn(new TicketCalculationResult(25, 1));
+        givenOrder(1L, 1, 0, 0, new TicketCalculationResult(25, 1), adult);
 
         InOrder inOrder = inOrder(processor, paymentService, seatReservationService);
 
         ticketService.purchaseTickets(1L, adult);
 
-        inOrder.verify(processor).process(1L, adult);
+        inOrder.verify(processor).process(1L, 1, 0, 0);
         inOrder.verify(paymentService).makePayment(1L, 25);
         inOrder.verify(seatReservationService).reserveSeat(1L, 1);
     }
@@ -59,13 +94,14 @@ class TicketServiceImplTest {
 
         TicketTypeRequest child = new TicketTypeRequest(CHILD, 1);
 
-        when(processor.process(1L, child))
+        when(processor.tally(1L, child)).thenReturn(new TicketCounts(0, 1, 0));
+        when(processor.process(1L, 0, 1, 0))
                 .thenThrow(new InvalidPurchaseException());
 
         assertThrows(InvalidPurchaseException.class,
                 () -> ticketService.purchaseTickets(1L, child));
 
-        verify(processor).process(1L, child);
+        verify(processor).process(1L, 0, 1, 0);
         verifyNoInteractions(paymentService);
         verifyNoInteractions(seatReservationService);
     }
@@ -77,8 +113,7 @@ class TicketServiceImplTest {
         TicketTypeRequest children = new TicketTypeRequest(CHILD, 2);
         TicketTypeRequest infants = new TicketTypeRequest(INFANT, 1);
 
-        when(processor.process(5L, adults, children, infants))
-                .thenReturn(new TicketCalculationResult(80, 4));
+        givenOrder(5L, 2, 2, 1, new TicketCalculationResult(80, 4), adults, children, infants);
 
         ticketService.purchaseTickets(5L, adults, children, infants);
 
@@ -92,8 +127,7 @@ class TicketServiceImplTest {
         TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
         TicketTypeRequest infants = new TicketTypeRequest(INFANT, 3);
 
-        when(processor.process(7L, adult, infants))
-                .thenReturn(new TicketCalculationResult(25, 1));
+        givenOrder(7L, 1, 0, 3, new TicketCalculationResult(25, 1), adult, infants);
 
         ticketService.purchaseTickets(7L, adult, infants);
 
@@ -107,8 +141,7 @@ class TicketServiceImplTest {
         TicketTypeRequest adults = new TicketTypeRequest(ADULT, 15);
         TicketTypeRequest children = new TicketTypeRequest(CHILD, 10);
 
-        when(processor.process(99L, adults, children))
-                .thenReturn(new TicketCalculationResult(525, 25));
+        givenOrder(99L, 15, 10, 0, new TicketCalculationResult(525, 25), adults, children);
 
         ticketService.purchaseTickets(99L, adults, children);
 
@@ -124,13 +157,231 @@ class TicketServiceImplTest {
     void shouldHandleAdultOnlyPurchases(int quantity, int expectedAmount, int expectedSeats) {
         TicketTypeRequest adults = new TicketTypeRequest(ADULT, quantity);
 
-        when(processor.process(1L, adults))
-                .thenReturn(new TicketCalculationResult(expectedAmount, expectedSeats));
+        givenOrder(1L, quantity, 0, 0, new TicketCalculationResult(expectedAmount, expectedSeats), adults);
 
         ticketService.purchaseTickets(1L, adults);
 
-        verify(processor).process(1L, adults);
+        verify(processor).process(1L, quantity, 0, 0);
         verify(paymentService).makePayment(1L, expectedAmount);
         verify(seatReservationService).reserveSeat(1L, expectedSeats);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldIssuePaymentAndReservationInPipelinedMode() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor));
+
+        pipelined.purchaseTickets(3L, adults);
+
+        verify(refundablePaymentService).makePayment(3L, 50);
+        verify(releasableSeatService).reserveSeat(3L, 2);
+        verify(refundablePaymentService, never()).refundPayment(anyLong(), anyInt());
+        verify(releasableSeatService, never()).releaseSeat(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldRefundPaymentWhenReservationFailsInPipelinedMode() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        RuntimeException soldOut = new IllegalStateException("sold out");
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        doThrow(soldOut).when(releasableSeatService).reserveSeat(3L, 2);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor));
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> pipelined.purchaseTickets(3L, adults));
+
+        assertSame(soldOut, thrown);
+        verify(refundablePaymentService).refundPayment(3L, 50);
+    }
+
+    @Test
+    void shouldReleaseSeatsWhenPaymentFailsInPipelinedMode() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        RuntimeException declined = new IllegalStateException("declined");
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        doThrow(declined).when(refundablePaymentService).makePayment(3L, 50);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor));
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> pipelined.purchaseTickets(3L, adults));
+
+        assertSame(declined, thrown);
+        verify(releasableSeatService).releaseSeat(3L, 2);
+    }
+
+    @Test
+    void shouldNotCompensateWhenBothLegsFailInPipelinedMode() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        RuntimeException declined = new IllegalStateException("declined");
+        RuntimeException soldOut = new IllegalStateException("sold out");
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        doThrow(declined).when(refundablePaymentService).makePayment(3L, 50);
+        doThrow(soldOut).when(releasableSeatService).reserveSeat(3L, 2);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor));
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> pipelined.purchaseTickets(3L, adults));
+
+        assertSame(declined, thrown);
+        assertEquals(1, thrown.getSuppressed().length);
+        verify(refundablePaymentService, never()).refundPayment(anyLong(), anyInt());
+        verify(releasableSeatService, never()).releaseSeat(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldReserveSeatsOnceLatePaymentGoesThrough() throws Exception {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        CompletableFuture<PurchaseReceipt> latePayment = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("Payment gateway did not respond", null, latePayment))
+                .when(paymentService).makePayment(3L, 50);
+
+        PurchaseOutcomeUnknownException thrown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> ticketService.purchaseTickets(3L, adults));
+        verifyNoInteractions(seatReservationService);
+
+        latePayment.complete(null);
+        assertEquals(new PurchaseReceipt(3L, 50, 2), thrown.outcome().get(5, TimeUnit.SECONDS));
+        verify(seatReservationService).reserveSeat(3L, 2);
+    }
+
+    @Test
+    void shouldRefundLatePaymentWhenReservationFailsInPipelinedMode() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        RuntimeException soldOut = new IllegalStateException("sold out");
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        CompletableFuture<PurchaseReceipt> latePayment = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("Payment gateway did not respond", null, latePayment))
+                .when(refundablePaymentService).makePayment(3L, 50);
+        doThrow(soldOut).when(releasableSeatService).reserveSeat(3L, 2);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor));
+
+        PurchaseOutcomeUnknownException thrown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> pipelined.purchaseTickets(3L, adults));
+        verify(refundablePaymentService, never()).refundPayment(anyLong(), anyInt());
+
+        latePayment.complete(null);
+        assertSame(soldOut, assertThrows(Exception.class, () -> thrown.outcome().get(5, TimeUnit.SECONDS)).getCause());
+        verify(refundablePaymentService).refundPayment(3L, 50);
+        verify(releasableSeatService, never()).releaseSeat(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldReleaseSeatsWhenLatePaymentFailsInPipelinedMode() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        RuntimeException declined = new IllegalStateException("declined");
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        CompletableFuture<PurchaseReceipt> latePayment = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("Payment gateway did not respond", null, latePayment))
+                .when(refundablePaymentService).makePayment(3L, 50);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor));
+
+        PurchaseOutcomeUnknownException thrown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> pipelined.purchaseTickets(3L, adults));
+        verify(releasableSeatService, never()).releaseSeat(anyLong(), anyInt());
+
+        latePayment.completeExceptionally(declined);
+        assertSame(declined, assertThrows(Exception.class, () -> thrown.outcome().get(5, TimeUnit.SECONDS)).getCause());
+        verify(releasableSeatService).releaseSeat(3L, 2);
+    }
+
+    @Test
+    void shouldRecordAcceptedPurchaseAndStageLatencies() {
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+        givenOrder(1L, 1, 0, 0, new TicketCalculationResult(25, 1), adult);
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        TicketService instrumented = new TicketServiceImpl(
+                new PrimitiveTicketServiceImpl(paymentService, seatReservationService, processor, metrics));
+
+        instrumented.purchaseTickets(1L, adult);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.accepted());
+        assertEquals(1, snapshot.latencies().get(PurchaseStage.CALCULATION).count());
+        assertEquals(1, snapshot.latencies().get(PurchaseStage.PAYMENT).count());
+        assertEquals(1, snapshot.latencies().get(PurchaseStage.RESERVATION).count());
+    }
+
+    @Test
+    void shouldRecordRejectionByReason() {
+        TicketTypeRequest child = new TicketTypeRequest(CHILD, 1);
+        when(processor.tally(1L, child)).thenReturn(new TicketCounts(0, 1, 0));
+        when(processor.process(1L, 0, 1, 0)).thenThrow(new InvalidPurchaseException(ValidationFailure.NO_ADULT));
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        TicketService instrumented = new TicketServiceImpl(
+                new PrimitiveTicketServiceImpl(paymentService, seatReservationService, processor, metrics));
+
+        assertThrows(InvalidPurchaseException.class, () -> instrumented.purchaseTickets(1L, child));
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.accepted());
+        assertEquals(1, snapshot.rejections().get(ValidationFailure.NO_ADULT));
+        assertEquals(0, snapshot.latencies().get(PurchaseStage.PAYMENT).count());
+    }
+
+    @Test
+    void shouldRecordMalformedOrderRejectedWhileTallying() {
+        TicketTypeRequest negative = new TicketTypeRequest(ADULT, -1);
+        when(processor.tally(1L, negative)).thenThrow(ValidationFailure.NEGATIVE_TICKETS.exception());
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        TicketService instrumented = new TicketServiceImpl(
+                new PrimitiveTicketServiceImpl(paymentService, seatReservationService, processor, metrics));
+
+        assertThrows(InvalidPurchaseException.class, () -> instrumented.purchaseTickets(1L, negative));
+
+        assertEquals(1, metrics.snapshot().rejections().get(ValidationFailure.NEGATIVE_TICKETS));
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+
+    @Test
+    void shouldReportCompletedPurchaseWithChargedResult() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        TicketTypeRequest infant = new TicketTypeRequest(INFANT, 1);
+        TicketCalculationResult result = new TicketCalculationResult(50, 2);
+        givenOrder(1L, 2, 0, 1, result, adults, infant);
+        CompletedPurchaseListener listener = mock(CompletedPurchaseListener.class);
+        TicketService listened = new TicketServiceImpl(
+                new PrimitiveTicketServiceImpl(paymentService, seatReservationService, processor, PurchaseMetrics.noop(), listener));
+
+        listened.purchaseTickets(1L, adults, infant);
+
+        InOrder inOrder = inOrder(paymentService, seatReservationService, listener);
+        inOrder.verify(paymentService).makePayment(1L, 50);
+        inOrder.verify(seatReservationService).reserveSeat(1L, 2);
+        inOrder.verify(listener).onCompleted(1L, 2, 0, 1, result);
+    }
+
+    @Test
+    void shouldCompletePurchaseWhenListenerThrows() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        givenOrder(1L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        CompletedPurchaseListener listener = (accountId, adultTickets, childTickets, infantTickets, result) -> {
+            throw new IllegalStateException("report unavailable");
+        };
+        TicketService listened = new TicketServiceImpl(
+                new PrimitiveTicketServiceImpl(paymentService, seatReservationService, processor, PurchaseMetrics.noop(), listener));
+
+        listened.purchaseTickets(1L, adults);
+
+        verify(seatReservationService).reserveSeat(1L, 2);
+    }
+
+    @Test
+    void shouldNotReportPurchaseWhenGatewayFails() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        givenOrder(3L, 2, 0, 0, new TicketCalculationResult(50, 2), adults);
+        doThrow(new IllegalStateException("sold out")).when(releasableSeatService).reserveSeat(3L, 2);
+        CompletedPurchaseListener listener = mock(CompletedPurchaseListener.class);
+        TicketService pipelined = new TicketServiceImpl(
+                PrimitiveTicketServiceImpl.pipelined(refundablePaymentService, releasableSeatService, processor, pipelineExecutor,
+                        PurchaseMetrics.noop(), listener));
+
+        assertThrows(IllegalStateException.class, () -> pipelined.purchaseTickets(3L, adults));
+
+        verifyNoInteractions(listener);
+    }
+}
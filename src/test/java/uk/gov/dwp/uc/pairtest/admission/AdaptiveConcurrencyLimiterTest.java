@@ -0,0 +1,104 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AdmissionPolicy policy = new AdmissionPolicy(10, 2, 100, Duration.ofNanos(WINDOW), 0.5);
+    private long now;
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(policy, () -> now);
+
+    /**
+     * Runs one window with the limiter saturated and every call taking {@code latencyMillis}.
+     */
+    private void saturatedWindow(long latencyMillis) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted - 1; i++) {
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+        now += WINDOW;
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    }
+
+    @Test
+    void shouldShedBeyondLimitAndCountIt() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getShedCount());
+        assertEquals(10, limiter.getInFlight());
+
+        limiter.onIgnored();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldGrowWhileLatencyHoldsSteady() {
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(10);
+        }
+
+        assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldNotGrowWhenLimitIsNotUsed() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            now += WINDOW;
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(10);
+        }
+        int grown = limiter.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            saturatedWindow(100);
+        }
+
+        assertTrue(limiter.getLimit() < grown * 0.6, grown + " -> " + limiter.getLimit());
+    }
+
+    @Test
+    void shouldBackOffOnDropsButNotBelowMinimum() {
+        assertTrue(limiter.tryAcquire());
+        now += WINDOW;
+        limiter.onDropped();
+        assertEquals(5, limiter.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            now += WINDOW;
+            limiter.onDropped();
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void shouldRejectInconsistentPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionPolicy(1, 2, 10, Duration.ofMillis(100), 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionPolicy(5, 2, 10, Duration.ZERO, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionPolicy(5, 2, 10, Duration.ofMillis(100), 1.0));
+    }
+}
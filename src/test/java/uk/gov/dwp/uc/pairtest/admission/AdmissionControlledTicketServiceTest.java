@@ -0,0 +1,86 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.ServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlledTicketServiceTest {
+
+    private static final TicketTypeRequest ADULTS = new TicketTypeRequest(ADULT, 2);
+
+    @Mock
+    private TicketService delegate;
+
+    private long now;
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(new AdmissionPolicy(1, 1, 10, Duration.ofSeconds(1), 0.5), () -> now);
+
+    private AdmissionControlledTicketService service() {
+        return new AdmissionControlledTicketService(delegate, limiter, () -> now);
+    }
+
+    @Test
+    void shouldShedWithOverloadRatherThanInvalidPurchase() throws InterruptedException {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inside.countDown();
+            release.await();
+            return null;
+        }).when(delegate).purchaseTickets(1L, ADULTS);
+        AdmissionControlledTicketService service = service();
+        Thread first = Thread.ofPlatform().start(() -> service.purchaseTickets(1L, ADULTS));
+        inside.await();
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class, () -> service.purchaseTickets(2L, ADULTS));
+
+        assertFalse(InvalidPurchaseException.class.isInstance(e));
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(1, limiter.getShedCount());
+        verify(delegate, never()).purchaseTickets(eq(2L), any());
+        release.countDown();
+        first.join();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldReleasePermitOnInvalidPurchase() {
+        doThrow(new InvalidPurchaseException("No adult tickets found")).when(delegate).purchaseTickets(1L, ADULTS);
+
+        assertThrows(InvalidPurchaseException.class, () -> service().purchaseTickets(1L, ADULTS));
+        now += Duration.ofSeconds(1).toNanos();
+        assertThrows(InvalidPurchaseException.class, () -> service().purchaseTickets(1L, ADULTS));
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void shouldBackOffWhenGatewayFails() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdmissionPolicy(8, 1, 10, Duration.ofSeconds(1), 0.5), () -> now);
+        doThrow(new GatewayUnavailableException("Payment gateway circuit is open")).when(delegate).purchaseTickets(1L, ADULTS);
+        AdmissionControlledTicketService service = new AdmissionControlledTicketService(delegate, limiter, () -> now);
+
+        now += Duration.ofSeconds(1).toNanos();
+        assertThrows(GatewayUnavailableException.class, () -> service.purchaseTickets(1L, ADULTS));
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
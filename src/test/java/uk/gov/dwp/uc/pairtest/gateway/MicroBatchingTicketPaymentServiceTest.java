@@ -0,0 +1,142 @@
+package uk.gov.dwp.uc.pairtest.gateway;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatchingTicketPaymentServiceTest {
+
+    private final List<List<Payment>> batches = new CopyOnWriteArrayList<>();
+    private volatile long gatewayDelayMillis;
+    private volatile Throwable batchFailure;
+
+    private final BatchTicketPaymentService gateway = new BatchTicketPaymentService() {
+        @Override
+        public void makePayment(long accountId, int totalAmountToPay) {
+            makePayments(List.of(new Payment(accountId, totalAmountToPay)));
+        }
+
+        @Override
+        public GatewayBatchResult makePayments(List<Payment> payments) {
+            batches.add(List.copyOf(payments));
+            if (gatewayDelayMillis > 0) {
+                try {
+                    Thread.sleep(gatewayDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (batchFailure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (batchFailure instanceof Error e) {
+                throw e;
+            }
+            Map<Integer, RuntimeException> failures = new HashMap<>();
+            for (int i = 0; i < payments.size(); i++) {
+                if (payments.get(i).totalAmountToPay() < 0) {
+                    failures.put(i, new IllegalArgumentException("Declined " + payments.get(i).accountId()));
+                }
+            }
+            return new GatewayBatchResult(failures);
+        }
+    };
+
+    private final MicroBatchingTicketPaymentService batcher =
+            new MicroBatchingTicketPaymentService(gateway, 64, Duration.ofMillis(1), 1_000);
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    void shouldSendLonePaymentWithoutWaitingForBatch() {
+        batcher.makePayment(1L, 25);
+
+        assertEquals(List.of(List.of(new Payment(1L, 25))), batches);
+        assertEquals(1, batcher.getBatchLimit());
+        assertEquals(Duration.ZERO, batcher.getLinger());
+    }
+
+    @Test
+    void shouldCombineConcurrentPaymentsIntoFewerGatewayCalls() {
+        gatewayDelayMillis = 5;
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(batcher.submit(i, 10));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(200, batcher.getPaymentsFlushed());
+        assertEquals(200, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batcher.getBatchesFlushed() < 50, "batches: " + batcher.getBatchesFlushed());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 64));
+    }
+
+    @Test
+    void shouldFailOnlyTheDeclinedPayment() {
+        CompletableFuture<Void> declined = batcher.submit(2L, -1);
+        batcher.makePayment(1L, 25);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+            try {
+                declined.join();
+            } catch (RuntimeException wrapped) {
+                throw wrapped.getCause();
+            }
+        });
+        assertEquals("Declined 2", e.getMessage());
+    }
+
+    @Test
+    void shouldRethrowGatewayFailureToCaller() {
+        batchFailure = new IllegalStateException("Gateway down");
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.makePayment(1L, 25));
+        assertEquals("Gateway down", e.getMessage());
+    }
+
+    @Test
+    void shouldKeepFlushingAfterGatewayThrowsError() {
+        batchFailure = new AssertionError("Gateway bug");
+        assertThrows(AssertionError.class, () -> batcher.makePayment(1L, 25));
+
+        batchFailure = null;
+        batcher.makePayment(2L, 25);
+
+        assertEquals(2, batcher.getPaymentsFlushed());
+    }
+
+    @Test
+    void shouldCloseWithoutEverStartingFlusher() {
+        MicroBatchingTicketPaymentService unused = new MicroBatchingTicketPaymentService(gateway);
+        unused.close();
+
+        assertThrows(IllegalStateException.class, () -> unused.makePayment(1L, 25));
+        assertEquals(0, unused.getBatchesFlushed());
+    }
+
+    @Test
+    void shouldSendQueuedPaymentsBeforeClosing() {
+        gatewayDelayMillis = 20;
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(batcher.submit(i, 10));
+        }
+        batcher.close();
+
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(10, batcher.getPaymentsFlushed());
+        assertThrows(IllegalStateException.class, () -> batcher.makePayment(1L, 25));
+    }
+}
@@ -0,0 +1,142 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.CompletedPurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentTicketServiceImplTest {
+
+    @Mock
+    private TicketPaymentService paymentService;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, Duration.ofMinutes(5));
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+    private IdempotentTicketService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotentTicketServiceImpl(paymentService, seatReservationService, processor, store);
+    }
+
+    @Test
+    void shouldAnswerRetryFromStoreWithoutCallingGateways() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+
+        PurchaseReceipt first = service.purchaseTickets("order-1", 1L, adults);
+        PurchaseReceipt retry = service.purchaseTickets("order-1", 1L, adults);
+
+        assertEquals(new PurchaseReceipt(1L, 50, 2), first);
+        assertEquals(first, retry);
+        verify(paymentService, times(1)).makePayment(1L, 50);
+        verify(seatReservationService, times(1)).reserveSeat(1L, 2);
+        assertEquals(1, store.stats().hits());
+    }
+
+    @Test
+    void shouldPurchaseAgainForDifferentKey() {
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+
+        service.purchaseTickets("order-1", 1L, adult);
+        service.purchaseTickets("order-2", 1L, adult);
+
+        verify(paymentService, times(2)).makePayment(1L, 25);
+    }
+
+    @Test
+    void shouldAllowRetryAfterFailedPurchase() {
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+        doThrow(new IllegalStateException("timeout")).doNothing().when(paymentService).makePayment(1L, 25);
+
+        assertThrows(IllegalStateException.class, () -> service.purchaseTickets("order-1", 1L, adult));
+        PurchaseReceipt receipt = service.purchaseTickets("order-1", 1L, adult);
+
+        assertEquals(new PurchaseReceipt(1L, 25, 1), receipt);
+        verify(seatReservationService, times(1)).reserveSeat(1L, 1);
+    }
+
+    @Test
+    void shouldRejectKeyReusedByAnotherAccount() {
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+        service.purchaseTickets("order-1", 1L, adult);
+
+        assertThrows(InvalidPurchaseException.class, () -> service.purchaseTickets("order-1", 2L, adult));
+        verify(paymentService, never()).makePayment(eq(2L), anyInt());
+    }
+
+    @Test
+    void shouldOnlyReserveWhenRetryingPaidPurchase() {
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        doThrow(new IllegalStateException("seats unavailable")).doNothing().when(seatReservationService).reserveSeat(1L, 2);
+
+        assertThrows(IllegalStateException.class, () -> service.purchaseTickets("order-1", 1L, adults));
+        PurchaseReceipt receipt = service.purchaseTickets("order-1", 1L, adults);
+
+        assertEquals(new PurchaseReceipt(1L, 50, 2), receipt);
+        verify(paymentService, times(1)).makePayment(1L, 50);
+        verify(seatReservationService, times(2)).reserveSeat(1L, 2);
+    }
+
+    @Test
+    void shouldReportPurchaseOnceAcrossRetries() {
+        CompletedPurchaseListener listener = mock(CompletedPurchaseListener.class);
+        IdempotentTicketService service = new IdempotentTicketServiceImpl(paymentService, seatReservationService, processor, store, listener);
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+        doThrow(new IllegalStateException("seats unavailable")).doNothing().when(seatReservationService).reserveSeat(1L, 2);
+
+        assertThrows(IllegalStateException.class, () -> service.purchaseTickets("order-1", 1L, adults));
+        service.purchaseTickets("order-1", 1L, adults);
+        service.purchaseTickets("order-1", 1L, adults);
+
+        verify(listener, times(1)).onCompleted(eq(1L), eq(2), eq(0), eq(0), any());
+    }
+
+    @Test
+    void shouldOnlyWriteTheStoreWhenTheRecordChanges() {
+        IdempotencyStore store = spy(new InMemoryIdempotencyStore(100, Duration.ofMinutes(5)));
+        IdempotentTicketService service = new IdempotentTicketServiceImpl(paymentService, seatReservationService, processor, store);
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+
+        service.purchaseTickets("order-1", 1L, adults);
+        service.purchaseTickets("order-1", 1L, adults);
+        service.purchaseTickets("order-1", 1L, adults);
+
+        verify(store, times(2)).put(eq("order-1"), any());
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentOrder() {
+        service.purchaseTickets("order-1", 1L, new TicketTypeRequest(ADULT, 1));
+
+        assertThrows(InvalidPurchaseException.class,
+                () -> service.purchaseTickets("order-1", 1L, new TicketTypeRequest(ADULT, 3)));
+        verify(paymentService, times(1)).makePayment(eq(1L), anyInt());
+    }
+
+    @Test
+    void shouldRequireIdempotencyKey() {
+        assertThrows(InvalidPurchaseException.class,
+                () -> service.purchaseTickets(null, 1L, new TicketTypeRequest(ADULT, 1)));
+        verifyNoInteractions(paymentService, seatReservationService);
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketCounts;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final IdempotencyRecord record = new IdempotencyRecord(1L, new TicketCounts(1, 0, 0), new TicketCalculationResult(25, 1), true);
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(1), clock::get);
+
+        assertNull(store.get("a"));
+        store.put("a", record);
+
+        assertEquals(record, store.get("a"));
+        assertEquals(new IdempotencyStats(1, 1, 0), store.stats());
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofSeconds(1), clock::get);
+        store.put("a", record);
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertNull(store.get("a"));
+        assertEquals(1, store.stats().evictions());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void shouldEvictOldestEntriesBeyondMaxSize() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(1), clock::get);
+
+        store.put("a", record);
+        store.put("b", record);
+        store.put("c", record);
+
+        assertEquals(2, store.size());
+        assertNull(store.get("a"));
+        assertNotNull(store.get("b"));
+        assertNotNull(store.get("c"));
+        assertEquals(1, store.stats().evictions());
+    }
+
+    @Test
+    void shouldKeepAReplacedKeyWhenItsOldEntryReachesTheHead() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(1), clock::get);
+
+        store.put("a", record);
+        store.put("a", record);
+        store.put("b", record);
+        store.put("c", record);
+
+        assertEquals(2, store.size());
+        assertNull(store.get("a"));
+        assertNotNull(store.get("b"));
+        assertNotNull(store.get("c"));
+        assertEquals(1, store.stats().evictions());
+    }
+}
@@ -0,0 +1,87 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatInventoryTest {
+
+    private final SeatInventory inventory = new SeatInventory(4);
+
+    @Test
+    void shouldAcquireUntilSoldOut() {
+        inventory.addScreening(1L, 10);
+
+        assertTrue(inventory.tryAcquire(1L, 6));
+        assertTrue(inventory.tryAcquire(1L, 4));
+        assertFalse(inventory.tryAcquire(1L, 1));
+        assertEquals(0, inventory.remaining(1L));
+    }
+
+    @Test
+    void shouldGatherSeatsSpreadAcrossSegments() {
+        inventory.addScreening(1L, 8);
+
+        assertTrue(inventory.tryAcquire(1L, 7));
+        assertEquals(1, inventory.remaining(1L));
+        assertFalse(inventory.tryAcquire(1L, 2));
+        assertEquals(1, inventory.remaining(1L));
+    }
+
+    @Test
+    void shouldReturnReleasedSeats() {
+        inventory.addScreening(1L, 3);
+        inventory.tryAcquire(1L, 3);
+
+        inventory.release(1L, 2);
+
+        assertEquals(2, inventory.remaining(1L));
+        assertTrue(inventory.tryAcquire(1L, 2));
+    }
+
+    @Test
+    void shouldKeepScreeningsIndependent() {
+        inventory.addScreening(1L, 2);
+        inventory.addScreening(2L, 5);
+
+        assertFalse(inventory.tryAcquire(1L, 3));
+        assertTrue(inventory.tryAcquire(2L, 3));
+        assertEquals(5, inventory.capacity(2L));
+    }
+
+    @Test
+    void shouldRejectUnknownOrDuplicateScreening() {
+        inventory.addScreening(1L, 2);
+
+        assertThrows(InvalidPurchaseException.class, () -> inventory.tryAcquire(9L, 1));
+        assertThrows(IllegalStateException.class, () -> inventory.addScreening(1L, 2));
+    }
+
+    @Test
+    void shouldNeverOversellUnderContention() {
+        int capacity = 5_000;
+        inventory.addScreening(1L, capacity);
+        AtomicInteger sold = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int t = 0; t < 16; t++) {
+                int seats = 1 + t % 3;
+                executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        if (inventory.tryAcquire(1L, seats)) {
+                            sold.addAndGet(seats);
+                        }
+                    }
+                });
+            }
+        }
+
+        assertTrue(sold.get() <= capacity);
+        assertEquals(capacity - sold.get(), inventory.remaining(1L));
+    }
+}
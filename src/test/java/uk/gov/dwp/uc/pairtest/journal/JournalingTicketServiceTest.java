@@ -0,0 +1,192 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.gateway.ReleasableSeatReservationService;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalingTicketServiceTest {
+
+    @Mock
+    private RefundableTicketPaymentService paymentService;
+
+    @Mock
+    private ReleasableSeatReservationService seatService;
+
+    @TempDir
+    Path dir;
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+    private PurchaseJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new PurchaseJournal(dir.resolve("purchases.journal"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    private JournalingTicketService service() {
+        return new JournalingTicketService(paymentService, seatService, processor, journal);
+    }
+
+    private PurchaseJournal reopen() {
+        journal.close();
+        journal = new PurchaseJournal(dir.resolve("purchases.journal"));
+        return journal;
+    }
+
+    @Test
+    void shouldLeaveNothingToRecoverAfterSuccessfulPurchase() {
+        service().purchaseTickets(1L, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1));
+
+        verify(paymentService).makePayment(1L, 65);
+        verify(seatService).reserveSeat(1L, 3);
+        assertTrue(reopen().incompletePurchases().isEmpty());
+    }
+
+    @Test
+    void shouldNotJournalInvalidOrder() {
+        assertThrows(InvalidPurchaseException.class, () -> service().purchaseTickets(1L, new TicketTypeRequest(CHILD, 1)));
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    void shouldRefundWhenReservationFails() {
+        doThrow(new IllegalStateException("No seats")).when(seatService).reserveSeat(1L, 1);
+
+        assertThrows(IllegalStateException.class, () -> service().purchaseTickets(1L, new TicketTypeRequest(ADULT, 1)));
+
+        verify(paymentService).refundPayment(1L, 25);
+        assertTrue(reopen().incompletePurchases().isEmpty());
+    }
+
+    @Test
+    void shouldKeepPaidPurchaseWhenRefundAlsoFails() {
+        doThrow(new IllegalStateException("No seats")).when(seatService).reserveSeat(1L, 1);
+        doThrow(new IllegalStateException("Refunds down")).when(paymentService).refundPayment(1L, 25);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service().purchaseTickets(1L, new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(INFANT, 1)));
+
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals(List.of(new JournalRecord(1, 1L, 1, 0, 1, 25, 1, PurchaseState.PAID)), reopen().incompletePurchases());
+    }
+
+    @Test
+    void shouldRefundPaymentThatCouldNotBeJournalledAsPaid() {
+        PurchaseJournal failing = mock(PurchaseJournal.class);
+        when(failing.nextPurchaseId()).thenReturn(1L);
+        lenient().doThrow(new IllegalStateException("Purchase journal could not be forced to disk"))
+                .when(failing).appendDurable(new JournalRecord(1, 1L, 1, 0, 0, 25, 1, PurchaseState.PAID));
+        JournalingTicketService service = new JournalingTicketService(paymentService, seatService, processor, failing);
+
+        assertThrows(IllegalStateException.class, () -> service.purchaseTickets(1L, new TicketTypeRequest(ADULT, 1)));
+
+        verify(paymentService).refundPayment(1L, 25);
+        verify(failing).append(new JournalRecord(1, 1L, 1, 0, 0, 25, 1, PurchaseState.COMPENSATED));
+        verifyNoInteractions(seatService);
+    }
+
+    @Test
+    void shouldReplayPaidPurchasesAndReportInDoubtOnes() {
+        journal.append(new JournalRecord(1, 7L, 2, 0, 0, 50, 2, PurchaseState.STARTED));
+        journal.append(new JournalRecord(2, 8L, 1, 0, 0, 25, 1, PurchaseState.STARTED));
+        journal.appendDurable(new JournalRecord(2, 8L, 1, 0, 0, 25, 1, PurchaseState.PAID));
+        reopen();
+
+        RecoveryReport report = service().recover(RecoveryMode.REPLAY);
+
+        verify(seatService).reserveSeat(8L, 1);
+        verifyNoInteractions(paymentService);
+        assertEquals(1, report.replayed());
+        assertEquals(List.of(new JournalRecord(1, 7L, 2, 0, 0, 50, 2, PurchaseState.STARTED)), report.inDoubt());
+        assertEquals(List.of(1L), reopen().incompletePurchases().stream().map(JournalRecord::purchaseId).toList());
+    }
+
+    @Test
+    void shouldCompensatePaidPurchasesAndKeepFailuresForRetry() {
+        journal.appendDurable(new JournalRecord(1, 7L, 2, 0, 0, 50, 2, PurchaseState.PAID));
+        journal.appendDurable(new JournalRecord(2, 8L, 1, 0, 0, 25, 1, PurchaseState.PAID));
+        lenient().doThrow(new IllegalStateException("Refunds down")).when(paymentService).refundPayment(8L, 25);
+        reopen();
+
+        RecoveryReport report = service().recover(RecoveryMode.COMPENSATE);
+
+        verify(paymentService).refundPayment(7L, 50);
+        assertEquals(1, report.compensated());
+        assertEquals(1, report.unresolved().size());
+        assertEquals(2L, reopen().incompletePurchases().get(0).purchaseId());
+    }
+
+    @Test
+    void shouldFinishPurchaseWhenPaymentOfUnknownOutcomeGoesThroughLate() throws Exception {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("Payment timed out", null, late)).when(paymentService).makePayment(1L, 25);
+
+        PurchaseOutcomeUnknownException unknown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> service().purchaseTickets(1L, new TicketTypeRequest(ADULT, 1)));
+        late.complete(null);
+
+        assertEquals(new PurchaseReceipt(1L, 25, 1), unknown.outcome().get());
+        verify(seatService).reserveSeat(1L, 1);
+        assertTrue(reopen().incompletePurchases().isEmpty());
+    }
+
+    @Test
+    void shouldJournalFailureWhenPaymentOfUnknownOutcomeIsDeclined() {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        doThrow(new PurchaseOutcomeUnknownException("Payment timed out", null, late)).when(paymentService).makePayment(1L, 25);
+
+        PurchaseOutcomeUnknownException unknown = assertThrows(PurchaseOutcomeUnknownException.class,
+                () -> service().purchaseTickets(1L, new TicketTypeRequest(ADULT, 1)));
+        late.completeExceptionally(new IllegalStateException("Declined"));
+
+        assertThrows(Exception.class, () -> unknown.outcome().get());
+        verifyNoInteractions(seatService);
+        assertTrue(reopen().incompletePurchases().isEmpty());
+    }
+
+    @Test
+    void shouldCloseInDoubtPurchasesOnceTheirChargeIsKnown() {
+        JournalRecord charged = new JournalRecord(1, 7L, 2, 0, 0, 50, 2, PurchaseState.STARTED);
+        JournalRecord uncharged = new JournalRecord(2, 8L, 1, 0, 0, 25, 1, PurchaseState.STARTED);
+        journal.append(charged);
+        journal.appendDurable(uncharged);
+        reopen();
+
+        JournalingTicketService service = service();
+        service.resolveInDoubt(charged, true, RecoveryMode.REPLAY);
+        service.resolveInDoubt(uncharged, false, RecoveryMode.REPLAY);
+
+        verify(seatService).reserveSeat(7L, 2);
+        verifyNoInteractions(paymentService);
+        assertTrue(reopen().incompletePurchases().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> service().resolveInDoubt(charged.withState(PurchaseState.PAID), true, RecoveryMode.REPLAY));
+    }
+}
@@ -0,0 +1,224 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurchaseJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static JournalRecord record(long purchaseId, PurchaseState state) {
+        return new JournalRecord(purchaseId, 100 + purchaseId, 2, 1, 1, 65, 3, state);
+    }
+
+    private PurchaseJournal open() {
+        return new PurchaseJournal(dir.resolve("purchases.journal"), 16, Duration.ofMillis(1));
+    }
+
+    @Test
+    void shouldReportUnfinishedPurchasesAfterReopen() {
+        try (PurchaseJournal journal = open()) {
+            journal.append(record(1, PurchaseState.STARTED));
+            journal.append(record(2, PurchaseState.STARTED));
+            journal.append(record(1, PurchaseState.PAID));
+            journal.append(record(3, PurchaseState.STARTED));
+            journal.append(record(3, PurchaseState.FAILED));
+            journal.appendDurable(record(1, PurchaseState.COMPLETED));
+            journal.appendDurable(record(4, PurchaseState.PAID));
+        }
+
+        try (PurchaseJournal journal = open()) {
+            assertEquals(List.of(record(2, PurchaseState.STARTED), record(4, PurchaseState.PAID)), journal.incompletePurchases());
+            assertEquals(7, journal.size());
+            assertEquals(5, journal.nextPurchaseId());
+        }
+    }
+
+    @Test
+    void shouldSpanSeveralRegions() {
+        try (PurchaseJournal journal = open()) {
+            for (int i = 1; i <= 50; i++) {
+                journal.append(record(i, PurchaseState.PAID));
+            }
+            journal.awaitDurable(journal.size());
+        }
+
+        try (PurchaseJournal journal = open()) {
+            assertEquals(50, journal.incompletePurchases().size());
+            assertEquals(50, journal.size());
+        }
+    }
+
+    @Test
+    void shouldSkipTornRecord() throws IOException {
+        Path file = dir.resolve("purchases.journal");
+        try (PurchaseJournal journal = open()) {
+            journal.append(record(1, PurchaseState.STARTED));
+            journal.append(record(2, PurchaseState.STARTED));
+            journal.appendDurable(record(2, PurchaseState.PAID));
+        }
+        try (FileChannel channel = FileChannel.open(PurchaseJournal.segment(file, 0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), PurchaseJournal.RECORD_SIZE * 2L + 20);
+        }
+
+        try (PurchaseJournal journal = open()) {
+            assertEquals(List.of(record(1, PurchaseState.STARTED), record(2, PurchaseState.STARTED)), journal.incompletePurchases());
+            assertEquals(2, journal.size());
+        }
+    }
+
+    @Test
+    void shouldClearTornSlotsAfterTheLastRecordOnOpen() throws IOException {
+        Path file = dir.resolve("purchases.journal");
+        try (PurchaseJournal journal = open()) {
+            journal.appendDurable(record(1, PurchaseState.STARTED));
+        }
+        long tornChecksum = PurchaseJournal.RECORD_SIZE * 3L + 60;
+        try (FileChannel channel = FileChannel.open(PurchaseJournal.segment(file, 0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), tornChecksum);
+        }
+
+        try (PurchaseJournal journal = open()) {
+            assertEquals(1, journal.size());
+            journal.appendDurable(record(2, PurchaseState.STARTED));
+        }
+        try (FileChannel channel = FileChannel.open(PurchaseJournal.segment(file, 0), StandardOpenOption.READ)) {
+            ByteBuffer checksum = ByteBuffer.allocate(4);
+            channel.read(checksum, tornChecksum);
+            assertArrayEquals(new byte[4], checksum.array());
+        }
+    }
+
+    @Test
+    void shouldCheckpointAndDropSettledSegments() throws Exception {
+        Path file = dir.resolve("purchases.journal");
+        try (PurchaseJournal journal = open()) {
+            journal.append(record(journal.nextPurchaseId(), PurchaseState.PAID));
+            for (int i = 0; i < 1_000; i++) {
+                long purchaseId = journal.nextPurchaseId();
+                journal.append(record(purchaseId, PurchaseState.STARTED));
+                journal.append(record(purchaseId, PurchaseState.COMPLETED));
+            }
+            journal.awaitDurable(journal.size());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (segments(file) > 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(segments(file) <= 3, "segments: " + segments(file));
+        }
+
+        try (PurchaseJournal journal = open()) {
+            assertEquals(List.of(record(1, PurchaseState.PAID)), journal.incompletePurchases());
+            assertTrue(journal.nextPurchaseId() > 1_001);
+        }
+    }
+
+    @Test
+    void shouldFailJournalWhenClaimedSlotCannotBeMapped() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            try (PurchaseJournal journal = open()) {
+                IllegalStateException failure = null;
+                for (long purchaseId = 1; failure == null; purchaseId++) {
+                    try {
+                        journal.append(record(purchaseId, PurchaseState.STARTED));
+                    } catch (IllegalStateException e) {
+                        // A checkpoint copy on the flusher may hit the limit first.
+                        failure = e.getCause() instanceof IllegalStateException cause ? cause : e;
+                    }
+                }
+                long position = journal.size();
+                IllegalStateException waited = assertThrows(IllegalStateException.class, () -> journal.awaitDurable(position));
+                assertSame(failure, waited.getCause());
+                assertThrows(IllegalStateException.class, () -> journal.append(record(0, PurchaseState.STARTED)));
+            }
+        });
+    }
+
+    @Test
+    void shouldFailJournalWhenCheckpointFindsCorruptRecord() throws IOException {
+        Path file = dir.resolve("purchases.journal");
+        try (PurchaseJournal journal = open()) {
+            journal.appendDurable(record(journal.nextPurchaseId(), PurchaseState.PAID));
+            try (FileChannel channel = FileChannel.open(PurchaseJournal.segment(file, 0), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{42}), 20);
+            }
+
+            IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                while (true) {
+                    try {
+                        long purchaseId = journal.nextPurchaseId();
+                        journal.append(record(purchaseId, PurchaseState.STARTED));
+                        journal.appendDurable(record(purchaseId, PurchaseState.COMPLETED));
+                    } catch (IllegalStateException e) {
+                        return e;
+                    }
+                }
+            });
+            assertTrue(failure.getCause().getMessage().contains("corrupt"), failure.getCause().getMessage());
+        }
+    }
+
+    private static long segments(Path file) throws IOException {
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            return files.filter(path -> path.getFileName().toString().startsWith("purchases.journal.")).count();
+        }
+    }
+
+    @Test
+    void shouldMakeConcurrentAppendsDurable() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PurchaseJournal journal = open()) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        journal.appendDurable(record(thread * 1_000L + i, PurchaseState.STARTED));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (PurchaseJournal journal = open()) {
+            assertEquals(1_600, journal.incompletePurchases().size());
+        }
+    }
+
+    @Test
+    void shouldRejectAppendAfterClose() {
+        PurchaseJournal journal = open();
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.append(record(1, PurchaseState.STARTED)));
+    }
+
+    @Test
+    void shouldNeverProduceZeroChecksum() {
+        for (int i = 0; i < 10_000; i++) {
+            assertNotEquals(0, PurchaseJournal.checksum(record(i, PurchaseState.values()[i % 5])));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReportEmptySnapshot() {
+        assertEquals(new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0), new LatencyHistogram().snapshot());
+    }
+
+    @Test
+    void shouldKeepSmallValuesExact() {
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.upperBound(LatencyHistogram.bucketOf(value)));
+        }
+    }
+
+    @Test
+    void shouldBoundRelativeErrorOfBuckets() {
+        for (long value = 16; value < 1L << 40; value = value * 3 + 1) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.bucketOf(value));
+            assertTrue(upper >= value);
+            assertTrue(upper - value <= value / 16, "bucket for " + value + " ends at " + upper);
+        }
+        assertTrue(LatencyHistogram.bucketOf(Long.MAX_VALUE) < LatencyHistogram.BUCKETS);
+    }
+
+    @Test
+    void shouldComputePercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500, snapshot.mean(), 0.001);
+        assertEquals(1_000_000, snapshot.max());
+        assertEquals(500_000, snapshot.p50(), 500_000 / 16.0);
+        assertEquals(990_000, snapshot.p99(), 990_000 / 16.0);
+    }
+
+    @Test
+    void shouldCountConcurrentRecordings() {
+        LatencyHistogram histogram = new LatencyHistogram(8);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i);
+                    }
+                });
+            }
+        }
+
+        assertEquals(80_000, histogram.snapshot().count());
+    }
+}
@@ -0,0 +1,62 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockFreePurchaseMetricsTest {
+
+    @Test
+    void shouldCountOutcomesByReason() {
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+
+        metrics.recordAccepted();
+        metrics.recordAccepted();
+        metrics.recordRejected(ValidationFailure.TOO_MANY_TICKETS);
+        metrics.recordRejected(null);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.accepted());
+        assertEquals(1, snapshot.rejections().get(ValidationFailure.TOO_MANY_TICKETS));
+        assertEquals(0, snapshot.rejections().get(ValidationFailure.NO_ADULT));
+        assertEquals(1, snapshot.unclassifiedRejections());
+    }
+
+    @Test
+    void shouldRecordLatencyPerStage() {
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+
+        metrics.recordLatency(PurchaseStage.PAYMENT, 1_000);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.latencies().get(PurchaseStage.PAYMENT).count());
+        assertEquals(0, snapshot.latencies().get(PurchaseStage.RESERVATION).count());
+    }
+
+    @Test
+    void shouldSampleLatencyAtConfiguredRate() {
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics(10);
+
+        int sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (metrics.sampleLatency()) {
+                sampled++;
+            }
+        }
+
+        assertTrue(sampled > 9_000 && sampled < 11_000, "sampled " + sampled);
+        assertTrue(new LockFreePurchaseMetrics().sampleLatency());
+        assertFalse(PurchaseMetrics.noop().sampleLatency());
+    }
+
+    @Test
+    void shouldClassifyValidatorExceptions() {
+        assertEquals(ValidationFailure.NO_ADULT, ValidationFailure.NO_ADULT.exception().getFailure());
+        assertEquals(ValidationFailure.INVALID_ACCOUNT,
+                new InvalidPurchaseException(ValidationFailure.INVALID_ACCOUNT).getFailure());
+        assertNull(new InvalidPurchaseException("Invalid account id").getFailure());
+        assertNull(new InvalidPurchaseException("other").getFailure());
+    }
+}
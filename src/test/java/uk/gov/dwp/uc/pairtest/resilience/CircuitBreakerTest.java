@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1_000, clock::get);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldResetFailureCountOnSuccess() {
+        fail(2);
+        breaker.onSuccess();
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldLetSingleProbeThroughAfterOpenDuration() {
+        fail(3);
+        clock.set(999);
+        assertFalse(breaker.tryAcquirePermission());
+
+        clock.set(1_000);
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        fail(3);
+        clock.set(1_000);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        clock.set(1_999);
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldIgnoreLateSuccessWhileOpen() {
+        fail(3);
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,154 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+import uk.gov.dwp.uc.pairtest.gateway.RefundableTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GatewayGuardTest {
+
+    private final SlowGateway gateway = new SlowGateway();
+
+    private static GatewayPolicy policy(long timeoutMillis, int maxConcurrent, int failureThreshold) {
+        return new GatewayPolicy(Duration.ofMillis(timeoutMillis), maxConcurrent, failureThreshold, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldPassThroughFastCalls() {
+        ResilientTicketPaymentService payments = new ResilientTicketPaymentService(gateway, policy(1_000, 4, 3));
+        payments.makePayment(1L, 25);
+        assertEquals(1, gateway.completed());
+        assertEquals(4, payments.getGuard().getAvailableConcurrency());
+    }
+
+    @Test
+    void shouldReportTimedOutCallAsOutcomeUnknown() throws Exception {
+        gateway.setDelayMillis(500);
+        ResilientTicketPaymentService payments = new ResilientTicketPaymentService(gateway, policy(20, 4, 3));
+
+        long start = System.nanoTime();
+        PurchaseOutcomeUnknownException e = assertThrows(PurchaseOutcomeUnknownException.class, () -> payments.makePayment(1L, 25));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(400));
+
+        assertNull(e.outcome().get(5, TimeUnit.SECONDS));
+        assertEquals(1, gateway.completed());
+    }
+
+    @Test
+    void shouldRethrowGatewayFailureAndOpenCircuit() {
+        gateway.setFailing(true);
+        ResilientSeatReservationService seats = new ResilientSeatReservationService(gateway, policy(1_000, 4, 2));
+
+        assertThrows(IllegalStateException.class, () -> seats.reserveSeat(1L, 2));
+        assertThrows(IllegalStateException.class, () -> seats.reserveSeat(1L, 2));
+        assertEquals(CircuitBreaker.State.OPEN, seats.getGuard().getCircuitState());
+
+        GatewayUnavailableException e = assertThrows(GatewayUnavailableException.class, () -> seats.reserveSeat(1L, 2));
+        assertTrue(e.getMessage().contains("circuit is open"));
+        assertEquals(2, gateway.calls());
+    }
+
+    @Test
+    void shouldNotOpenCircuitOnBusinessRejections() {
+        GatewayGuard guard = new GatewayGuard("Test gateway", policy(1_000, 4, 2));
+        Runnable soldOut = () -> {
+            throw new SoldOutException("No block of 4 adjacent seats available");
+        };
+
+        assertThrows(SoldOutException.class, () -> guard.run(soldOut));
+        assertThrows(SoldOutException.class, () -> guard.run(soldOut));
+        assertThrows(SoldOutException.class, () -> guard.run(soldOut));
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitState());
+    }
+
+    @Test
+    void shouldGuardRefundsWithTheSameCircuit() {
+        RefundableTicketPaymentService refundable = mock(RefundableTicketPaymentService.class);
+        doThrow(new IllegalStateException("Gateway down")).when(refundable).makePayment(1L, 25);
+        ResilientRefundableTicketPaymentService payments = new ResilientRefundableTicketPaymentService(refundable, policy(1_000, 4, 1));
+
+        payments.refundPayment(2L, 15);
+        assertThrows(IllegalStateException.class, () -> payments.makePayment(1L, 25));
+        assertThrows(GatewayUnavailableException.class, () -> payments.refundPayment(3L, 15));
+
+        verify(refundable).refundPayment(2L, 15);
+        verify(refundable, never()).refundPayment(3L, 15);
+    }
+
+    @Test
+    void shouldRefuseCallsWhenBulkheadIsFull() throws Exception {
+        gateway.setDelayMillis(300);
+        ResilientSeatReservationService seats = new ResilientSeatReservationService(gateway, policy(1_000, 1, 5));
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = caller.submit(() -> seats.reserveSeat(1L, 2));
+            while (gateway.calls() == 0) {
+                Thread.onSpinWait();
+            }
+            GatewayUnavailableException e = assertThrows(GatewayUnavailableException.class, () -> seats.reserveSeat(2L, 2));
+            assertTrue(e.getMessage().contains("too many calls"));
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(1, gateway.calls());
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldKeepBulkheadPermitUntilTimedOutCallReturns() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        GatewayGuard guard = new GatewayGuard("Test gateway", policy(10, 1, 5));
+
+        assertThrows(PurchaseOutcomeUnknownException.class, () -> guard.run(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertEquals(0, guard.getAvailableConcurrency());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (guard.getAvailableConcurrency() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, guard.getAvailableConcurrency());
+    }
+
+    @Test
+    void shouldFailPurchaseFastOnceGatewayDegrades() {
+        gateway.setDelayMillis(200);
+        TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+        TicketService ticketService = new TicketServiceImpl(
+                new ResilientTicketPaymentService(gateway, policy(20, 16, 2)), mock(SeatReservationService.class), processor);
+        TicketTypeRequest adult = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+        assertThrows(PurchaseOutcomeUnknownException.class, () -> ticketService.purchaseTickets(1L, adult));
+        assertThrows(PurchaseOutcomeUnknownException.class, () -> ticketService.purchaseTickets(1L, adult));
+
+        long start = System.nanoTime();
+        assertThrows(GatewayUnavailableException.class, () -> ticketService.purchaseTickets(1L, adult));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(2, gateway.calls());
+    }
+}
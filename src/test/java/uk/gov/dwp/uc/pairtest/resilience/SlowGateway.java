@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fake gateway whose latency and failures can be changed while a test runs.
+ */
+class SlowGateway implements TicketPaymentService, SeatReservationService {
+
+    private volatile long delayMillis;
+    private volatile boolean failing;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    int completed() {
+        return completed.get();
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        call();
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        call();
+    }
+
+    private void call() {
+        calls.incrementAndGet();
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            if (failing) {
+                throw new IllegalStateException("Gateway error");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            completed.incrementAndGet();
+        }
+    }
+}
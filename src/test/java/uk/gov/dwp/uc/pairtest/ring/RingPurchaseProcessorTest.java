@@ -0,0 +1,219 @@
+package uk.gov.dwp.uc.pairtest.ring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PurchaseOutcome;
+import uk.gov.dwp.uc.pairtest.PurchaseReceipt;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingPurchaseProcessorTest {
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+    private final ConcurrentLinkedQueue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> payments = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> reservations = new ConcurrentLinkedQueue<>();
+    private RingPurchaseProcessor ring;
+
+    @AfterEach
+    void tearDown() {
+        if (ring != null) {
+            ring.close();
+        }
+    }
+
+    private RingPurchaseProcessor ring(TicketPaymentService paymentService, SeatReservationService seatService,
+                                       int bufferSize, WaitStrategy waitStrategy) {
+        ring = new RingPurchaseProcessor(paymentService, seatService, processor,
+                slot -> outcomes.add(new Outcome(slot.tag(), slot.status(), slot.totalAmount(), slot.totalSeats(), slot.failure())),
+                bufferSize, waitStrategy);
+        return ring;
+    }
+
+    private RingPurchaseProcessor ring(int bufferSize, WaitStrategy waitStrategy) {
+        return ring((accountId, amount) -> payments.add(accountId), (accountId, seats) -> reservations.add(accountId),
+                bufferSize, waitStrategy);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void shouldProcessOrdersInPublicationOrderAcrossLaps(WaitStrategy waitStrategy) {
+        RingPurchaseProcessor ring = ring(8, waitStrategy);
+        for (int i = 0; i < 1_000; i++) {
+            ring.publish(i, 1 + i % 10, 2, 1, 1);
+        }
+        ring.close();
+
+        List<Long> tags = outcomes.stream().map(Outcome::tag).toList();
+        assertEquals(1_000, tags.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, tags.get(i));
+        }
+        assertTrue(outcomes.stream().allMatch(o -> o.status() == PurchaseOutcome.Status.COMPLETED && o.amount() == 65 && o.seats() == 3));
+        assertEquals(1_000, payments.size());
+        assertEquals(1_000, reservations.size());
+    }
+
+    @Test
+    void shouldRejectInvalidOrderWithoutCallingGateways() {
+        RingPurchaseProcessor ring = ring(8, WaitStrategy.YIELD);
+        ring.publish(1, 1L, 0, 1, 0);
+        ring.publish(2, 0L, 1, 0, 0);
+        ring.publish(3, 2L, 1, 0, 0);
+        ring.close();
+
+        List<Outcome> results = new ArrayList<>(outcomes);
+        assertEquals(PurchaseOutcome.Status.REJECTED, results.get(0).status());
+        assertInstanceOf(InvalidPurchaseException.class, results.get(0).failure());
+        assertEquals(PurchaseOutcome.Status.REJECTED, results.get(1).status());
+        assertEquals(PurchaseOutcome.Status.COMPLETED, results.get(2).status());
+        assertEquals(List.of(2L), List.copyOf(payments));
+        assertEquals(List.of(2L), List.copyOf(reservations));
+    }
+
+    @Test
+    void shouldNotReserveSeatsWhenPaymentFails() {
+        IllegalStateException declined = new IllegalStateException("Declined");
+        RingPurchaseProcessor ring = ring((accountId, amount) -> {
+            if (accountId == 1L) {
+                throw declined;
+            }
+        }, (accountId, seats) -> reservations.add(accountId), 8, WaitStrategy.YIELD);
+        ring.publish(1, 1L, 1, 0, 0);
+        ring.publish(2, 2L, 1, 0, 0);
+        ring.close();
+
+        List<Outcome> results = new ArrayList<>(outcomes);
+        assertEquals(new Outcome(1, PurchaseOutcome.Status.FAILED, 25, 1, declined), results.get(0));
+        assertEquals(PurchaseOutcome.Status.COMPLETED, results.get(1).status());
+        assertEquals(List.of(2L), List.copyOf(reservations));
+    }
+
+    @Test
+    void shouldReserveSeatsWhenAPaymentOfUnknownOutcomeGoesThroughLate() throws Exception {
+        CompletableFuture<PurchaseReceipt> late = new CompletableFuture<>();
+        RingPurchaseProcessor ring = ring((accountId, amount) -> {
+            throw new PurchaseOutcomeUnknownException("Payment timed out", null, late);
+        }, (accountId, seats) -> reservations.add(accountId), 8, WaitStrategy.YIELD);
+        ring.publish(1, 1L, 1, 0, 0);
+        ring.close();
+
+        Outcome result = outcomes.peek();
+        assertEquals(PurchaseOutcome.Status.OUTCOME_UNKNOWN, result.status());
+        assertTrue(reservations.isEmpty());
+
+        late.complete(null);
+        PurchaseOutcomeUnknownException unknown = assertInstanceOf(PurchaseOutcomeUnknownException.class, result.failure());
+        assertEquals(new PurchaseReceipt(1L, 25, 1), unknown.outcome().get());
+        assertEquals(List.of(1L), List.copyOf(reservations));
+    }
+
+    @Test
+    void shouldKeepStagesRunningWhenGatewayThrowsError() {
+        AssertionError bug = new AssertionError("Gateway bug");
+        RingPurchaseProcessor ring = ring((accountId, amount) -> payments.add(accountId), (accountId, seats) -> {
+            if (accountId == 1L) {
+                throw bug;
+            }
+            reservations.add(accountId);
+        }, 2, WaitStrategy.YIELD);
+        for (int i = 0; i < 10; i++) {
+            ring.publish(i, 1L + i % 2, 1, 0, 0);
+        }
+        ring.close();
+
+        List<Outcome> results = new ArrayList<>(outcomes);
+        assertEquals(10, results.size());
+        assertEquals(new Outcome(0, PurchaseOutcome.Status.PAID_NOT_RESERVED, 25, 1, bug), results.get(0));
+        assertEquals(PurchaseOutcome.Status.COMPLETED, results.get(9).status());
+        assertEquals(5, reservations.size());
+    }
+
+    @Test
+    void shouldReportFullRingUntilReservationStageFreesASlot() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RingPurchaseProcessor ring = ring((accountId, amount) -> {
+        }, (accountId, seats) -> {
+            blocked.countDown();
+            await(release);
+        }, 2, WaitStrategy.PARK);
+
+        assertTrue(ring.tryPublish(1, 1L, 1, 0, 0));
+        blocked.await();
+        assertTrue(ring.tryPublish(2, 1L, 1, 0, 0));
+        assertFalse(ring.tryPublish(3, 1L, 1, 0, 0));
+        assertEquals(2, ring.getBacklog());
+
+        release.countDown();
+        ring.publish(3, 1L, 1, 0, 0);
+        ring.close();
+        assertEquals(3, outcomes.size());
+        assertEquals(0, ring.getBacklog());
+    }
+
+    @Test
+    void shouldHandleConcurrentPublishers() throws InterruptedException {
+        AtomicLong revenue = new AtomicLong();
+        RingPurchaseProcessor ring = ring((accountId, amount) -> revenue.addAndGet(amount), (accountId, seats) -> {
+        }, 64, WaitStrategy.YIELD);
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long first = t * 10_000L;
+            publishers.add(Thread.ofPlatform().start(() -> {
+                for (long tag = first; tag < first + 10_000; tag++) {
+                    ring.publish(tag, 1L, 1, 0, 0);
+                }
+            }));
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        ring.close();
+
+        assertEquals(40_000, outcomes.size());
+        assertEquals(40_000, outcomes.stream().mapToLong(Outcome::tag).distinct().count());
+        assertEquals(40_000 * 25L, revenue.get());
+    }
+
+    @Test
+    void shouldRejectPublishAfterClose() {
+        RingPurchaseProcessor ring = ring(8, WaitStrategy.BUSY_SPIN);
+        ring.close();
+
+        assertThrows(IllegalStateException.class, () -> ring.publish(1, 1L, 1, 0, 0));
+        assertThrows(IllegalStateException.class, () -> ring.tryPublish(1, 1L, 1, 0, 0));
+    }
+
+    @Test
+    void shouldRequirePowerOfTwoBufferSize() {
+        assertThrows(IllegalArgumentException.class, () -> ring(12, WaitStrategy.PARK));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Outcome(long tag, PurchaseOutcome.Status status, int amount, int seats, Throwable failure) {
+    }
+}
@@ -0,0 +1,110 @@
+package uk.gov.dwp.uc.pairtest.sales;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+class SalesAggregatorTest {
+
+    private long now = 1_000_000;
+    private final SalesAggregator aggregator = new SalesAggregator(Duration.ofSeconds(1), 3, 2, () -> now);
+
+    @Test
+    void shouldTotalRevenueAndTicketsPerType() {
+        aggregator.record(1L, 2, 1, 1, charged(65, 3));
+        aggregator.record(2L, 1, 0, 0, charged(25, 1));
+        aggregator.onCompleted(1L, 1, 0, 0, new TicketCalculationResult(30, 1, PriceList.of(30, 20, 0)));
+
+        SalesSnapshot snapshot = aggregator.snapshot();
+
+        assertEquals(new SalesTotals(3, 6, 5, 65 + 25 + 30), snapshot.total());
+        assertEquals(Map.of(ADULT, new TicketTypeSales(4, 4, 25 * 3 + 30), CHILD, new TicketTypeSales(1, 1, 15),
+                INFANT, new TicketTypeSales(1, 0, 0)), snapshot.byType());
+    }
+
+    @Test
+    void shouldTotalPerAccountUpToLimit() {
+        aggregator.record(1L, 2, 1, 0, charged(65, 3));
+        aggregator.record(1L, 1, 0, 0, charged(25, 1));
+        aggregator.record(2L, 1, 0, 0, charged(25, 1));
+        aggregator.record(3L, 3, 0, 0, charged(75, 3));
+
+        assertEquals(new SalesTotals(2, 4, 4, 90), aggregator.accountTotals(1L));
+        assertEquals(new SalesTotals(1, 1, 1, 25), aggregator.accountTotals(2L));
+        assertEquals(SalesTotals.NONE, aggregator.accountTotals(3L));
+        assertEquals(new SalesTotals(1, 3, 3, 75), aggregator.snapshot().untrackedAccounts());
+    }
+
+    @Test
+    void shouldRollTimeBucketsOverTheWindow() {
+        aggregator.record(1L, 1, 0, 0, charged(25, 1));
+        now += 1_000;
+        aggregator.record(1L, 2, 0, 0, charged(50, 2));
+        now += 1_000;
+        aggregator.record(1L, 3, 0, 0, charged(75, 3));
+
+        assertEquals(List.of(25L, 50L, 75L), revenuePerBucket());
+        assertEquals(150, aggregator.snapshot().windowTotals().revenue());
+
+        now += 1_000;
+        aggregator.record(1L, 4, 0, 0, charged(100, 4));
+        assertEquals(List.of(50L, 75L, 100L), revenuePerBucket());
+        assertEquals(1_001_000, aggregator.snapshot().buckets().get(0).startMillis());
+
+        now += 5_000;
+        assertEquals(List.of(), revenuePerBucket());
+        assertEquals(250, aggregator.snapshot().total().revenue());
+    }
+
+    @Test
+    void shouldCountPurchaseRecordedAfterItsBucketWasReplacedAsLate() {
+        long purchaseTime = now;
+        now += 3_000;
+        aggregator.record(1L, 2, 0, 0, charged(50, 2));
+        long later = now;
+        now = purchaseTime;
+        aggregator.record(2L, 1, 0, 0, charged(25, 1));
+        now = later;
+
+        SalesSnapshot snapshot = aggregator.snapshot();
+        assertEquals(new SalesTotals(1, 1, 1, 25), snapshot.late());
+        assertEquals(List.of(50L), revenuePerBucket());
+        assertEquals(75, snapshot.total().revenue());
+    }
+
+    @Test
+    void shouldNotLoseConcurrentPurchases() throws InterruptedException {
+        SalesAggregator aggregator = new SalesAggregator(Duration.ofMillis(1), 8);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    aggregator.record(i % 100, 1, 1, 0, charged(40, 2));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        SalesSnapshot snapshot = aggregator.snapshot();
+        assertEquals(new SalesTotals(200_000, 400_000, 400_000, 200_000L * 40), snapshot.total());
+        assertEquals(new SalesTotals(2_000, 4_000, 4_000, 2_000L * 40), aggregator.accountTotals(42L));
+    }
+
+    private static TicketCalculationResult charged(int amount, int seats) {
+        return new TicketCalculationResult(amount, seats);
+    }
+
+    private List<Long> revenuePerBucket() {
+        return aggregator.snapshot().buckets().stream().map(bucket -> bucket.totals().revenue()).toList();
+    }
+}
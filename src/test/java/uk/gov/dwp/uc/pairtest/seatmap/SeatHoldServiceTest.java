@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+import uk.gov.dwp.uc.pairtest.timer.HashedTimingWheel;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatHoldServiceTest {
+
+    private final SeatMap seatMap = new SeatMap(1, 10);
+    private final HashedTimingWheel wheel = new HashedTimingWheel(1, TimeUnit.MILLISECONDS, 64);
+    private final SeatReservationService reservations = mock(SeatReservationService.class);
+    private final SeatHoldService service = new SeatHoldService(reservations, seatMap, wheel, Duration.ofSeconds(30));
+
+    private void advancePastTtl() {
+        wheel.advance(System.nanoTime() + Duration.ofSeconds(31).toNanos());
+    }
+
+    @Test
+    void shouldReturnExpiredHoldToSeatMap() {
+        SeatHold hold = service.hold(1L, 10);
+        assertEquals(0, seatMap.availableSeats());
+
+        advancePastTtl();
+
+        assertEquals(SeatHold.State.EXPIRED, hold.state());
+        assertEquals(10, seatMap.availableSeats());
+        assertEquals(0, service.getActiveHolds());
+        assertEquals(1, service.getExpiredHolds());
+        assertThrows(IllegalStateException.class, () -> service.confirm(hold));
+        verifyNoInteractions(reservations);
+    }
+
+    @Test
+    void shouldKeepConfirmedSeatsAfterTtl() {
+        SeatHold hold = service.hold(1L, 4);
+        service.confirm(hold);
+
+        advancePastTtl();
+
+        assertEquals(SeatHold.State.CONFIRMED, hold.state());
+        assertFalse(hold.isScheduled());
+        assertTrue(seatMap.isConfirmed(hold.block().row(), hold.block().firstSeat()));
+        assertEquals(0, service.getExpiredHolds());
+        verify(reservations).reserveSeat(1L, 4);
+    }
+
+    @Test
+    void shouldReturnSeatsWhenReservationFailsOnConfirm() {
+        SeatHold hold = service.hold(1L, 4);
+        doThrow(new IllegalStateException("Booking down")).when(reservations).reserveSeat(1L, 4);
+
+        assertThrows(IllegalStateException.class, () -> service.confirm(hold));
+
+        assertEquals(SeatHold.State.RELEASED, hold.state());
+        assertEquals(10, seatMap.availableSeats());
+        assertEquals(0, service.getActiveHolds());
+        assertFalse(service.release(hold));
+    }
+
+    @Test
+    void shouldReleaseHoldOnlyOnce() {
+        SeatHold hold = service.hold(1L, 4);
+
+        assertTrue(service.release(hold));
+        assertFalse(service.release(hold));
+        advancePastTtl();
+
+        assertEquals(SeatHold.State.RELEASED, hold.state());
+        assertEquals(10, seatMap.availableSeats());
+        assertEquals(0, service.getExpiredHolds());
+    }
+
+    @Test
+    void shouldThrowSoldOutWhenNoBlockIsFree() {
+        service.hold(1L, 8);
+        assertThrows(SoldOutException.class, () -> service.hold(2L, 4));
+        assertEquals(1, service.getActiveHolds());
+    }
+
+    @Test
+    void shouldRejectNonPositiveTtl() {
+        assertThrows(IllegalArgumentException.class, () -> new SeatHoldService(reservations, seatMap, wheel, Duration.ZERO));
+    }
+}
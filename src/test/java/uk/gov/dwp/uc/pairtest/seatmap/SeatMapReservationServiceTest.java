@@ -0,0 +1,67 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.exception.SoldOutException;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapReservationServiceTest {
+
+    private final SeatMap seatMap = new SeatMap(2, 6);
+    private final SeatMapReservationService service = new SeatMapReservationService(seatMap);
+
+    @Test
+    void shouldSeatEachOrderTogether() {
+        service.reserveSeat(1L, 4);
+        service.reserveSeat(2L, 4);
+
+        assertEquals(List.of(new SeatBlock(0, 0, 4)), service.allocationsFor(1L));
+        assertEquals(List.of(new SeatBlock(1, 0, 4)), service.allocationsFor(2L));
+        assertTrue(seatMap.isConfirmed(1, 3));
+    }
+
+    @Test
+    void shouldFailWhenNoAdjacentBlockIsLeft() {
+        service.reserveSeat(1L, 4);
+        service.reserveSeat(2L, 4);
+
+        assertThrows(SoldOutException.class, () -> service.reserveSeat(3L, 3));
+        assertEquals(4, seatMap.availableSeats());
+    }
+
+    @Test
+    void shouldReleaseAccountBlock() {
+        service.reserveSeat(1L, 4);
+
+        service.releaseSeat(1L, 4);
+
+        assertEquals(12, seatMap.availableSeats());
+        assertEquals(List.of(), service.allocationsFor(1L));
+    }
+
+    @Test
+    void shouldNotLoseBlocksReservedWhileReleasing() throws Exception {
+        SeatMap large = new SeatMap(64, 64);
+        SeatMapReservationService seats = new SeatMapReservationService(large);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 2_000; round++) {
+                seats.reserveSeat(1L, 2);
+                Future<?> release = executor.submit(() -> seats.releaseSeat(1L, 2));
+                Future<?> reserve = executor.submit(() -> seats.reserveSeat(1L, 3));
+                release.get();
+                reserve.get();
+                seats.releaseSeat(1L, 3);
+                assertEquals(List.of(), seats.allocationsFor(1L));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(64 * 64, large.availableSeats());
+    }
+}
@@ -0,0 +1,117 @@
+package uk.gov.dwp.uc.pairtest.seatmap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "0b0, 1, -1",
+            "0b1, 1, 0",
+            "0b1110, 3, 1",
+            "0b1110, 4, -1",
+            "0b111101111, 4, 0",
+            "0b111100111, 4, 5"
+    })
+    void shouldFindLowestRunOfFreeSeats(String bits, int length, int expected) {
+        assertEquals(expected, SeatMap.findRun(Long.parseLong(bits.substring(2), 2), length));
+    }
+
+    @Test
+    void shouldFindRunSpanningWholeWord() {
+        assertEquals(0, SeatMap.findRun(-1L, 64));
+        assertEquals(-1, SeatMap.findRun(-1L >>> 1, 64));
+    }
+
+    @Test
+    void shouldHoldAdjacentSeatsAndSkipFragmentedRows() {
+        SeatMap seatMap = new SeatMap(2, 10);
+        SeatBlock first = seatMap.hold(8);
+        SeatBlock second = seatMap.hold(1);
+        SeatBlock third = seatMap.hold(4);
+
+        assertEquals(new SeatBlock(0, 0, 8), first);
+        assertEquals(new SeatBlock(1, 0, 1), second);
+        assertEquals(new SeatBlock(1, 1, 4), third);
+        assertEquals(7, seatMap.availableSeats());
+    }
+
+    @Test
+    void shouldStartEachHoldFromTheNextRow() {
+        SeatMap seatMap = new SeatMap(3, 10);
+
+        assertEquals(0, seatMap.hold(2).row());
+        assertEquals(1, seatMap.hold(2).row());
+        assertEquals(2, seatMap.hold(2).row());
+        assertEquals(new SeatBlock(0, 2, 2), seatMap.hold(2));
+    }
+
+    @Test
+    void shouldReturnNullWhenNoBlockFits() {
+        SeatMap seatMap = new SeatMap(1, 5);
+
+        assertNull(seatMap.hold(6));
+        assertNotNull(seatMap.hold(3));
+        assertNull(seatMap.hold(3));
+    }
+
+    @Test
+    void shouldConfirmHeldSeatsAndReleaseThem() {
+        SeatMap seatMap = new SeatMap(1, 10);
+        SeatBlock block = seatMap.hold(3);
+
+        seatMap.confirm(block);
+        assertTrue(seatMap.isConfirmed(0, 1));
+        assertThrows(IllegalStateException.class, () -> seatMap.confirm(block));
+
+        seatMap.release(block);
+        assertTrue(seatMap.isFree(0, 1));
+        assertFalse(seatMap.isConfirmed(0, 1));
+        assertEquals(10, seatMap.availableSeats());
+    }
+
+    @Test
+    void shouldNotConfirmSeatsThatAreNotHeld() {
+        SeatMap seatMap = new SeatMap(1, 10);
+        assertThrows(IllegalStateException.class, () -> seatMap.confirm(new SeatBlock(0, 0, 2)));
+    }
+
+    @Test
+    void shouldNeverHandOutTheSameSeatTwiceUnderContention() {
+        SeatMap seatMap = new SeatMap(20, 25);
+        ConcurrentLinkedQueue<SeatBlock> held = new ConcurrentLinkedQueue<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int seats = 1 + t;
+                executor.submit(() -> {
+                    for (SeatBlock block = seatMap.hold(seats); block != null; block = seatMap.hold(seats)) {
+                        held.add(block);
+                    }
+                });
+            }
+        }
+
+        long[] rows = new long[20];
+        for (SeatBlock block : List.copyOf(held)) {
+            assertEquals(0, rows[block.row()] & block.mask(), "seat handed out twice");
+            rows[block.row()] |= block.mask();
+        }
+        int heldSeats = held.stream().mapToInt(SeatBlock::seats).sum();
+        assertEquals(500 - heldSeats, seatMap.availableSeats());
+    }
+
+    @Test
+    void shouldRejectRowsWiderThan64Seats() {
+        assertThrows(IllegalArgumentException.class, () -> new SeatMap(1, 65));
+    }
+}
@@ -0,0 +1,86 @@
+package uk.gov.dwp.uc.pairtest.service;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.pricing.PriceList;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+class OrderLookupTableTest {
+
+    private final TicketRequestValidator validator = new TicketRequestValidator(25);
+    private final PriceCalculator calculator = new PriceCalculator();
+    private final OrderLookupTable table = OrderLookupTable.build(validator, calculator);
+
+    @Test
+    void shouldMatchArithmeticPathForEveryCombination() {
+        for (int adults = 0; adults <= 25; adults++) {
+            for (int children = 0; children <= 25; children++) {
+                for (int infants = 0; infants <= 25; infants++) {
+                    int entry = table.entry(adults, children, infants);
+                    ValidationFailure failure = validator.check(1L, adults, children, infants);
+                    assertEquals(failure, OrderLookupTable.failure(entry));
+                    if (failure == null) {
+                        assertEquals(calculator.calculate(adults, children, infants), OrderLookupTable.totalAmount(entry));
+                        assertEquals(adults + children, OrderLookupTable.totalSeats(entry));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldChargeNewPricesOnceTheyChangeAndAfterRebuild() {
+        AtomicReference<PriceList> prices = new AtomicReference<>(PriceList.defaults());
+        PriceCalculator reloadable = new PriceCalculator(prices::get);
+        TicketOrderProcessor processor = new TicketOrderProcessor(validator, reloadable, OrderLookupTable.build(validator, reloadable));
+        assertEquals(65, processor.process(1L, 2, 1, 1).totalAmount());
+
+        prices.set(PriceList.of(30, 20, 5));
+        assertEquals(85, processor.process(1L, 2, 1, 1).totalAmount());
+
+        processor.rebuildLookupTable();
+        assertEquals(85, processor.process(1L, 2, 1, 1).totalAmount());
+        assertEquals(30, processor.process(1L, 1, 0, 0).totalAmount());
+    }
+
+    @Test
+    void shouldReportMemoryFootprint() {
+        assertEquals(26 * 26 * 26 * Integer.BYTES, table.memoryBytes());
+    }
+
+    @Test
+    void shouldProcessOrdersThroughTable() {
+        TicketOrderProcessor processor = new TicketOrderProcessor(validator, calculator, table);
+
+        TicketCalculationResult result = processor.process(1L,
+                new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1), new TicketTypeRequest(INFANT, 1));
+
+        assertEquals(new TicketCalculationResult(65, 3), result);
+    }
+
+    @Test
+    void shouldRejectThroughTableWithValidatorMessages() {
+        TicketOrderProcessor processor = new TicketOrderProcessor(validator, calculator, table);
+
+        InvalidPurchaseException noAdult = assertThrows(InvalidPurchaseException.class,
+                () -> processor.process(1L, new TicketTypeRequest(CHILD, 1)));
+        InvalidPurchaseException badAccount = assertThrows(InvalidPurchaseException.class,
+                () -> processor.process(0L, new TicketTypeRequest(ADULT, 1)));
+
+        assertEquals("No adult tickets found", noAdult.getMessage());
+        assertEquals("Invalid account id", badAccount.getMessage());
+    }
+
+    @Test
+    void shouldRejectTableBuiltForDifferentLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TicketOrderProcessor(new TicketRequestValidator(10), calculator, table));
+    }
+}
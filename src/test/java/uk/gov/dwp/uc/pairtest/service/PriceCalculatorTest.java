@@ -67,4 +67,34 @@ class PriceCalculatorTest {
         int calculatedPrice = calculator.calculate(quantity, ADULT);
         assertEquals(quantity * unitPriceAdult, calculatedPrice);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 0, 0, 25",
+            "2, 1, 1, 65",
+            "10, 10, 5, 400",
+            "0, 0, 0, 0"
+    })
+    void shouldCalculateTotalFromTypeCounts(int adults, int children, int infants, int expectedPrice) {
+        assertEquals(expectedPrice, calculator.calculate(adults, children, infants));
+    }
+
+    @Test
+    void shouldThrowExceptionForNegativeTypeCount() {
+        InvalidPurchaseException exception = assertThrows(
+                InvalidPurchaseException.class,
+                () -> calculator.calculate(1, -1, 0)
+        );
+        assertEquals("Number of tickets must not be negative", exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectOrderWhoseTotalWouldOverflow() {
+        InvalidPurchaseException exception = assertThrows(
+                InvalidPurchaseException.class,
+                () -> calculator.calculate(Integer.MAX_VALUE, 1, 0)
+        );
+        assertEquals("Order total is too large", exception.getMessage());
+        assertThrows(InvalidPurchaseException.class, () -> calculator.calculate(Integer.MAX_VALUE, ADULT));
+    }
+}
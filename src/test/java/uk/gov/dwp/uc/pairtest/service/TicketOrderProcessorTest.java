@@ -4,10 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
 
 class TicketOrderProcessorTest {
@@ -87,4 +89,73 @@ class TicketOrderProcessorTest {
         assertEquals(400, result.totalAmount());
         assertEquals(20, result.totalSeats());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSumRepeatedTypesAcrossRequests() {
+        TicketCalculationResult result = processor.process(1L,
+                new TicketTypeRequest(CHILD, 2),
+                new TicketTypeRequest(ADULT, 1),
+                new TicketTypeRequest(CHILD, 1),
+                new TicketTypeRequest(ADULT, 2));
+
+        assertEquals(120, result.totalAmount());
+        assertEquals(6, result.totalSeats());
+    }
+
+    @Test
+    void shouldRejectWithSameReasonAsValidator() {
+        TicketTypeRequest[][] invalidOrders = {
+                {},
+                {new TicketTypeRequest(CHILD, 1)},
+                {new TicketTypeRequest(ADULT, 0)},
+                {new TicketTypeRequest(ADULT, 20), new TicketTypeRequest(CHILD, 6)},
+                {new TicketTypeRequest(ADULT, 30), new TicketTypeRequest(CHILD, -1)},
+                {new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(INFANT, -1)}
+        };
+
+        for (TicketTypeRequest[] order : invalidOrders) {
+            String expected = validator.isValid(1L, order).message();
+            InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                    () -> processor.process(1L, order));
+            assertEquals(expected, exception.getMessage());
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidAccountBeforeInspectingRequests() {
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> processor.process(null, new TicketTypeRequest(CHILD, -1)));
+        assertEquals("Invalid account id", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "2, 1, 1, 65, 3",
+            "25, 0, 0, 625, 25",
+            "1, 0, 5, 25, 1"
+    })
+    void shouldProcessTalliedCountsWithAndWithoutLookupTable(int adults, int children, int infants,
+                                                             int expectedAmount, int expectedSeats) {
+        TicketOrderProcessor withTable = new TicketOrderProcessor(validator, paymentService,
+                OrderLookupTable.build(validator, paymentService));
+
+        for (TicketOrderProcessor candidate : new TicketOrderProcessor[]{processor, withTable}) {
+            TicketCalculationResult result = candidate.process(1L, adults, children, infants);
+            assertEquals(expectedAmount, result.totalAmount());
+            assertEquals(expectedSeats, result.totalSeats());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 1, 0, No adult tickets found",
+            "26, 0, 0, Too many tickets found",
+            "1, -1, 0, Tickets no should be greater than zero",
+            "0, 0, 0, No tickets found"
+    })
+    void shouldRejectInvalidTalliedCounts(int adults, int children, int infants, String message) {
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> processor.process(1L, adults, children, infants));
+        assertEquals(message, exception.getMessage());
+    }
+}
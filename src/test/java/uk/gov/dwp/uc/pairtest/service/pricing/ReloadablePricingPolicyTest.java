@@ -0,0 +1,89 @@
+package uk.gov.dwp.uc.pairtest.service.pricing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+class ReloadablePricingPolicyTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldLoadPricesFromFile() throws IOException {
+        Path file = write("ADULT=30\nCHILD=20\nINFANT=0\n");
+
+        ReloadablePricingPolicy policy = new ReloadablePricingPolicy(file);
+
+        assertEquals(PriceList.of(30, 20, 0), policy.currentPrices());
+    }
+
+    @Test
+    void shouldSwapPricesOnReloadWithoutChangingEarlierSnapshot() throws IOException {
+        Path file = write("ADULT=25\nCHILD=15\nINFANT=0\n");
+        ReloadablePricingPolicy policy = new ReloadablePricingPolicy(file);
+        PriceList before = policy.currentPrices();
+        PriceCalculator calculator = new PriceCalculator(policy);
+
+        write("ADULT=18\nCHILD=10\nINFANT=2\n");
+        policy.reload();
+
+        assertEquals(25, before.priceOf(ADULT));
+        assertEquals(18 + 10 + 2, calculator.calculate(1, 1, 1));
+        assertEquals(36, calculator.calculate(2, ADULT));
+    }
+
+    @Test
+    void shouldKeepPreviousPricesWhenReloadFails() throws IOException {
+        Path file = write("ADULT=25\nCHILD=15\nINFANT=0\n");
+        ReloadablePricingPolicy policy = new ReloadablePricingPolicy(file);
+
+        write("ADULT=25\nCHILD=cheap\nINFANT=0\n");
+
+        assertThrows(IllegalArgumentException.class, policy::reload);
+        assertEquals(PriceList.defaults(), policy.currentPrices());
+    }
+
+    @Test
+    void shouldRejectMissingNegativeAndOversizedPrices() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new ReloadablePricingPolicy(write("ADULT=25\nCHILD=15\n")));
+        assertThrows(IllegalArgumentException.class, () -> new ReloadablePricingPolicy(write("ADULT=25\nCHILD=-1\nINFANT=0\n")));
+        assertThrows(IllegalArgumentException.class, () -> new ReloadablePricingPolicy(write("ADULT=2000000000\nCHILD=15\nINFANT=0\n")));
+    }
+
+    @Test
+    void shouldReloadOnlyWhenFileChanged() throws IOException {
+        Path file = write("ADULT=25\nCHILD=15\nINFANT=0\n");
+        ReloadablePricingPolicy policy = new ReloadablePricingPolicy(file);
+
+        assertFalse(policy.reloadIfModified());
+
+        write("ADULT=40\nCHILD=15\nINFANT=0\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertTrue(policy.reloadIfModified());
+        assertEquals(40, policy.currentPrices().priceOf(ADULT));
+    }
+
+    @Test
+    void shouldApplyDirectUpdate() throws IOException {
+        ReloadablePricingPolicy policy = new ReloadablePricingPolicy(write("ADULT=25\nCHILD=15\nINFANT=0\n"));
+
+        policy.update(PriceList.of(20, 10, 0));
+
+        assertEquals(20, policy.currentPrices().priceOf(ADULT));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("prices.properties"), content);
+    }
+}
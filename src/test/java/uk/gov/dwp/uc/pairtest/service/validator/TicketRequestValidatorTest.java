@@ -2,6 +2,7 @@ package uk.gov.dwp.uc.pairtest.service.validator;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
@@ -9,7 +10,13 @@ import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
 
 class TicketRequestValidatorTest {
@@ -112,4 +119,78 @@ class TicketRequestValidatorTest {
         TicketTypeRequest infant = new TicketTypeRequest(INFANT, 1);
         assertDoesNotThrow(() -> validator.validate(1L, new TicketTypeRequest[]{adult, child, infant}));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReportFailureReasonWithOriginalMessage() {
+        TicketTypeRequest child = new TicketTypeRequest(CHILD, 2);
+
+        ValidationResult result = validator.isValid(1L, new TicketTypeRequest[]{child});
+
+        assertFalse(result.isValid());
+        assertEquals(ValidationFailure.NO_ADULT, result.reason());
+        assertEquals("No adult tickets found", result.message());
+    }
+
+    @Test
+    void shouldReturnNullStatusForValidOrder() {
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+        assertNull(validator.check(1L, new TicketTypeRequest[]{adult}));
+    }
+
+    @Test
+    void shouldReuseCachedResultsForRejections() {
+        TicketTypeRequest[] tooMany = {new TicketTypeRequest(ADULT, 26)};
+        assertSame(validator.isValid(1L, tooMany), validator.isValid(2L, tooMany));
+        assertEquals(ValidationFailure.TOO_MANY_TICKETS, validator.check(1L, tooMany));
+    }
+
+    @Test
+    void shouldThrowPreallocatedStacklessExceptionInPreallocatedMode() {
+        TicketRequestValidator preallocated = new TicketRequestValidator(25, true);
+        TicketTypeRequest[] noAdult = {new TicketTypeRequest(INFANT, 1)};
+
+        InvalidPurchaseException first = assertThrows(InvalidPurchaseException.class,
+                () -> preallocated.validate(1L, noAdult));
+        InvalidPurchaseException second = assertThrows(InvalidPurchaseException.class,
+                () -> preallocated.validate(1L, noAdult));
+
+        assertSame(first, second);
+        assertEquals("No adult tickets found", first.getMessage());
+        assertEquals(0, first.getStackTrace().length);
+    }
+
+    @Test
+    void shouldThrowFreshExceptionWithStackTraceByDefault() {
+        TicketTypeRequest[] noAdult = {new TicketTypeRequest(INFANT, 1)};
+
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> validator.validate(1L, noAdult));
+
+        assertNotSame(ValidationFailure.NO_ADULT.exception(), exception);
+        assertTrue(exception.getStackTrace().length > 0);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 1, 0, 0, INVALID_ACCOUNT",
+            "1, -1, 0, 0, NEGATIVE_TICKETS",
+            "1, 20, 6, 0, TOO_MANY_TICKETS",
+            "1, 0, 0, 0, NO_TICKETS",
+            "1, 0, 1, 1, NO_ADULT"
+    })
+    void shouldRejectTypeCounts(long accountId, int adults, int children, int infants, ValidationFailure expected) {
+        assertEquals(expected, validator.check(accountId, adults, children, infants));
+    }
+
+    @Test
+    void shouldAcceptValidTypeCounts() {
+        assertNull(validator.check(1L, 10, 10, 5));
+        assertDoesNotThrow(() -> validator.validate(1L, 1, 0, 1));
+    }
+
+    @Test
+    void shouldRejectInvalidAccount() {
+        assertThrows(InvalidPurchaseException.class, () -> validator.validateAccount(0L));
+        assertDoesNotThrow(() -> validator.validateAccount(1L));
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledRuleChainTest {
+
+    @Test
+    void shouldFindSameFirstBrokenRuleAsEvaluatingRulesInOrder() {
+        Random random = new Random(7);
+        for (int set = 0; set < 200; set++) {
+            List<ValidationRule> rules = new ArrayList<>();
+            if (set % 2 == 0) {
+                // Bounded counts, so valid orders are looked up in the bitset
+                rules.add(new ValidationRule("adults", ValidationFailure.NEGATIVE_TICKETS, new LinearConstraint(-1, 0, 0, 1)));
+                rules.add(new ValidationRule("children", ValidationFailure.NEGATIVE_TICKETS, new LinearConstraint(0, -1, 0, 0)));
+                rules.add(new ValidationRule("infants", ValidationFailure.NEGATIVE_TICKETS, new LinearConstraint(0, 0, -1, -1)));
+                rules.add(new ValidationRule("cap", ValidationFailure.TOO_MANY_TICKETS, new LinearConstraint(1, 1, 1, random.nextInt(12))));
+            }
+            int count = 1 + random.nextInt(8);
+            for (int r = 0; r < count; r++) {
+                LinearConstraint guard = random.nextInt(3) == 0 ? randomConstraint(random) : LinearConstraint.ALWAYS;
+                rules.add(new ValidationRule("rule-" + r, ValidationFailure.NO_ADULT, randomConstraint(random), guard));
+            }
+            int[] order = new int[rules.size()];
+            for (int r = 0; r < order.length; r++) {
+                order[r] = r;
+            }
+            shuffle(order, random);
+            CompiledRuleChain chain = new CompiledRuleChain(rules, order);
+
+            for (int adults = -2; adults <= 12; adults++) {
+                for (int children = -2; children <= 12; children++) {
+                    for (int infants = -2; infants <= 12; infants++) {
+                        assertEquals(firstBroken(rules, order, adults, children, infants),
+                                chain.firstBroken(adults, children, infants),
+                                rules + " " + adults + "/" + children + "/" + infants);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldNarrowOneRangeFromRulesOnTheSameSum() {
+        RuleSet rules = RuleSet.parse(List.of(
+                "cap = TOO_MANY_TICKETS | adults + children + infants <= 25",
+                "some = NO_TICKETS | adults + children + infants >= 1",
+                "pairs = TOO_MANY_INFANTS | infants - adults <= 0",
+                "laps = TOO_MANY_INFANTS | adults + 1 >= infants"));
+        CompiledRuleChain chain = new CompiledRuleChain(rules.rules(), new int[]{0, 1, 2, 3});
+
+        assertEquals(-1, chain.firstBroken(1, 0, 1));
+        assertEquals(1, chain.firstBroken(0, 0, 0));
+        assertEquals(0, chain.firstBroken(20, 6, 0));
+        assertEquals(2, chain.firstBroken(1, 0, 2));
+        assertEquals(2, chain.firstBroken(1, 0, 3));
+        assertEquals(0, chain.firstBroken(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    private static LinearConstraint randomConstraint(Random random) {
+        int[] weights = {-2, -1, -1, 0, 0, 0, 1, 1, 2};
+        return new LinearConstraint(weights[random.nextInt(weights.length)], weights[random.nextInt(weights.length)],
+                weights[random.nextInt(weights.length)], random.nextInt(21) - 5);
+    }
+
+    private static int firstBroken(List<ValidationRule> rules, int[] order, int adults, int children, int infants) {
+        for (int r = 0; r < order.length; r++) {
+            if (rules.get(order[r]).isBrokenBy(adults, children, infants)) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private static void shuffle(int[] order, Random random) {
+        for (int r = order.length - 1; r > 0; r--) {
+            int other = random.nextInt(r + 1);
+            int swap = order[r];
+            order[r] = order[other];
+            order[other] = swap;
+        }
+    }
+}
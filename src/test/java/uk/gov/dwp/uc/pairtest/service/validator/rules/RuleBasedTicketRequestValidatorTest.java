@@ -0,0 +1,130 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.OrderLookupTable;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+class RuleBasedTicketRequestValidatorTest {
+
+    private static final String INFANT_LAPS = "infant-laps = TOO_MANY_INFANTS | infants <= adults";
+
+    private final TicketRequestValidator current = new TicketRequestValidator(25);
+    private final RuleBasedTicketRequestValidator validator = new RuleBasedTicketRequestValidator(RuleSet.defaults(25));
+
+    private static RuleBasedTicketRequestValidator withInfantLaps() {
+        List<String> lines = new ArrayList<>();
+        lines.add(INFANT_LAPS);
+        lines.add("cap = TOO_MANY_TICKETS | adults + children + infants <= 25");
+        lines.add("adult-present = NO_ADULT | adults >= 1 if children + infants >= 1");
+        return new RuleBasedTicketRequestValidator(RuleSet.parse(lines));
+    }
+
+    @Test
+    void shouldMatchCurrentValidatorOnCounts() {
+        for (long accountId : new long[]{-1, 0, 1}) {
+            for (int adults = -2; adults <= 27; adults++) {
+                for (int children = -2; children <= 27; children++) {
+                    for (int infants = -2; infants <= 27; infants++) {
+                        assertEquals(current.check(accountId, adults, children, infants),
+                                validator.check(accountId, adults, children, infants),
+                                accountId + "/" + adults + "/" + children + "/" + infants);
+                    }
+                }
+            }
+        }
+        assertEquals(25, validator.getMaxTicketsAllowed());
+    }
+
+    @Test
+    void shouldMatchCurrentValidatorOnRequests() {
+        List<TicketTypeRequest[]> orders = List.of(
+                new TicketTypeRequest[0],
+                new TicketTypeRequest[]{new TicketTypeRequest(ADULT, 0)},
+                new TicketTypeRequest[]{new TicketTypeRequest(CHILD, 2)},
+                new TicketTypeRequest[]{new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(INFANT, -1)},
+                new TicketTypeRequest[]{new TicketTypeRequest(ADULT, 20), new TicketTypeRequest(CHILD, 6)},
+                new TicketTypeRequest[]{new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1), new TicketTypeRequest(INFANT, 1)});
+        for (TicketTypeRequest[] order : orders) {
+            assertEquals(current.check(1L, order), validator.check(1L, order));
+        }
+        assertEquals(ValidationFailure.INVALID_ACCOUNT, validator.check((Long) null, orders.get(5)));
+        assertEquals(ValidationFailure.NO_REQUESTS, validator.check(1L, (TicketTypeRequest[]) null));
+    }
+
+    @Test
+    void shouldApplyRuleFromConfiguration() {
+        RuleBasedTicketRequestValidator validator = withInfantLaps();
+
+        assertNull(validator.check(1L, 2, 0, 2));
+        assertEquals(ValidationFailure.TOO_MANY_INFANTS, validator.check(1L, 1, 0, 2));
+        InvalidPurchaseException e = assertThrows(InvalidPurchaseException.class,
+                () -> validator.validate(1L, new TicketTypeRequest[]{new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(INFANT, 3)}));
+        assertEquals(ValidationFailure.TOO_MANY_INFANTS.message(), e.getMessage());
+    }
+
+    @Test
+    void shouldRejectNegativeCountsWithoutANonNegativeRule() {
+        RuleBasedTicketRequestValidator validator = withInfantLaps();
+
+        assertEquals(ValidationFailure.NEGATIVE_TICKETS, validator.check(1L, 2, -1, 0));
+        assertEquals(ValidationFailure.NEGATIVE_TICKETS, validator.check(1L, 1, 0, -5));
+    }
+
+    @Test
+    void shouldThrowSharedExceptionWhenPreallocated() {
+        RuleBasedTicketRequestValidator validator = new RuleBasedTicketRequestValidator(RuleSet.defaults(25), true);
+
+        InvalidPurchaseException e = assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, 0, 1, 0));
+        assertSame(ValidationFailure.NO_ADULT.exception(), e);
+    }
+
+    @Test
+    void shouldMoveMostFrequentRejectionsToFront() {
+        RuleBasedTicketRequestValidator validator = withInfantLaps();
+        validator.check(1L, 0, 1, 0);
+        validator.check(1L, 0, 2, 0);
+        validator.check(1L, 30, 0, 0);
+
+        validator.reorderByRejections();
+
+        assertEquals(Map.of("infant-laps", 0L, "cap", 1L, "adult-present", 2L), validator.getRejectionCounts());
+        assertEquals(List.of("adult-present", "cap", "infant-laps"), validator.getRuleOrder());
+        // Breaks adult-present and infant-laps; now reported by the rule that rejects most
+        assertEquals(ValidationFailure.NO_ADULT, validator.check(1L, 0, 0, 1));
+        assertNull(validator.check(1L, 2, 1, 1));
+    }
+
+    @Test
+    void shouldBuildLookupTableFromRules() {
+        RuleBasedTicketRequestValidator validator = withInfantLaps();
+        TicketOrderProcessor processor = new TicketOrderProcessor(validator, new PriceCalculator(),
+                OrderLookupTable.build(validator, new PriceCalculator()));
+
+        assertEquals(50, processor.process(1L, 2, 0, 2).totalAmount());
+        assertThrows(InvalidPurchaseException.class, () -> processor.process(1L, 1, 0, 2));
+    }
+
+    @Test
+    void shouldNotCountLookupTableBuildsAsRejections() {
+        RuleBasedTicketRequestValidator validator = withInfantLaps();
+        TicketOrderProcessor processor = new TicketOrderProcessor(validator, new PriceCalculator(),
+                OrderLookupTable.build(validator, new PriceCalculator()));
+        processor.rebuildLookupTable();
+
+        assertThrows(InvalidPurchaseException.class, () -> processor.process(1L, 1, 0, 2));
+
+        assertEquals(Map.of("infant-laps", 1L, "cap", 0L, "adult-present", 0L), validator.getRejectionCounts());
+    }
+}
@@ -0,0 +1,96 @@
+package uk.gov.dwp.uc.pairtest.service.validator.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSetTest {
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "adults + children + infants <= 25; 1; 1; 1; 25",
+            "infants <= adults; -1; 0; 1; 0",
+            "adults >= 1; -1; 0; 0; -1",
+            "children < 2 * adults + 3; -2; 1; 0; 2",
+            "10 > 2*infants - children; 0; -1; 2; 9"})
+    void shouldRearrangeComparisonIntoUpperBound(String text, int adults, int children, int infants, long bound) {
+        assertEquals(new LinearConstraint(adults, children, infants, bound), ConstraintParser.parse(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"adults", "adults <= ", "seniors <= 2", "adults == 1", "adults <= 1 extra", "adults <= 99999999999999999999", "100000 * adults <= 1"})
+    void shouldRejectMalformedConstraint(String text) {
+        assertThrows(IllegalArgumentException.class, () -> ConstraintParser.parse(text));
+    }
+
+    @Test
+    void shouldParseRulesInFileOrderWithGuards() {
+        RuleSet rules = RuleSet.parse(List.of(
+                "# comment",
+                "",
+                "cap = TOO_MANY_TICKETS | adults + children + infants <= 20",
+                "laps = TOO_MANY_INFANTS | infants <= adults if infants >= 1"));
+
+        assertEquals(List.of("cap", "laps"), rules.rules().stream().map(ValidationRule::name).toList());
+        assertEquals(20, rules.maxTotalTickets());
+        ValidationRule laps = rules.rules().get(1);
+        assertEquals(ValidationFailure.TOO_MANY_INFANTS, laps.failure());
+        assertEquals(new LinearConstraint(0, 0, -1, -1), laps.guard());
+        assertTrue(laps.isBrokenBy(1, 0, 2));
+        assertFalse(laps.isBrokenBy(2, 0, 2));
+    }
+
+    @Test
+    void shouldUseTightestTotalCap() {
+        RuleSet rules = RuleSet.parse(List.of(
+                "cap = TOO_MANY_TICKETS | adults + children + infants <= 25",
+                "event-cap = TOO_MANY_TICKETS | adults + children + infants < 11"));
+
+        assertEquals(10, rules.maxTotalTickets());
+        assertEquals("event-cap", rules.totalCap().name());
+    }
+
+    @Test
+    void shouldRequireTotalCap() {
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(List.of("adult = NO_ADULT | adults >= 1")));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(List.of(
+                "cap = TOO_MANY_TICKETS | adults + children + infants <= 25 if adults >= 1")));
+    }
+
+    @Test
+    void shouldRejectUnknownReasonAndDuplicateNames() {
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(List.of(
+                "cap = TOO_MANY_SEATS | adults + children + infants <= 25")));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(List.of(
+                "cap = TOO_MANY_TICKETS | adults + children + infants <= 25",
+                "cap = NO_TICKETS | adults + children + infants >= 1")));
+    }
+
+    @Test
+    void shouldLoadRulesFromFile() throws IOException {
+        Path file = dir.resolve("rules.conf");
+        Files.writeString(file, """
+                cap = TOO_MANY_TICKETS | adults + children + infants <= 12
+                adult-present = NO_ADULT | adults >= 1
+                """);
+
+        assertEquals(2, RuleSet.load(file).rules().size());
+
+        Files.writeString(file, "cap = TOO_MANY_TICKETS | adults + children + infants <=\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RuleSet.load(file));
+        assertTrue(e.getMessage().contains(file.toString()));
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int ACCOUNTS = 100_000;
+
+    @Test
+    void shouldSpreadAccountsEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(0, 1, 2, 3));
+        int[] counts = new int[4];
+        for (long account = 1; account <= ACCOUNTS; account++) {
+            counts[ring.shardFor(account)]++;
+        }
+
+        for (int count : counts) {
+            assertEquals(ACCOUNTS / 4.0, count, ACCOUNTS * 0.05);
+        }
+    }
+
+    @Test
+    void shouldOnlyMoveAccountsToNewShard() {
+        ConsistentHashRing four = new ConsistentHashRing(List.of(0, 1, 2, 3));
+        ConsistentHashRing five = new ConsistentHashRing(List.of(0, 1, 2, 3, 4));
+        int moved = 0;
+        for (long account = 1; account <= ACCOUNTS; account++) {
+            int before = four.shardFor(account);
+            int after = five.shardFor(account);
+            if (before != after) {
+                assertEquals(4, after);
+                moved++;
+            }
+        }
+
+        assertEquals(ACCOUNTS / 5.0, moved, ACCOUNTS * 0.05);
+    }
+
+    @Test
+    void shouldNotDependOnShardOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(0, 1, 2));
+        ConsistentHashRing reversed = new ConsistentHashRing(List.of(2, 1, 0));
+
+        for (long account = 1; account <= 1_000; account++) {
+            assertEquals(ring.shardFor(account), reversed.shardFor(account));
+        }
+        assertEquals(Set.of(0, 1, 2), ring.getShardIds());
+    }
+
+    @Test
+    void shouldRejectEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of()));
+    }
+}
@@ -0,0 +1,236 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+class ShardedTicketServiceTest {
+
+    private final TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+    private final List<RecordingHandler> handlers = new ArrayList<>();
+    private ShardedTicketService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    private ShardedTicketService service(int shards) {
+        service = new ShardedTicketService(shards, id -> {
+            RecordingHandler handler = new RecordingHandler();
+            handlers.add(handler);
+            return handler;
+        });
+        return service;
+    }
+
+    @Test
+    void shouldKeepEveryAccountsStateOnOneShardThread() {
+        ShardedTicketService service = service(4);
+        List<CompletableFuture<Void>> purchases = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (long account = 1; account <= 50; account++) {
+                purchases.add(service.purchaseTicketsAsync(account, new TicketTypeRequest(ADULT, 1)));
+            }
+        }
+        purchases.forEach(CompletableFuture::join);
+
+        for (int shard = 0; shard < handlers.size(); shard++) {
+            RecordingHandler handler = handlers.get(shard);
+            assertEquals(1, handler.threads.size(), "shard " + shard);
+            for (Map.Entry<Long, Integer> account : handler.purchases.entrySet()) {
+                assertEquals(shard, service.shardFor(account.getKey()));
+                assertEquals(20, account.getValue());
+                assertEquals(20, handler.completed.get(account.getKey()));
+            }
+        }
+        long completed = service.getTransport().getShardIds().stream()
+                .mapToLong(id -> ((LoopbackShardTransport) service.getTransport()).getShard(id).getCompletedPurchases())
+                .sum();
+        assertEquals(1_000, completed);
+    }
+
+    @Test
+    void shouldPropagateShardRejection() {
+        ShardedTicketService service = service(2);
+
+        assertThrows(InvalidPurchaseException.class, () -> service.purchaseTickets(1L, new TicketTypeRequest(CHILD, 1)));
+        assertThrows(InvalidPurchaseException.class, () -> service.purchaseTickets(null, new TicketTypeRequest(ADULT, 1)));
+    }
+
+    @Test
+    void shouldKeepPreparingPurchasesWhileGatewaysAreBusy() {
+        CountDownLatch release = new CountDownLatch(1);
+        PurchaseShard shard = new PurchaseShard(0, new BlockingHandler(1L, release));
+        service = new ShardedTicketService(new LoopbackShardTransport(List.of(shard)));
+
+        CompletableFuture<Void> slow = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+        service.purchaseTickets(2L, new TicketTypeRequest(ADULT, 1));
+
+        assertFalse(slow.isDone());
+        assertEquals(1, shard.getPendingPurchases());
+        release.countDown();
+        slow.join();
+        assertEquals(2, shard.getCompletedPurchases());
+    }
+
+    @Test
+    void shouldCopyRequestsBeforeQueueing() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<TicketTypeRequest> seen = new ArrayList<>();
+        PurchaseShard shard = new PurchaseShard(0, new ShardPurchaseHandler() {
+            @Override
+            public TicketCalculationResult prepare(TicketOrder order) {
+                blocked.countDown();
+                await(release);
+                seen.add(order.ticketTypeRequests()[0]);
+                return new TicketCalculationResult(25, 1);
+            }
+
+            @Override
+            public void callGateways(TicketOrder order, TicketCalculationResult result) {
+            }
+        });
+        service = new ShardedTicketService(new LoopbackShardTransport(List.of(shard)));
+
+        TicketTypeRequest[] requests = {new TicketTypeRequest(ADULT, 1)};
+        CompletableFuture<Void> purchase = service.purchaseTicketsAsync(1L, requests);
+        blocked.await();
+        requests[0] = new TicketTypeRequest(ADULT, 9);
+        release.countDown();
+        purchase.join();
+
+        assertEquals(List.of(new TicketTypeRequest(ADULT, 1)), seen);
+    }
+
+    @Test
+    void shouldRejectWhenShardIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        PurchaseShard shard = new PurchaseShard(0, new BlockingHandler(1L, release), 2);
+        service = new ShardedTicketService(new LoopbackShardTransport(List.of(shard)));
+
+        CompletableFuture<Void> first = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+        CompletableFuture<Void> second = service.purchaseTicketsAsync(1L, new TicketTypeRequest(ADULT, 1));
+
+        assertThrows(RejectedExecutionException.class, () -> service.purchaseTickets(3L, new TicketTypeRequest(ADULT, 1)));
+        assertEquals(2, shard.getPendingPurchases());
+        release.countDown();
+        first.join();
+        second.join();
+        assertEquals(2, shard.getCompletedPurchases());
+        assertEquals(0, shard.getPendingPurchases());
+    }
+
+    @Test
+    void shouldStopWaitingForHungGatewaysWhenClosing() {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService gateways = Executors.newVirtualThreadPerTaskExecutor();
+        PurchaseShard shard = new PurchaseShard(0, new BlockingHandler(1L, release), 10, gateways, false, Duration.ofMillis(50));
+        try {
+            CompletableFuture<Void> hung = shard.submit(new TicketOrder(1L, new TicketTypeRequest(ADULT, 1)));
+
+            long start = System.nanoTime();
+            shard.close();
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertTrue(shard.submit(new TicketOrder(2L, new TicketTypeRequest(ADULT, 1))).isCompletedExceptionally());
+
+            release.countDown();
+            hung.join();
+            assertEquals(0, shard.getCompletedPurchases());
+        } finally {
+            gateways.close();
+        }
+    }
+
+    @Test
+    void shouldRequireTransportToReachEveryShardOnTheRing() {
+        LoopbackShardTransport transport = new LoopbackShardTransport(List.of(new PurchaseShard(0, new RecordingHandler())));
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ShardedTicketService(new ConsistentHashRing(List.of(0, 1)), transport));
+        } finally {
+            transport.close();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deliberately not thread-safe: the shard's single writer is what keeps it consistent.
+     */
+    private final class RecordingHandler implements ShardPurchaseHandler {
+
+        private final Map<Long, Integer> purchases = new HashMap<>();
+        private final Map<Long, Integer> completed = new HashMap<>();
+        private final List<Thread> threads = new ArrayList<>();
+
+        @Override
+        public TicketCalculationResult prepare(TicketOrder order) {
+            TicketCalculationResult result = processor.process(order.accountId(), order.ticketTypeRequests());
+            purchases.merge(order.accountId(), 1, Integer::sum);
+            recordThread();
+            return result;
+        }
+
+        @Override
+        public void callGateways(TicketOrder order, TicketCalculationResult result) {
+        }
+
+        @Override
+        public void complete(TicketOrder order, TicketCalculationResult result, Throwable failure) {
+            completed.merge(order.accountId(), 1, Integer::sum);
+            recordThread();
+        }
+
+        private void recordThread() {
+            if (!threads.contains(Thread.currentThread())) {
+                threads.add(Thread.currentThread());
+            }
+        }
+    }
+
+    private record BlockingHandler(long blockedAccount, CountDownLatch release) implements ShardPurchaseHandler {
+
+        @Override
+        public TicketCalculationResult prepare(TicketOrder order) {
+            return new TicketCalculationResult(25, 1);
+        }
+
+        @Override
+        public void callGateways(TicketOrder order, TicketCalculationResult result) {
+            if (order.accountId() == blockedAccount) {
+                await(release);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.dwp.uc.pairtest.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(5 * SECOND);
+
+    @Test
+    void shouldAllowBurstThenRejectUntilRefilled() {
+        AccountRateLimiter limiter = new AccountRateLimiter(1, 3, 100, 4, clock::get);
+
+        assertTrue(limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L));
+        assertFalse(limiter.tryAcquire(1L));
+
+        clock.addAndGet(SECOND);
+        assertTrue(limiter.tryAcquire(1L));
+        assertFalse(limiter.tryAcquire(1L));
+    }
+
+    @Test
+    void shouldLimitAccountsIndependently() {
+        AccountRateLimiter limiter = new AccountRateLimiter(1, 1, 100, 4, clock::get);
+
+        assertTrue(limiter.tryAcquire(1L));
+        assertFalse(limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(2L));
+    }
+
+    @Test
+    void shouldBoundTrackedAccounts() {
+        AccountRateLimiter limiter = new AccountRateLimiter(1, 1, 64, 4, clock::get);
+
+        for (long accountId = 1; accountId <= 10_000; accountId++) {
+            limiter.tryAcquire(accountId);
+        }
+
+        assertTrue(limiter.getTrackedAccounts() <= 64);
+    }
+
+    @Test
+    void shouldDropIdleAccountsBeforeActiveOnes() {
+        AccountRateLimiter limiter = new AccountRateLimiter(1, 1, 2, 1, clock::get);
+        limiter.tryAcquire(1L);
+        clock.addAndGet(10 * SECOND);
+        limiter.tryAcquire(2L);
+
+        limiter.tryAcquire(3L);
+
+        assertEquals(2, limiter.getTrackedAccounts());
+        assertFalse(limiter.tryAcquire(2L));
+    }
+
+    @Test
+    void shouldEvictBucketClosestToRefilledWhenAllAreActive() {
+        AccountRateLimiter limiter = new AccountRateLimiter(1, 5, 2, 1, clock::get);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(1L);
+        }
+        limiter.tryAcquire(2L);
+
+        limiter.tryAcquire(3L);
+
+        assertEquals(2, limiter.getTrackedAccounts());
+        assertFalse(limiter.tryAcquire(1L));
+    }
+
+    @Test
+    void shouldRejectNonPositiveConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new AccountRateLimiter(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AccountRateLimiter(1, 0, 10));
+    }
+}
@@ -0,0 +1,111 @@
+package uk.gov.dwp.uc.pairtest.throttle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.PurchaseRateLimitedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+@ExtendWith(MockitoExtension.class)
+class ThrottledTicketServiceTest {
+
+    @Mock
+    private TicketService delegate;
+
+    @Test
+    void shouldRejectAttemptsOverTheAccountRate() {
+        TicketService service = new ThrottledTicketService(delegate, new AccountRateLimiter(0.001, 2, 100), 100);
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+
+        service.purchaseTickets(1L, adult);
+        service.purchaseTickets(1L, adult);
+
+        assertThrows(PurchaseRateLimitedException.class, () -> service.purchaseTickets(1L, adult));
+        verify(delegate, times(2)).purchaseTickets(1L, adult);
+    }
+
+    @Test
+    void shouldCollapseIdenticalConcurrentPurchases() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        TicketService slowDelegate = (accountId, requests) -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            awaitQuietly(release);
+        };
+        TicketService service = new ThrottledTicketService(slowDelegate, new AccountRateLimiter(1000, 1000, 100), 100);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> first = executor.submit(() -> service.purchaseTickets(1L,
+                    new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(CHILD, 1)));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<?> duplicate = executor.submit(() -> service.purchaseTickets(1L,
+                    new TicketTypeRequest(CHILD, 1), new TicketTypeRequest(ADULT, 1)));
+            Thread.sleep(50);
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            duplicate.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldShareFailureWithDuplicates() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TicketService failingDelegate = (accountId, requests) -> {
+            entered.countDown();
+            awaitQuietly(release);
+            throw new IllegalStateException("declined");
+        };
+        TicketService service = new ThrottledTicketService(failingDelegate, new AccountRateLimiter(1000, 1000, 100), 100);
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> first = executor.submit(() -> service.purchaseTickets(1L, adult));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<?> duplicate = executor.submit(() -> service.purchaseTickets(1L, adult));
+            Thread.sleep(50);
+            release.countDown();
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, first::get).getCause());
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, duplicate::get).getCause());
+        }
+    }
+
+    @Test
+    void shouldNotCollapseSequentialOrDifferentPurchases() {
+        TicketService service = new ThrottledTicketService(delegate, new AccountRateLimiter(1000, 1000, 100), 100);
+        TicketTypeRequest adult = new TicketTypeRequest(ADULT, 1);
+        TicketTypeRequest adults = new TicketTypeRequest(ADULT, 2);
+
+        service.purchaseTickets(1L, adult);
+        service.purchaseTickets(1L, adult);
+        service.purchaseTickets(1L, adults);
+
+        verify(delegate, times(2)).purchaseTickets(1L, adult);
+        verify(delegate).purchaseTickets(1L, adults);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
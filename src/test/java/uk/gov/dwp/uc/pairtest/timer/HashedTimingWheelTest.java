@@ -0,0 +1,108 @@
+package uk.gov.dwp.uc.pairtest.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> expired = new ArrayList<>();
+    private final HashedTimingWheel wheel = new HashedTimingWheel(10, 8, clock::get);
+
+    private class Named extends HashedTimingWheel.Timeout {
+        private final String name;
+
+        Named(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void expire() {
+            expired.add(name);
+        }
+    }
+
+    @Test
+    void shouldExpireOnlyAfterDeadline() {
+        wheel.schedule(new Named("a"), 25, TimeUnit.NANOSECONDS);
+        wheel.advance(20);
+        assertTrue(expired.isEmpty());
+        wheel.advance(30);
+        assertEquals(List.of("a"), expired);
+    }
+
+    @Test
+    void shouldWaitFullRoundsForDelaysBeyondOneRevolution() {
+        Named timeout = new Named("late");
+        wheel.schedule(timeout, 250, TimeUnit.NANOSECONDS);
+        wheel.advance(240);
+        assertTrue(expired.isEmpty());
+        assertTrue(timeout.isScheduled());
+        wheel.advance(250);
+        assertEquals(List.of("late"), expired);
+        assertFalse(timeout.isScheduled());
+    }
+
+    @Test
+    void shouldNotExpireCancelledTimeout() {
+        Named cancelled = new Named("cancelled");
+        wheel.schedule(cancelled, 10, TimeUnit.NANOSECONDS);
+        wheel.schedule(new Named("kept"), 10, TimeUnit.NANOSECONDS);
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        wheel.advance(100);
+        assertEquals(List.of("kept"), expired);
+    }
+
+    @Test
+    void shouldScheduleRelativeToCurrentTime() {
+        wheel.advance(1_000);
+        clock.set(1_000);
+        wheel.schedule(new Named("a"), 0, TimeUnit.NANOSECONDS);
+        wheel.schedule(new Named("b"), 50, TimeUnit.NANOSECONDS);
+        wheel.advance(1_010);
+        assertEquals(List.of("a"), expired);
+        wheel.advance(1_050);
+        assertEquals(List.of("a", "b"), expired);
+    }
+
+    @Test
+    void shouldAllowReschedulingAfterExpiry() {
+        Named timeout = new Named("again");
+        wheel.schedule(timeout, 10, TimeUnit.NANOSECONDS);
+        wheel.advance(10);
+        clock.set(10);
+        wheel.schedule(timeout, 10, TimeUnit.NANOSECONDS);
+        wheel.advance(20);
+        assertEquals(List.of("again", "again"), expired);
+    }
+
+    @Test
+    void shouldRejectTimeoutThatIsAlreadyScheduled() {
+        Named timeout = new Named("a");
+        wheel.schedule(timeout, 10, TimeUnit.NANOSECONDS);
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(timeout, 10, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void shouldExpireOnWorkerThread() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        try (HashedTimingWheel running = new HashedTimingWheel(1, TimeUnit.MILLISECONDS, 64)) {
+            running.start();
+            running.schedule(new HashedTimingWheel.Timeout() {
+                @Override
+                protected void expire() {
+                    latch.countDown();
+                }
+            }, 5, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.service.PriceCalculator;
+import uk.gov.dwp.uc.pairtest.service.TicketCalculationResult;
+import uk.gov.dwp.uc.pairtest.service.TicketOrderProcessor;
+import uk.gov.dwp.uc.pairtest.service.validator.TicketRequestValidator;
+import uk.gov.dwp.uc.pairtest.service.validator.ValidationFailure;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+class OrderDecoderTest {
+
+    private final OrderDecoder decoder = new OrderDecoder();
+
+    @Test
+    void shouldDecodeWhatWasEncoded() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * OrderEncoder.ENCODED_LENGTH);
+        OrderEncoder.encode(buffer, 42L, 3, 2, 1);
+        OrderEncoder.encode(buffer, Long.MAX_VALUE, new TicketTypeRequest(ADULT, 1),
+                new TicketTypeRequest(CHILD, 4), new TicketTypeRequest(ADULT, 2));
+
+        decoder.wrap(buffer, 0);
+        assertEquals(42L, decoder.accountId());
+        assertEquals(3, decoder.adultTickets());
+        assertEquals(2, decoder.childTickets());
+        assertEquals(1, decoder.infantTickets());
+
+        decoder.wrap(buffer, OrderEncoder.ENCODED_LENGTH);
+        assertEquals(Long.MAX_VALUE, decoder.accountId());
+        assertEquals(3, decoder.tickets(ADULT));
+        assertEquals(4, decoder.tickets(CHILD));
+        assertEquals(0, decoder.tickets(INFANT));
+        assertEquals(2 * OrderEncoder.ENCODED_LENGTH, buffer.position());
+    }
+
+    @Test
+    void shouldKeepNegativeCountsForValidatorToReject() {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH);
+        OrderEncoder.encode(buffer, 1L, 1, -1, 0);
+
+        assertEquals(-1, decoder.wrap(buffer, 0).childTickets());
+    }
+
+    @Test
+    void shouldRejectNegativeLineItemHiddenByTheSum() {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH);
+
+        InvalidPurchaseException e = assertThrows(InvalidPurchaseException.class, () -> OrderEncoder.encode(buffer, 1L,
+                new TicketTypeRequest(ADULT, 5), new TicketTypeRequest(ADULT, -3)));
+
+        assertEquals(ValidationFailure.NEGATIVE_TICKETS, e.getFailure());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void shouldRejectCountsThatDoNotFitTheFormat() {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH);
+        assertThrows(IllegalArgumentException.class, () -> OrderEncoder.encode(buffer, 1L, 40_000, 0, 0));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void shouldRejectLineItemsWhoseSumWouldWrap() {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH);
+        assertThrows(IllegalArgumentException.class, () -> OrderEncoder.encode(buffer, 1L,
+                new TicketTypeRequest(ADULT, Integer.MAX_VALUE), new TicketTypeRequest(ADULT, Integer.MAX_VALUE),
+                new TicketTypeRequest(ADULT, 3)));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void shouldRejectOffsetWithoutCompleteOrder() {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH + 4);
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.wrap(buffer, 8));
+    }
+
+    @Test
+    void shouldFeedProcessorWithoutTicketRequests() {
+        TicketOrderProcessor processor = new TicketOrderProcessor(new TicketRequestValidator(25), new PriceCalculator());
+        ByteBuffer buffer = ByteBuffer.allocate(2 * OrderEncoder.ENCODED_LENGTH);
+        OrderEncoder.encode(buffer, 7L, 2, 1, 1);
+        OrderEncoder.encode(buffer, 0L, 2, 1, 1);
+
+        TicketCalculationResult result = decoder.wrap(buffer, 0).process(processor);
+        assertEquals(65, result.totalAmount());
+        assertEquals(3, result.totalSeats());
+
+        decoder.wrap(buffer, OrderEncoder.ENCODED_LENGTH);
+        assertThrows(InvalidPurchaseException.class, () -> decoder.process(processor));
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.dwp.uc.pairtest.wire;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderFileReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldStreamOrdersAcrossBufferRefills() throws IOException {
+        Path file = dir.resolve("orders.bin");
+        try (OrderFileWriter writer = new OrderFileWriter(file)) {
+            for (int i = 1; i <= 10_000; i++) {
+                writer.write(i, i % 5, i % 3, i % 2);
+            }
+            writer.write(10_001L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2));
+        }
+        assertEquals(Integer.BYTES + 10_001L * OrderEncoder.ENCODED_LENGTH, Files.size(file));
+
+        OrderDecoder order = new OrderDecoder();
+        try (OrderFileReader reader = new OrderFileReader(FileChannel.open(file, StandardOpenOption.READ), 7)) {
+            for (int i = 1; i <= 10_000; i++) {
+                assertTrue(reader.next(order));
+                assertEquals(i, order.accountId());
+                assertEquals(i % 5, order.adultTickets());
+                assertEquals(i % 3, order.childTickets());
+                assertEquals(i % 2, order.infantTickets());
+            }
+            assertTrue(reader.next(order));
+            assertEquals(2, order.adultTickets());
+            assertFalse(reader.next(order));
+        }
+    }
+
+    @Test
+    void shouldReadEmptyOrderFile() throws IOException {
+        Path file = dir.resolve("orders.bin");
+        new OrderFileWriter(file).close();
+
+        try (OrderFileReader reader = new OrderFileReader(file)) {
+            assertFalse(reader.next(new OrderDecoder()));
+        }
+    }
+
+    @Test
+    void shouldRejectTruncatedOrder() throws IOException {
+        Path file = dir.resolve("orders.bin");
+        try (OrderFileWriter writer = new OrderFileWriter(file)) {
+            writer.write(1L, 1, 0, 0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 1);
+        }
+
+        try (OrderFileReader reader = new OrderFileReader(file)) {
+            assertThrows(IOException.class, () -> reader.next(new OrderDecoder()));
+        }
+    }
+
+    @Test
+    void shouldCloseChannelWhenHeaderCannotBeRead() throws IOException {
+        Path file = dir.resolve("orders.bin");
+        new OrderFileWriter(file).close();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+
+        assertThrows(NonReadableChannelException.class, () -> new OrderFileReader(channel, 1));
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void shouldRejectFileWithoutHeader() throws IOException {
+        Path file = dir.resolve("orders.json");
+        Files.writeString(file, "{\"accountId\": 1}");
+
+        assertThrows(IOException.class, () -> new OrderFileReader(file));
+    }
+}